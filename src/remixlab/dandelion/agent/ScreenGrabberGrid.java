@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.agent;
+
+import remixlab.dandelion.core.*;
+import remixlab.dandelion.geom.*;
+import remixlab.tersehandling.core.*;
+import remixlab.tersehandling.event.*;
+
+/**
+ * A {@link remixlab.tersehandling.core.GrabberGrid} which buckets the
+ * {@link remixlab.dandelion.core.InteractiveFrame}s of an agent pool by their
+ * projected {@link remixlab.dandelion.core.Frame#position()}, using their
+ * {@link remixlab.dandelion.core.InteractiveFrame#grabsInputThreshold()} as radius,
+ * i.e., the same rule of
+ * {@link remixlab.dandelion.core.InteractiveFrame#checkIfGrabsInput(TerseEvent)}.
+ * Install it with {@code agent.setGrabberGrid(new ScreenGrabberGrid(scene))}.
+ * <p>
+ * The grid is rebuilt at most once per frame (see
+ * {@link remixlab.fpstiming.TimingHandler#frameCount()}), and within a frame only
+ * when the eye frame moves (see {@link remixlab.dandelion.core.Frame#worldStamp()}).
+ * Hence grabbers moved within the current frame keep the cells of their position
+ * when the grid was built until the next frame.
+ * <p>
+ * <b>Attention:</b> Pool InteractiveFrames whose class overrides
+ * {@code checkIfGrabsInput} with a different rule should not be located: override
+ * {@link #locate(Grabbable, float[])} to return {@code false} for them.
+ */
+public class ScreenGrabberGrid extends GrabberGrid {
+	protected AbstractScene scene;
+
+	public ScreenGrabberGrid(AbstractScene scn) {
+		super();
+		scene = scn;
+	}
+
+	public ScreenGrabberGrid(AbstractScene scn, int size) {
+		super(size);
+		scene = scn;
+	}
+
+	@Override
+	public boolean locate(Grabbable grabber, float[] target) {
+		if (!(grabber instanceof InteractiveFrame))
+			return false;
+		InteractiveFrame frame = (InteractiveFrame) grabber;
+		Vec proj = scene.eye().projectedCoordinatesOf(frame.position());
+		target[0] = proj.vec[0];
+		target[1] = proj.vec[1];
+		target[2] = frame.grabsInputThreshold();
+		return true;
+	}
+
+	@Override
+	public boolean locate(TerseEvent event, float[] target) {
+		if (event instanceof DOF2Event) {
+			target[0] = ((DOF2Event) event).x();
+			target[1] = ((DOF2Event) event).y();
+		}
+		else if (event instanceof DOF3Event) {
+			target[0] = ((DOF3Event) event).x();
+			target[1] = ((DOF3Event) event).y();
+		}
+		else if (event instanceof DOF6Event) {
+			target[0] = ((DOF6Event) event).x();
+			target[1] = ((DOF6Event) event).y();
+		}
+		else
+			return false;
+		return true;
+	}
+
+	@Override
+	public long stamp() {
+		// the eye parameters (see Eye.lastParamUpdate()) have a frame resolution
+		return (scene.timerHandler().frameCount() << 32) + scene.eye().frame().worldStamp();
+	}
+}
@@ -42,6 +42,7 @@ public abstract class AbstractScene extends AnimatedObject implements Constants,
   //T I M E R S
   //protected boolean singleThreadedTaskableTimers;
 	protected TimingHandler timerHandler;
+	protected InertiaIntegrator inertiaIntegrator;
 	
 	//TerseHandler
 	protected TerseHandler terseHandler;
@@ -109,6 +110,16 @@ public abstract class AbstractScene extends AnimatedObject implements Constants,
 		return timerHandler;
 	}
 	
+	/**
+	 * Returns the integrator which spins and tosses the scene interactive frames. It is
+	 * lazily created.
+	 */
+	public InertiaIntegrator inertiaIntegrator() {
+		if (inertiaIntegrator == null)
+			inertiaIntegrator = new InertiaIntegrator(this);
+		return inertiaIntegrator;
+	}
+	
 	public void registerJob(AbstractTimerJob job) {
 		timerHandler().registerJob(job);
 	}
@@ -189,6 +189,9 @@ public class Camera extends Eye implements Constants, Copyable {
 	//rescale ortho when rap changes
 	private float rapK = 1;
 
+	// CPU picking
+	protected RayPicker rayPicker;
+
 	/**
 	 * Main constructor.
 	 * <p>
@@ -252,6 +255,7 @@ public class Camera extends Eye implements Constants, Copyable {
 		this.setPhysicalDistanceToScreen(oCam.physicalDistanceToScreen());
 		this.setPhysicalScreenWidth( oCam.physicalScreenWidth() );
 		this.rapK = oCam.rapK;
+		this.rayPicker = oCam.rayPicker;
 	}
 	
 	/*! Defines the Camera position(), orientation() and fieldOfView() from a projection matrix.
@@ -1326,11 +1330,35 @@ public class Camera extends Eye implements Constants, Copyable {
 	 * <p>
 	 * Current implementation always returns {@code WorlPoint.found = false}
 	 * (dummy value), meaning that no point was found under pixel.
+	 * <p>
+	 * If a {@link #rayPicker()} is set, the point is found by ray casting the objects
+	 * registered in it instead (see {@link remixlab.dandelion.core.RayPicker#pick(Camera, Point)}).
 	 */
 	public WorldPoint pointUnderPixel(Point pixel) {
+		if (rayPicker != null)
+			return rayPicker.pick(this, pixel);
 		return scene.pointUnderPixel(pixel);
 	}
 	
+	/**
+	 * Returns the {@link remixlab.dandelion.core.RayPicker} used by
+	 * {@link #pointUnderPixel(Point)}, or {@code null} (default) if the scene
+	 * implementation (e.g., a depth buffer read) is used instead.
+	 * 
+	 * @see #setRayPicker(RayPicker)
+	 */
+	public RayPicker rayPicker() {
+		return rayPicker;
+	}
+	
+	/**
+	 * Sets the {@link #rayPicker()}. Use {@code null} to restore the scene
+	 * {@link #pointUnderPixel(Point)} implementation.
+	 */
+	public void setRayPicker(RayPicker picker) {
+		rayPicker = picker;
+	}
+	
 	// 8. PROCESSING MATRICES
 	
 	@Override
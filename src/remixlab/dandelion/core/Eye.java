@@ -15,6 +15,7 @@ import java.util.Iterator;
 import remixlab.dandelion.geom.*;
 import remixlab.fpstiming.TimingHandler;
 import remixlab.tersehandling.core.Grabbable;
+import remixlab.tersehandling.core.GrabberRegistry;
 import remixlab.util.Copyable;
 import remixlab.util.EqualsBuilder;
 import remixlab.util.HashCodeBuilder;
@@ -504,7 +505,9 @@ public abstract class Eye implements Copyable {
 		*/
 		
 		// /**
-		for (Grabbable mg : scene.terseHandler().globalGrabberList()) {
+		GrabberRegistry grabbers = scene.terseHandler().grabberRegistry();
+		for (int i = 0; i < grabbers.size(); i++) {
+			Grabbable mg = grabbers.get(i);
 			if(mg instanceof InteractiveFrame)
 				if(!((InteractiveFrame) mg).isInCameraPath())
 					((InteractiveFrame) mg).setFlySpeed(0.01f * sceneRadius());
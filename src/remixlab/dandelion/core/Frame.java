@@ -10,6 +10,7 @@
 package remixlab.dandelion.core;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -100,7 +101,22 @@ public class Frame implements Copyable, Constants {
 		protected Frame refFrame;
 		protected Constraint constr;
 		protected long lastUpdate;
-		
+		protected long version;
+
+		// world transform cache, see worldStamp()
+		protected Mat wMat, wInvMat;
+		protected Orientable wOrient;
+		protected Vec wMag;
+		protected AbstractFrameKernel wRefKernel;
+		protected long wVersion, wRefStamp, wCheck = -1, wStamp;
+
+		// optional FrameStore slot this kernel is mirrored to, see FrameStore.add(Frame)
+		protected FrameStore store;
+		protected int storeIndex = -1;
+
+		// keyFrames (of KeyFrameInterpolators) defined by this kernel frames, notified by modified()
+		protected List<KeyFrameInterpolator.AbstractKeyFrame> keyFrames;
+
 		public AbstractFrameKernel() {
 			trans = new Vec(0, 0, 0);
 			scl =  new Vec(1, 1, 1);
@@ -228,6 +244,29 @@ public class Frame implements Copyable, Constants {
 		
 		protected void modified() {
 			lastUpdate = TimingHandler.frameCount;
+			++version;
+			++modCount;
+			if (store != null)
+				store.sync(this);
+			if (keyFrames != null)
+				for (int i = 0; i < keyFrames.size(); ++i)
+					keyFrames.get(i).frameModified();
+		}
+
+		protected void addKeyFrame(KeyFrameInterpolator.AbstractKeyFrame kf) {
+			if (keyFrames == null)
+				keyFrames = new ArrayList<KeyFrameInterpolator.AbstractKeyFrame>();
+			keyFrames.add(kf);
+		}
+
+		protected void removeKeyFrame(KeyFrameInterpolator.AbstractKeyFrame kf) {
+			if (keyFrames == null)
+				return;
+			for (int i = 0; i < keyFrames.size(); ++i)
+				if (keyFrames.get(i) == kf) {
+					keyFrames.remove(i);
+					return;
+				}
 		}
 		
 		public long lastUpdate() {
@@ -239,6 +278,17 @@ public class Frame implements Copyable, Constants {
 				System.out.println("Frame.setReferenceFrame would create a loop in Frame hierarchy");
 			else {
 				boolean identical = (referenceFrame() == rFrame);
+				if (!identical) {
+					// by identity, since equals() compares the frame transformations
+					if (refFrame != null && refFrame.childrenList != null)
+						for (int i = 0; i < refFrame.childrenList.size(); ++i)
+							if (refFrame.childrenList.get(i) == Frame.this) {
+								refFrame.childrenList.remove(i);
+								break;
+							}
+					if (rFrame != null && rFrame.childrenList != null)
+						rFrame.childrenList.add(Frame.this);
+				}
 				refFrame = rFrame;
 				if (!identical)
 					modified();
@@ -259,6 +309,125 @@ public class Frame implements Copyable, Constants {
 		  rotation().fromRotatedBasis(x,y,z);
 		  modified();
 		}
+
+		/**
+		 * Refreshes (if needed) the cached world transformation of the kernel and returns
+		 * its stamp, which is increased every time the world transformation is recomputed.
+		 * <p>
+		 * If no frame has been {@link #modified()} since the cache was last validated
+		 * (i.e., the global modification epoch didn't change) this is a single compare.
+		 * Otherwise the {@link #referenceFrame()} chain is walked up comparing the (per
+		 * kernel) modification versions and stamps, and only the kernels that actually
+		 * (or whose ancestors) changed are recomputed. Hence, once refreshed, the cache is
+		 * only read and a hierarchy may be queried concurrently as long as it is not
+		 * modified.
+		 * <p>
+		 * <b>Attention:</b> The cache is invalidated by {@link #modified()}. Modifying the
+		 * {@link #translation()}, {@link #rotation()} or {@link #scaling()} objects
+		 * directly (without calling a kernel method) is not detected.
+		 */
+		protected long worldStamp() {
+			long epoch = modCount;
+			if (wCheck == epoch)
+				return wStamp;
+			AbstractFrameKernel refKernel = (refFrame == null) ? null : refFrame.kernel();
+			long refStamp = (refKernel == null) ? 0 : refKernel.worldStamp();
+			// the reference kernel identity is compared too, since stamps of different
+			// kernels (e.g., after a Frame.setKernel()) are unrelated
+			if (wStamp == 0 || wVersion != version || wRefStamp != refStamp || wRefKernel != refKernel) {
+				updateWorldCache();
+				wVersion = version;
+				wRefStamp = refStamp;
+				wRefKernel = refKernel;
+				++wStamp;
+			}
+			wCheck = epoch;
+			return wStamp;
+		}
+
+		/**
+		 * Returns the cached world (i.e., frame to world) affine transformation matrix.
+		 * Don't modify it.
+		 */
+		protected Mat worldMat() {
+			worldStamp();
+			return wMat;
+		}
+
+		/**
+		 * Returns the cached inverse world (i.e., world to frame) affine transformation
+		 * matrix. Don't modify it.
+		 */
+		protected Mat worldInverseMat() {
+			worldStamp();
+			return wInvMat;
+		}
+
+		/**
+		 * Returns the cached world orientation. Don't modify it.
+		 */
+		protected Orientable worldOrientation() {
+			worldStamp();
+			return wOrient;
+		}
+
+		/**
+		 * Returns the cached world magnitude. Don't modify it.
+		 */
+		protected Vec worldMagnitude() {
+			worldStamp();
+			return wMag;
+		}
+
+		/**
+		 * Recomputes the world transformation cache from the local one and the (already
+		 * refreshed) cache of the {@link #referenceFrame()}. The matrices reproduce exactly
+		 * the conversions performed by {@link Frame#localInverseCoordinatesOf(Vec)} and
+		 * {@link Frame#localCoordinatesOf(Vec)}, including the dropped z coordinate in 2D.
+		 */
+		protected void updateWorldCache() {
+			if (wMat == null) {
+				wMat = new Mat();
+				wInvMat = new Mat();
+				wMag = new Vec();
+			}
+			float [] m = wMat.mat;
+			float [] im = wInvMat.mat;
+			if (rot instanceof Quat) {
+				float [] q = ((Quat) rot).quat;
+				rotationMatrices(q[0], q[1], q[2], q[3], m, 0, im, 0);
+			}
+			else
+				rotationMatrices(rot.angle(), m, 0, im, 0);
+			scaleAndTranslate(trans.vec[0], trans.vec[1], trans.vec[2], scl.vec[0], scl.vec[1], scl.vec[2], m, 0, im, 0);
+
+			if (refFrame == null) {
+				if (rot instanceof Quat) {
+					if (!(wOrient instanceof Quat))
+						wOrient = new Quat();
+					((Quat) wOrient).set((Quat) rot, false);
+				}
+				else
+					wOrient = rot.get();
+				wMag.set(scl);
+				return;
+			}
+
+			AbstractFrameKernel ref = refFrame.kernel();
+			composeWorld(ref.wMat.mat, 0, m, 0);
+			composeWorldInverse(im, 0, ref.wInvMat.mat, 0);
+
+			if (rot instanceof Quat && ref.wOrient instanceof Quat) {
+				if (!(wOrient instanceof Quat))
+					wOrient = new Quat();
+				((Quat) wOrient).set((Quat) ref.wOrient, false);
+				((Quat) wOrient).multiply((Quat) rot);
+			}
+			else
+				wOrient = (rot instanceof Quat) ? Quat.compose(ref.wOrient, rot) : Rot.compose(ref.wOrient, rot);
+
+			Vec.multiply(ref.wMag, scl, wMag);
+		}
 	}
 	
 	/**
@@ -311,9 +480,112 @@ public class Frame implements Copyable, Constants {
 		}
 	}
 
+	/**
+	 * Writes the rotation (upper-left 3x3) part of the local matrix ({@code m}) and the
+	 * local inverse matrix ({@code im}) of a 3D frame whose rotation is the {@code (x,y,z,w)}
+	 * quaternion. Matrices are column-major and start at {@code mo} and {@code imo},
+	 * respectively. The inverse reproduces {@link remixlab.dandelion.geom.Quat#inverseRotate(Vec)}.
+	 * 
+	 * @see #scaleAndTranslate(float, float, float, float, float, float, float[], int, float[], int)
+	 */
+	protected static void rotationMatrices(float x, float y, float z, float w, float[] m, int mo, float[] im, int imo) {
+		for (int pass = 0; pass < 2; ++pass) {
+			if (pass == 1) {
+				// same as Quat.invert()
+				float sqNorm = x*x + y*y + z*z + w*w;
+				x /= -sqNorm;
+				y /= -sqNorm;
+				z /= -sqNorm;
+				w /= sqNorm;
+				m = im;
+				mo = imo;
+			}
+			float q00 = 2.0f * x * x, q11 = 2.0f * y * y, q22 = 2.0f * z * z;
+			float q01 = 2.0f * x * y, q02 = 2.0f * x * z, q03 = 2.0f * x * w;
+			float q12 = 2.0f * y * z, q13 = 2.0f * y * w, q23 = 2.0f * z * w;
+			m[mo]     = 1.0f - q11 - q22; m[mo + 4] = q01 - q23;        m[mo + 8]  = q02 + q13;
+			m[mo + 1] = q01 + q23;        m[mo + 5] = 1.0f - q22 - q00; m[mo + 9]  = q12 - q03;
+			m[mo + 2] = q02 - q13;        m[mo + 6] = q12 + q03;        m[mo + 10] = 1.0f - q11 - q00;
+		}
+	}
+	
+	/**
+	 * 2D version of {@link #rotationMatrices(float, float, float, float, float[], int, float[], int)}.
+	 * As {@link remixlab.dandelion.geom.Rot#rotate(Vec)} does, the z coordinate is dropped.
+	 */
+	protected static void rotationMatrices(float angle, float[] m, int mo, float[] im, int imo) {
+		float cosB = (float)Math.cos(angle);
+		float sinB = (float)Math.sin(angle);
+		m[mo] = cosB; m[mo + 4] = -sinB; m[mo + 8] = 0;
+		m[mo + 1] = sinB; m[mo + 5] = cosB; m[mo + 9] = 0;
+		m[mo + 2] = 0; m[mo + 6] = 0; m[mo + 10] = 0;
+		cosB = (float)Math.cos(-angle);
+		sinB = (float)Math.sin(-angle);
+		im[imo] = cosB; im[imo + 4] = -sinB; im[imo + 8] = 0;
+		im[imo + 1] = sinB; im[imo + 5] = cosB; im[imo + 9] = 0;
+		im[imo + 2] = 0; im[imo + 6] = 0; im[imo + 10] = 0;
+	}
+	
+	/**
+	 * Completes the local matrices whose rotation part was set with
+	 * {@code rotationMatrices()}, so that {@code m} reproduces
+	 * {@link #localInverseCoordinatesOf(Vec)}, i.e., {@code R * (S * p) + T}, and
+	 * {@code im} reproduces {@link #localCoordinatesOf(Vec)}, i.e.,
+	 * {@code (R^-1 * (p - T)) / S}.
+	 */
+	protected static void scaleAndTranslate(float tx, float ty, float tz, float sx, float sy, float sz, float[] m, int mo, float[] im, int imo) {
+		m[mo]     *= sx; m[mo + 4] *= sy; m[mo + 8]  *= sz; m[mo + 12] = tx;
+		m[mo + 1] *= sx; m[mo + 5] *= sy; m[mo + 9]  *= sz; m[mo + 13] = ty;
+		m[mo + 2] *= sx; m[mo + 6] *= sy; m[mo + 10] *= sz; m[mo + 14] = tz;
+		m[mo + 3] = 0;   m[mo + 7] = 0;   m[mo + 11] = 0;   m[mo + 15] = 1;
+
+		im[imo]     /= sx; im[imo + 4] /= sx; im[imo + 8]  /= sx;
+		im[imo + 1] /= sy; im[imo + 5] /= sy; im[imo + 9]  /= sy;
+		im[imo + 2] /= sz; im[imo + 6] /= sz; im[imo + 10] /= sz;
+		im[imo + 12] = -(im[imo]     * tx + im[imo + 4] * ty + im[imo + 8]  * tz);
+		im[imo + 13] = -(im[imo + 1] * tx + im[imo + 5] * ty + im[imo + 9]  * tz);
+		im[imo + 14] = -(im[imo + 2] * tx + im[imo + 6] * ty + im[imo + 10] * tz);
+		im[imo + 3] = 0; im[imo + 7] = 0; im[imo + 11] = 0; im[imo + 15] = 1;
+	}
+	
+	/**
+	 * Left multiplies (in place) the local affine matrix {@code m} by the world matrix of
+	 * the reference frame {@code pm}, i.e., {@code m = pm * m}.
+	 */
+	protected static void composeWorld(float[] pm, int po, float[] m, int mo) {
+		for (int c = mo; c < mo + 16; c += 4) {
+			float x = m[c], y = m[c + 1], z = m[c + 2];
+			float w = (c == mo + 12) ? 1 : 0;
+			m[c]     = pm[po]     * x + pm[po + 4] * y + pm[po + 8]  * z + pm[po + 12] * w;
+			m[c + 1] = pm[po + 1] * x + pm[po + 5] * y + pm[po + 9]  * z + pm[po + 13] * w;
+			m[c + 2] = pm[po + 2] * x + pm[po + 6] * y + pm[po + 10] * z + pm[po + 14] * w;
+		}
+	}
+	
+	/**
+	 * Right multiplies (in place) the local inverse affine matrix {@code im} by the
+	 * world inverse matrix of the reference frame {@code pim}, i.e., {@code im = im * pim}.
+	 */
+	protected static void composeWorldInverse(float[] im, int imo, float[] pim, int po) {
+		for (int r = imo; r < imo + 3; ++r) {
+			float x = im[r], y = im[r + 4], z = im[r + 8], w = im[r + 12];
+			im[r]      = x * pim[po]      + y * pim[po + 1]  + z * pim[po + 2];
+			im[r + 4]  = x * pim[po + 4]  + y * pim[po + 5]  + z * pim[po + 6];
+			im[r + 8]  = x * pim[po + 8]  + y * pim[po + 9]  + z * pim[po + 10];
+			im[r + 12] = x * pim[po + 12] + y * pim[po + 13] + z * pim[po + 14] + w;
+		}
+	}
+
 	protected AbstractFrameKernel krnl;	
 	protected List<Frame> linkedFramesList;
 	protected Frame srcFrame;
+	// null unless children tracking is enabled, see children()
+	protected List<Frame> childrenList;
+	
+	// global modification epoch, see AbstractFrameKernel.worldStamp(). Frames are
+	// modified by a single thread, and volatile keeps the epoch reads of other
+	// (reading) threads atomic and up to date
+	protected static volatile long modCount;
 	
 	public Frame() {
 		this(true);
@@ -400,7 +672,20 @@ public class Frame implements Copyable, Constants {
 	}
 	
 	public void setKernel(AbstractFrameKernel k) {
+		AbstractFrameKernel old = krnl;
 		krnl = k;
+		// the descendants should revalidate their world transform cache
+		++modCount;
+		// the keyFrames defined by this frame now watch (and are modified by) the new kernel
+		if (old != null && old != k && old.keyFrames != null)
+			for (int i = old.keyFrames.size() - 1; i >= 0; --i) {
+				KeyFrameInterpolator.AbstractKeyFrame kf = old.keyFrames.get(i);
+				if (kf.frame() == this) {
+					old.keyFrames.remove(i);
+					k.addKeyFrame(kf);
+					kf.frameModified();
+				}
+			}
 	}
 	
   public boolean is2D() {
@@ -422,6 +707,17 @@ public class Frame implements Copyable, Constants {
 	public long lastUpdate() {
 		return kernel().lastUpdate();
 	}
+	
+	/**
+	 * Returns a stamp of the Frame world transformation, refreshing its cache if needed.
+	 * <p>
+	 * Differently from {@link #lastUpdate()}, which only reflects modifications of the
+	 * Frame itself, the stamp is increased whenever the world transformation changes,
+	 * i.e., also when any of the {@link #referenceFrame()} ancestors is modified.
+	 */
+	public final long worldStamp() {
+		return kernel().worldStamp();
+	}
 
 	/**
 	 * Returns the Frame translation, defined with respect to the
@@ -810,6 +1106,76 @@ public class Frame implements Copyable, Constants {
 	public final void setReferenceFrame(Frame rFrame) {
 		kernel().setReferenceFrame(rFrame);
 	}
+	
+	/**
+	 * Returns the frames whose {@link #referenceFrame()} has been set to this Frame
+	 * (with {@link #setReferenceFrame(Frame)}) while its children tracking was enabled
+	 * (see {@link #enableChildrenTracking()}). Don't modify it.
+	 * <p>
+	 * Note that frame copies (e.g., {@link #get()}) are not registered as children.
+	 * Call {@code setReferenceFrame(null)} on a frame to release it from its
+	 * reference frame children list.
+	 * 
+	 * @see #updateWorldTransforms()
+	 */
+	public final List<Frame> children() {
+		if (childrenList == null)
+			return Collections.<Frame>emptyList();
+		return childrenList;
+	}
+
+	/**
+	 * Returns {@code true} if the frames whose {@link #referenceFrame()} is set to this
+	 * Frame are registered as its {@link #children()}.
+	 */
+	public boolean isChildrenTrackingEnabled() {
+		return childrenList != null;
+	}
+
+	/**
+	 * Registers the frames whose {@link #referenceFrame()} is set to this Frame from now
+	 * on as its {@link #children()}. Frames referencing it before this call are not
+	 * registered.
+	 * <p>
+	 * Children tracking is disabled by default, since the children list keeps its
+	 * frames (e.g., temporary frames defined in this Frame) reachable. Enable it on
+	 * every inner frame of the hierarchies passed to {@link #updateWorldTransforms()}.
+	 */
+	public void enableChildrenTracking() {
+		if (childrenList == null)
+			childrenList = new ArrayList<Frame>();
+	}
+
+	/**
+	 * Disables children tracking and clears the {@link #children()} list.
+	 * 
+	 * @see #enableChildrenTracking()
+	 */
+	public void disableChildrenTracking() {
+		childrenList = null;
+	}
+
+	public void enableChildrenTracking(boolean flag) {
+		if (flag)
+			enableChildrenTracking();
+		else
+			disableChildrenTracking();
+	}
+	
+	/**
+	 * Refreshes the cached world transformations of this Frame and of all its
+	 * {@link #children()} (recursively), top-down.
+	 * <p>
+	 * World queries such as {@link #position()} refresh the cache lazily, so calling
+	 * this method is never required. It is useful to precompute the whole hierarchy
+	 * once per frame, e.g., before drawing it.
+	 */
+	public void updateWorldTransforms() {
+		worldStamp();
+		if (childrenList != null)
+			for (int i = 0; i < childrenList.size(); ++i)
+				childrenList.get(i).updateWorldTransforms();
+	}
 
 	/**
 	 * Sets the {@link #constraint()} attached to the Frame.
@@ -829,16 +1195,7 @@ public class Frame implements Copyable, Constants {
 	 * @see #rotation()
 	 */
 	public final Orientable orientation() {
-		Orientable res = rotation().get();
-		Frame fr = referenceFrame();
-		while (fr != null) {
-			if(is3D())
-				res = Quat.compose(fr.rotation(), res);
-			else
-				res = Rot.compose(fr.rotation(), res);
-			fr = fr.referenceFrame();
-		}
-		return res;
+		return kernel().worldOrientation().get();
 	}
 
 	/**
@@ -893,10 +1250,18 @@ public class Frame implements Copyable, Constants {
 	}
   
   public Vec magnitude() {
-  	if(referenceFrame() != null)
-  		return Vec.multiply(referenceFrame().magnitude(), scaling());
-  	else
-  		return scaling().get();
+  	return kernel().worldMagnitude().get();
+  }
+  
+  /**
+   * Same as {@link #magnitude()}, but stores the result in {@code target}. If
+   * {@code target} is null, a new vector is created.
+   */
+  public Vec magnitude(Vec target) {
+  	if (target == null)
+  		target = new Vec();
+  	target.set(kernel().worldMagnitude());
+  	return target;
   }
   
   public Vec inverseMagnitude() {
@@ -981,7 +1346,20 @@ public class Frame implements Copyable, Constants {
 	 * @see #translation()
 	 */
 	public final Vec position() {
-		return inverseCoordinatesOf(new Vec(0, 0, 0));
+		float [] m = kernel().worldMat().mat;
+		return new Vec(m[12], m[13], m[14]);
+	}
+	
+	/**
+	 * Same as {@link #position()}, but stores the result in {@code target}. If
+	 * {@code target} is null, a new vector is created.
+	 */
+	public final Vec position(Vec target) {
+		float [] m = kernel().worldMat().mat;
+		if (target == null)
+			target = new Vec();
+		target.set(m[12], m[13], m[14]);
+		return target;
 	}
 
 	/**
@@ -1480,8 +1858,28 @@ public class Frame implements Copyable, Constants {
 		return coordinatesOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #coordinatesOf(Vec)}, but stores the result in {@code target}
+	 * (which may be {@code src} itself) without allocating any temporary. If
+	 * {@code target} is null, a new vector is created.
+	 */
+	public final Vec coordinatesOf(Vec src, Vec target) {
+		return kernel().worldInverseMat().multiply(src, target);
+	}
+	
+	/**
+	 * Same as {@link #coordinatesOf(Vec, Vec)}, but with {@code float[3]} parameters.
+	 * {@code target} may be {@code src} itself. If {@code target} is null, a new array
+	 * is created.
+	 */
+	public final float[] coordinatesOf(float[] src, float[] target) {
+		return multiply(kernel().worldInverseMat(), src, target, true);
+	}
+	
 	//TODO get rid of boolean sclng methods? I'd love to
 	protected final Vec coordinatesOf(Vec src, boolean sclng) {
+		if (sclng)
+			return kernel().worldInverseMat().multiply(src, null);
 		if (referenceFrame() != null)
 			return localCoordinatesOf(referenceFrame().coordinatesOf(src), sclng);
 		else
@@ -1500,8 +1898,28 @@ public class Frame implements Copyable, Constants {
 		return inverseCoordinatesOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #inverseCoordinatesOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec inverseCoordinatesOf(Vec src, Vec target) {
+		return kernel().worldMat().multiply(src, target);
+	}
+	
+	/**
+	 * Same as {@link #inverseCoordinatesOf(Vec, Vec)}, but with {@code float[3]}
+	 * parameters. {@code target} may be {@code src} itself. If {@code target} is null,
+	 * a new array is created.
+	 */
+	public final float[] inverseCoordinatesOf(float[] src, float[] target) {
+		return multiply(kernel().worldMat(), src, target, true);
+	}
+	
   //TODO get rid of boolean sclng methods? I'd love to
 	protected final Vec inverseCoordinatesOf(Vec src, boolean sclng) {
+		if (sclng)
+			return kernel().worldMat().multiply(src, null);
 		Frame fr = this;
 		Vec res = src;
 		while (fr != null) {
@@ -1525,6 +1943,18 @@ public class Frame implements Copyable, Constants {
 		return localCoordinatesOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #localCoordinatesOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec localCoordinatesOf(Vec src, Vec target) {
+		target = Vec.subtract(src, translation(), target);
+		rotation().inverseRotate(target, target);
+		target.divide(scaling());
+		return target;
+	}
+	
 	protected final Vec localCoordinatesOf(Vec src, boolean sclng) {
 		if( sclng )
 			return Vec.divide(rotation().inverseRotate(Vec.subtract(src, translation())), scaling());
@@ -1545,6 +1975,18 @@ public class Frame implements Copyable, Constants {
 		return localInverseCoordinatesOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #localInverseCoordinatesOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec localInverseCoordinatesOf(Vec src, Vec target) {
+		target = Vec.multiply(src, scaling(), target);
+		rotation().rotate(target, target);
+		target.add(translation());
+		return target;
+	}
+	
 	protected final Vec localInverseCoordinatesOf(Vec src, boolean sclng) {
 		if( sclng )
 			return Vec.add(rotation().rotate(Vec.multiply(src, scaling())), translation());
@@ -1568,6 +2010,21 @@ public class Frame implements Copyable, Constants {
 		else
 			return localCoordinatesOf(from.inverseCoordinatesOf(src));
 	}
+	
+	/**
+	 * Same as {@link #coordinatesOfFrom(Vec, Frame)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec coordinatesOfFrom(Vec src, Frame from, Vec target) {
+		if (this == from) {
+			if (target == null)
+				target = new Vec();
+			target.set(src);
+			return target;
+		}
+		return coordinatesOf(from.inverseCoordinatesOf(src, target), target);
+	}
 
 	/**
 	 * Returns the {@code in} coordinates of the point whose position in the Frame
@@ -1592,6 +2049,22 @@ public class Frame implements Copyable, Constants {
 
 		return res;
 	}
+	
+	/**
+	 * Same as {@link #coordinatesOfIn(Vec, Frame)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec coordinatesOfIn(Vec src, Frame in, Vec target) {
+		if (in == this) {
+			if (target == null)
+				target = new Vec();
+			target.set(src);
+			return target;
+		}
+		target = inverseCoordinatesOf(src, target);
+		return (in == null) ? target : in.coordinatesOf(target, target);
+	}
 
 	/**
 	 * Returns the Frame transform of a vector {@code src} defined in the world
@@ -1606,7 +2079,30 @@ public class Frame implements Copyable, Constants {
 		return transformOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #transformOf(Vec)}, but stores the result in {@code target}
+	 * (which may be {@code src} itself) without allocating any temporary. If
+	 * {@code target} is null, a new vector is created.
+	 */
+	public final Vec transformOf(Vec src, Vec target) {
+		if (target == null)
+			target = new Vec();
+		multiply(kernel().worldInverseMat(), src.vec, target.vec, false);
+		return target;
+	}
+	
+	/**
+	 * Same as {@link #transformOf(Vec, Vec)}, but with {@code float[3]} parameters.
+	 * {@code target} may be {@code src} itself. If {@code target} is null, a new array
+	 * is created.
+	 */
+	public final float[] transformOf(float[] src, float[] target) {
+		return multiply(kernel().worldInverseMat(), src, target, false);
+	}
+	
 	protected final Vec transformOf(Vec src, boolean sclng) {
+		if (sclng)
+			return linearPart(kernel().worldInverseMat(), src);
 		if (referenceFrame() != null)
 			return localTransformOf(referenceFrame().transformOf(src), sclng);
 		else
@@ -1625,7 +2121,30 @@ public class Frame implements Copyable, Constants {
 		return inverseTransformOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #inverseTransformOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec inverseTransformOf(Vec src, Vec target) {
+		if (target == null)
+			target = new Vec();
+		multiply(kernel().worldMat(), src.vec, target.vec, false);
+		return target;
+	}
+	
+	/**
+	 * Same as {@link #inverseTransformOf(Vec, Vec)}, but with {@code float[3]}
+	 * parameters. {@code target} may be {@code src} itself. If {@code target} is null,
+	 * a new array is created.
+	 */
+	public final float[] inverseTransformOf(float[] src, float[] target) {
+		return multiply(kernel().worldMat(), src, target, false);
+	}
+	
 	protected final Vec inverseTransformOf(Vec src, boolean sclng) {
+		if (sclng)
+			return linearPart(kernel().worldMat(), src);
 		Frame fr = this;
 		Vec res = src;
 		while (fr != null) {
@@ -1634,6 +2153,139 @@ public class Frame implements Copyable, Constants {
 		}
 		return res;
 	}
+	
+	/**
+	 * Returns {@code src} transformed by the linear (upper-left 3x3) part of {@code m}.
+	 */
+	protected static Vec linearPart(Mat m, Vec src) {
+		Vec res = new Vec();
+		multiply(m, src.vec, res.vec, false);
+		return res;
+	}
+	
+	/**
+	 * Converts {@code count} points, packed as {@code xyzxyz...} in {@code src} starting
+	 * at {@code srcOffset}, from the world coordinate system to the Frame one and stores
+	 * them in {@code target} starting at {@code targetOffset}. Same as calling
+	 * {@link #coordinatesOf(Vec)} on each point, but the conversion matrix is computed
+	 * only once and no temporary is allocated. {@code target} may be {@code src} itself
+	 * (with the same offset).
+	 * 
+	 * @see #inverseCoordinatesOf(float[], int, float[], int, int)
+	 */
+	public final void coordinatesOf(float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		multiply(kernel().worldInverseMat(), true, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #inverseCoordinatesOf(Vec)}. See
+	 * {@link #coordinatesOf(float[], int, float[], int, int)} for the array layout.
+	 */
+	public final void inverseCoordinatesOf(float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		multiply(kernel().worldMat(), true, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #transformOf(Vec)}. See
+	 * {@link #coordinatesOf(float[], int, float[], int, int)} for the array layout.
+	 */
+	public final void transformOf(float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		multiply(kernel().worldInverseMat(), false, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #inverseTransformOf(Vec)}. See
+	 * {@link #coordinatesOf(float[], int, float[], int, int)} for the array layout.
+	 */
+	public final void inverseTransformOf(float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		multiply(kernel().worldMat(), false, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #coordinatesOfIn(Vec, Frame)}. The whole {@code this} to
+	 * {@code in} chain is composed into a single matrix before converting the points. See
+	 * {@link #coordinatesOf(float[], int, float[], int, int)} for the array layout.
+	 */
+	public final void coordinatesOfIn(float[] src, int srcOffset, Frame in, float[] target, int targetOffset, int count) {
+		multiply(matrixIn(in), true, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #coordinatesOfFrom(Vec, Frame)}. The whole {@code from} to
+	 * {@code this} chain is composed into a single matrix before converting the points. See
+	 * {@link #coordinatesOf(float[], int, float[], int, int)} for the array layout.
+	 */
+	public final void coordinatesOfFrom(float[] src, int srcOffset, Frame from, float[] target, int targetOffset, int count) {
+		multiply(from.matrixIn(this), true, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #transformOfIn(Vec, Frame)}. See
+	 * {@link #coordinatesOfIn(float[], int, Frame, float[], int, int)}.
+	 */
+	public final void transformOfIn(float[] src, int srcOffset, Frame in, float[] target, int targetOffset, int count) {
+		multiply(matrixIn(in), false, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Bulk version of {@link #transformOfFrom(Vec, Frame)}. See
+	 * {@link #coordinatesOfFrom(float[], int, Frame, float[], int, int)}.
+	 */
+	public final void transformOfFrom(float[] src, int srcOffset, Frame from, float[] target, int targetOffset, int count) {
+		multiply(from.matrixIn(this), false, src, srcOffset, target, targetOffset, count);
+	}
+	
+	/**
+	 * Returns the matrix converting coordinates from this Frame to {@code in} (a
+	 * {@code null} {@code in} being the world), i.e., the composition of the whole
+	 * Frame chain in between.
+	 */
+	protected final Mat matrixIn(Frame in) {
+		if (in == this)
+			return new Mat();
+		if (in == null)
+			return kernel().worldMat().get();
+		return Mat.multiply(in.kernel().worldInverseMat(), kernel().worldMat());
+	}
+	
+	/**
+	 * Multiplies {@code count} {@code xyz} triplets packed in {@code src} (from
+	 * {@code srcOffset}) by the affine matrix {@code m} and stores them in {@code target}
+	 * (from {@code targetOffset}). The translation part of {@code m} is only taken into
+	 * account when {@code point} is {@code true}.
+	 */
+	protected static void multiply(Mat m, boolean point, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		float [] a = m.mat;
+		float m00 = a[0], m01 = a[4], m02 = a[8];
+		float m10 = a[1], m11 = a[5], m12 = a[9];
+		float m20 = a[2], m21 = a[6], m22 = a[10];
+		float tx = point ? a[12] : 0, ty = point ? a[13] : 0, tz = point ? a[14] : 0;
+		int s = srcOffset, t = targetOffset;
+		for (int i = 0; i < count; ++i, s += 3, t += 3) {
+			float x = src[s], y = src[s + 1], z = src[s + 2];
+			target[t]     = m00*x + m01*y + m02*z + tx;
+			target[t + 1] = m10*x + m11*y + m12*z + ty;
+			target[t + 2] = m20*x + m21*y + m22*z + tz;
+		}
+	}
+	
+	/**
+	 * Multiplies the {@code float[3]} {@code src} by the affine matrix {@code m} and
+	 * stores the result in {@code target}, which may be {@code src} itself. The
+	 * translation part of {@code m} is only taken into account when {@code point} is
+	 * {@code true}. If {@code target} is null, a new array is created.
+	 */
+	protected static float[] multiply(Mat m, float[] src, float[] target, boolean point) {
+		if (target == null)
+			target = new float[3];
+		float [] a = m.mat;
+		float x = src[0], y = src[1], z = src[2];
+		float w = point ? 1 : 0;
+		target[0] = a[0]*x + a[4]*y + a[8]*z  + a[12]*w;
+		target[1] = a[1]*x + a[5]*y + a[9]*z  + a[13]*w;
+		target[2] = a[2]*x + a[6]*y + a[10]*z + a[14]*w;
+		return target;
+	}
 
 	/**
 	 * Rotates the frame so that its {@link #xAxis()} becomes {@code axis} defined
@@ -1781,6 +2433,17 @@ public class Frame implements Copyable, Constants {
 		return localTransformOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #localTransformOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec localTransformOf(Vec src, Vec target) {
+		target = rotation().inverseRotate(src, target);
+		target.divide(scaling());
+		return target;
+	}
+	
 	protected final Vec localTransformOf(Vec src, boolean sclng) {
 		if( sclng )
 			return Vec.divide(rotation().inverseRotate(src), scaling());
@@ -1801,6 +2464,16 @@ public class Frame implements Copyable, Constants {
 	  return localInverseTransformOf(src, true);
 	}
 	
+	/**
+	 * Same as {@link #localInverseTransformOf(Vec)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec localInverseTransformOf(Vec src, Vec target) {
+		target = Vec.multiply(src, scaling(), target);
+		return rotation().rotate(target, target);
+	}
+	
 	protected final Vec localInverseTransformOf(Vec src, boolean sclng) {
 		if( sclng )
 			return rotation().rotate(Vec.multiply(src, scaling()));		
@@ -1823,6 +2496,21 @@ public class Frame implements Copyable, Constants {
 		else
 			return localTransformOf(from.inverseTransformOf(src));
 	}
+	
+	/**
+	 * Same as {@link #transformOfFrom(Vec, Frame)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec transformOfFrom(Vec src, Frame from, Vec target) {
+		if (this == from) {
+			if (target == null)
+				target = new Vec();
+			target.set(src);
+			return target;
+		}
+		return transformOf(from.inverseTransformOf(src, target), target);
+	}
 
 	/**
 	 * Returns the {@code in} transform of the vector whose coordinates in the
@@ -1848,6 +2536,22 @@ public class Frame implements Copyable, Constants {
 
 		return res;
 	}
+	
+	/**
+	 * Same as {@link #transformOfIn(Vec, Frame)}, but stores the result in
+	 * {@code target} (which may be {@code src} itself) without allocating any
+	 * temporary. If {@code target} is null, a new vector is created.
+	 */
+	public final Vec transformOfIn(Vec src, Frame in, Vec target) {
+		if (in == this) {
+			if (target == null)
+				target = new Vec();
+			target.set(src);
+			return target;
+		}
+		target = inverseTransformOf(src, target);
+		return (in == null) ? target : in.transformOf(target, target);
+	}
 
 	/**
 	 * Returns the Matrix3D associated with this Frame.
@@ -1900,15 +2604,21 @@ public class Frame implements Copyable, Constants {
 	 * @see #applyTransformation(AbstractScene)
 	 */
 	public final Mat matrix() {
-		Mat pM = new Mat();
-
-		pM = kernel().rotation().matrix();
+		Vec t = kernel().translation();
+		return matrix(kernel().rotation(), t.vec[0], t.vec[1], t.vec[2], scaling());
+	}
+	
+	/**
+	 * Returns the matrix that rotates by {@code r}, translates by {@code (tx, ty, tz)}
+	 * and scales by {@code s}. Used by {@link #matrix()} and {@link #worldMatrix()}.
+	 */
+	protected static Mat matrix(Orientable r, float tx, float ty, float tz, Vec s) {
+		Mat pM = r.matrix();
 
-		pM.mat[12] = kernel().translation().vec[0];
-		pM.mat[13] = kernel().translation().vec[1];
-		pM.mat[14] = kernel().translation().vec[2];
+		pM.mat[12] = tx;
+		pM.mat[13] = ty;
+		pM.mat[14] = tz;
 		
-		Vec s = scaling();
 		if(s.x() != 1) {
 			pM.setM00(pM.m00()*s.x());
 			pM.setM10(pM.m10()*s.x());
@@ -1976,11 +2686,8 @@ public class Frame implements Copyable, Constants {
 	 */
 	public final Mat worldMatrix() {
 		if (referenceFrame() != null) {
-			final Frame fr = new Frame();
-			fr.setTranslation(position());
-			fr.setRotation(orientation());
-			fr.setScaling(scaling());
-			return fr.matrix();
+			float [] m = kernel().worldMat().mat;
+			return matrix(kernel().worldOrientation(), m[12], m[13], m[14], scaling());
 		} else
 			return matrix();
 	}
@@ -2084,7 +2791,7 @@ public class Frame implements Copyable, Constants {
 	 */
 	public final Frame inverse() {
 		Frame fr = new Frame(kernel().rotation().inverse(), Vec.multiply(kernel().rotation().inverseRotate(kernel().translation()), -1), kernel().inverseScaling() );
-		fr.setReferenceFrame(referenceFrame());
+		fr.kernel().refFrame = referenceFrame(); // temporary frame: not a child of referenceFrame()
 		return fr;
 	}
 
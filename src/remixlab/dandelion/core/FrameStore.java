@@ -0,0 +1,693 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import remixlab.dandelion.geom.Mat;
+import remixlab.dandelion.geom.Orientable;
+import remixlab.dandelion.geom.Quat;
+import remixlab.dandelion.geom.Rot;
+import remixlab.dandelion.geom.Vec;
+
+/**
+ * A struct-of-arrays store of (a possibly very large number of) frames.
+ * <p>
+ * The translations, rotations, scalings and reference frame (parent) indices of the
+ * frames are kept in primitive arrays and addressed by the index returned by
+ * {@link #add()}. The world transformation matrices of all frames are refreshed by
+ * {@link #updateWorldTransforms()} in a single linear pass, in topological (parents
+ * first) order, skipping the frames whose local transformation and ancestors didn't
+ * change.
+ * <p>
+ * The frames are addressed either by index or through a {@link Handle} (see
+ * {@link #handle(int)}), a flyweight which only holds the index and reads and writes
+ * the store arrays. Frames are removed with {@link #remove(int)}, which keeps the
+ * store compact by moving the last frame into the freed slot.
+ * <p>
+ * An existing {@link remixlab.dandelion.core.Frame} may also be mirrored into the
+ * store (see {@link #add(Frame)} and {@link #frame(int)}): modifying the frame
+ * (through its methods) updates its slot and modifying the slot (through the store
+ * methods) updates the frame. Mirroring is optional, i.e., frames managed only
+ * through their indices or handles don't need any {@code Frame} object at all.
+ * <p>
+ * 2D stores keep the rotation angle of each frame in the first rotation slot.
+ */
+public class FrameStore {
+	/**
+	 * A lightweight handle of a frame of the store: it only holds the frame index and
+	 * reads and writes the store arrays. The store keeps a single handle per frame
+	 * (see {@link FrameStore#handle(int)}), whose {@link #index()} follows the frame
+	 * when the store is compacted by {@link FrameStore#remove(int)}.
+	 */
+	public class Handle {
+		protected int index;
+
+		protected Handle(int i) {
+			index = i;
+		}
+
+		/**
+		 * Returns the current index of the frame, or -1 if it was removed.
+		 */
+		public int index() {
+			return index;
+		}
+
+		/**
+		 * Returns {@code true} until the frame is removed from the store.
+		 */
+		public boolean isValid() {
+			return index >= 0;
+		}
+
+		public FrameStore store() {
+			return FrameStore.this;
+		}
+
+		/**
+		 * Returns the handle of the parent frame, or {@code null} if the frame is defined
+		 * in the world coordinate system.
+		 */
+		public Handle parent() {
+			int p = FrameStore.this.parent(index);
+			return p < 0 ? null : handle(p);
+		}
+
+		/**
+		 * Sets the parent frame. Use {@code null} for the world.
+		 */
+		public void setParent(Handle parent) {
+			FrameStore.this.setParent(index, parent == null ? -1 : parent.index);
+		}
+
+		public Vec translation(Vec target) {
+			return FrameStore.this.translation(index, target);
+		}
+
+		public void setTranslation(float x, float y, float z) {
+			FrameStore.this.setTranslation(index, x, y, z);
+		}
+
+		public Orientable rotation() {
+			return FrameStore.this.rotation(index);
+		}
+
+		public void setRotation(Orientable r) {
+			FrameStore.this.setRotation(index, r);
+		}
+
+		public Vec scaling(Vec target) {
+			return FrameStore.this.scaling(index, target);
+		}
+
+		public void setScaling(float x, float y, float z) {
+			FrameStore.this.setScaling(index, x, y, z);
+		}
+
+		public Vec position(Vec target) {
+			return FrameStore.this.position(index, target);
+		}
+
+		public Mat worldMatrix(Mat target) {
+			return FrameStore.this.worldMatrix(index, target);
+		}
+
+		public Vec inverseCoordinatesOf(Vec src, Vec target) {
+			return FrameStore.this.inverseCoordinatesOf(index, src, target);
+		}
+
+		public Vec coordinatesOf(Vec src, Vec target) {
+			return FrameStore.this.coordinatesOf(index, src, target);
+		}
+
+		/**
+		 * Removes the frame from the store. See {@link FrameStore#remove(int)}.
+		 */
+		public void remove() {
+			FrameStore.this.remove(index);
+		}
+	}
+
+	protected boolean three_d;
+	protected int size;
+
+	// local transformations: 3, 4 and 3 floats per frame
+	protected float [] trans, rots, scls;
+	protected int [] parents;
+
+	// world and world inverse matrices, column-major, 16 floats per frame
+	protected float [] world, worldInv;
+
+	protected boolean [] dirty;
+	protected int [] updatedAt;
+	protected int pass;
+	protected boolean upToDate;
+
+	// topological order of the frames
+	protected int [] order;
+	protected boolean orderDirty;
+
+	// lazily created flyweight handles and optional mirrored frames of each slot
+	protected Handle [] handles;
+	protected Frame [] frames;
+	protected boolean syncing;
+
+	public FrameStore() {
+		this(true);
+	}
+
+	public FrameStore(boolean three_d) {
+		this(three_d, 16);
+	}
+
+	/**
+	 * Creates an empty 3D (or 2D) store with room for {@code capacity} frames. The store
+	 * grows as needed.
+	 */
+	public FrameStore(boolean three_d, int capacity) {
+		this.three_d = three_d;
+		capacity = Math.max(1, capacity);
+		trans = new float[3 * capacity];
+		rots = new float[4 * capacity];
+		scls = new float[3 * capacity];
+		parents = new int[capacity];
+		world = new float[16 * capacity];
+		worldInv = new float[16 * capacity];
+		dirty = new boolean[capacity];
+		updatedAt = new int[capacity];
+		order = new int[capacity];
+		handles = new Handle[capacity];
+		frames = new Frame[capacity];
+		upToDate = true;
+	}
+
+	public boolean is3D() {
+		return three_d;
+	}
+
+	public boolean is2D() {
+		return !is3D();
+	}
+
+	/**
+	 * Returns the number of frames in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Same as {@code add(-1)}.
+	 */
+	public int add() {
+		return add(-1);
+	}
+
+	/**
+	 * Adds an identity frame defined with respect to the {@code parent} frame (use -1
+	 * for the world) and returns its index.
+	 */
+	public int add(int parent) {
+		if (parent >= size) {
+			System.out.println("FrameStore.add: invalid parent index " + parent);
+			parent = -1;
+		}
+		ensureCapacity(size + 1);
+		int i = size++;
+		trans[3 * i] = trans[3 * i + 1] = trans[3 * i + 2] = 0;
+		rots[4 * i] = rots[4 * i + 1] = rots[4 * i + 2] = 0;
+		rots[4 * i + 3] = three_d ? 1 : 0;
+		scls[3 * i] = scls[3 * i + 1] = scls[3 * i + 2] = 1;
+		parents[i] = parent;
+		handles[i] = null;
+		frames[i] = null;
+		updatedAt[i] = 0;
+		dirty[i] = true;
+		order[i] = i; // parents are always added first
+		upToDate = false;
+		return i;
+	}
+
+	/**
+	 * Adds {@code frame} to the store (copying its local transformation) and mirrors it
+	 * into the new slot, whose index is returned. The frame
+	 * {@link remixlab.dandelion.core.Frame#referenceFrame()} (if any) should have been
+	 * added to the store first.
+	 * <p>
+	 * Returns the frame index if it is already in the store and -1 if it belongs to
+	 * another store or its dimension doesn't match the store one.
+	 */
+	public int add(Frame frame) {
+		Frame.AbstractFrameKernel k = frame.kernel();
+		if (k.store == this)
+			return k.storeIndex;
+		if (k.store != null || frame.is3D() != three_d) {
+			System.out.println("FrameStore.add: frame belongs to another store or has a different dimension");
+			return -1;
+		}
+		int i = add(parentIndex(k));
+		k.store = this;
+		k.storeIndex = i;
+		frames[i] = frame;
+		sync(k);
+		return i;
+	}
+
+	/**
+	 * Removes the {@code i}-th frame. Its children are attached to its parent, keeping
+	 * their local transformations. The store is kept compact by moving the last frame
+	 * into slot {@code i}, so the last frame index becomes {@code i} (its
+	 * {@link Handle} follows it). Returns {@code false} if {@code i} is not a valid
+	 * index.
+	 */
+	public boolean remove(int i) {
+		if (i < 0 || i >= size)
+			return false;
+		// the parent of a mirrored frame is always mirrored (or the world), so its
+		// mirrored children may always be attached to it
+		int parent = parents[i];
+		for (int j = 0; j < size; ++j)
+			if (parents[j] == i)
+				setParent(j, parent);
+		if (frames[i] != null) {
+			frames[i].kernel().store = null;
+			frames[i].kernel().storeIndex = -1;
+		}
+		if (handles[i] != null)
+			handles[i].index = -1;
+		int last = --size;
+		if (i != last) {
+			System.arraycopy(trans, 3 * last, trans, 3 * i, 3);
+			System.arraycopy(rots, 4 * last, rots, 4 * i, 4);
+			System.arraycopy(scls, 3 * last, scls, 3 * i, 3);
+			System.arraycopy(world, 16 * last, world, 16 * i, 16);
+			System.arraycopy(worldInv, 16 * last, worldInv, 16 * i, 16);
+			parents[i] = parents[last];
+			updatedAt[i] = updatedAt[last];
+			handles[i] = handles[last];
+			if (handles[i] != null)
+				handles[i].index = i;
+			frames[i] = frames[last];
+			if (frames[i] != null)
+				frames[i].kernel().storeIndex = i;
+			for (int j = 0; j < size; ++j)
+				if (parents[j] == last)
+					parents[j] = i;
+			markDirty(i);
+		}
+		handles[last] = null;
+		frames[last] = null;
+		orderDirty = true;
+		upToDate = false;
+		return true;
+	}
+
+	/**
+	 * Returns the (flyweight) handle of the {@code i}-th frame. The handle is created
+	 * on the first call and reused afterwards. Throws an
+	 * {@code IndexOutOfBoundsException} if there's no {@code i}-th frame, since a handle
+	 * to a free slot would otherwise survive to point at whatever is added there later.
+	 */
+	public Handle handle(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		if (handles[i] == null)
+			handles[i] = new Handle(i);
+		return handles[i];
+	}
+
+	/**
+	 * Returns the frame mirrored into the {@code i}-th slot (see {@link #add(Frame)}),
+	 * or {@code null} if there is none.
+	 */
+	public Frame frame(int i) {
+		return frames[i];
+	}
+
+	/**
+	 * Returns the parent (reference frame) index of the {@code i}-th frame, or -1 if it
+	 * is defined in the world coordinate system.
+	 */
+	public int parent(int i) {
+		return parents[i];
+	}
+
+	/**
+	 * Sets the parent (reference frame) index of the {@code i}-th frame. Use -1 for the
+	 * world. No action is performed if it would create a loop in the hierarchy, or if the
+	 * frame is mirrored (see {@link #add(Frame)}) and the parent is not.
+	 */
+	public void setParent(int i, int parent) {
+		for (int p = parent; p >= 0; p = parents[p])
+			if (p == i) {
+				System.out.println("FrameStore.setParent would create a loop in Frame hierarchy");
+				return;
+			}
+		if (parents[i] == parent)
+			return;
+		if (frames[i] != null && parent >= 0 && frames[parent] == null) {
+			System.out.println("FrameStore.setParent: the parent of a mirrored frame should be mirrored too");
+			return;
+		}
+		parents[i] = parent;
+		orderDirty = true;
+		markDirty(i);
+		if (frames[i] != null) {
+			syncing = true;
+			frames[i].setReferenceFrame(parent < 0 ? null : frames[parent]);
+			syncing = false;
+		}
+	}
+
+	public void setTranslation(int i, float x, float y, float z) {
+		trans[3 * i] = x;
+		trans[3 * i + 1] = y;
+		trans[3 * i + 2] = z;
+		markDirty(i);
+		if (frames[i] != null) {
+			syncing = true;
+			frames[i].kernel().translation().set(x, y, z);
+			frames[i].kernel().modified();
+			syncing = false;
+		}
+	}
+
+	/**
+	 * Sets the rotation of the {@code i}-th frame of a 3D store from the {@code (x,y,z,w)}
+	 * quaternion, which is normalized.
+	 */
+	public void setRotation(int i, float x, float y, float z, float w) {
+		if (!three_d) {
+			System.out.println("FrameStore.setRotation: quaternions are only supported in 3D stores");
+			return;
+		}
+		float norm = (float) Math.sqrt(x * x + y * y + z * z + w * w);
+		if (norm > 0) {
+			x /= norm;
+			y /= norm;
+			z /= norm;
+			w /= norm;
+		}
+		else {
+			x = y = z = 0;
+			w = 1;
+		}
+		rots[4 * i] = x;
+		rots[4 * i + 1] = y;
+		rots[4 * i + 2] = z;
+		rots[4 * i + 3] = w;
+		markDirty(i);
+		if (frames[i] != null) {
+			syncing = true;
+			System.arraycopy(rots, 4 * i, ((Quat) frames[i].kernel().rotation()).quat, 0, 4);
+			frames[i].kernel().modified();
+			syncing = false;
+		}
+	}
+
+	/**
+	 * Sets the rotation angle of the {@code i}-th frame of a 2D store.
+	 */
+	public void setRotation(int i, float angle) {
+		if (three_d) {
+			System.out.println("FrameStore.setRotation: angles are only supported in 2D stores");
+			return;
+		}
+		rots[4 * i] = angle;
+		markDirty(i);
+		if (frames[i] != null) {
+			syncing = true;
+			frames[i].kernel().setRotation(new Rot(angle));
+			syncing = false;
+		}
+	}
+
+	public void setRotation(int i, Orientable r) {
+		if (r instanceof Quat)
+			setRotation(i, ((Quat) r).x(), ((Quat) r).y(), ((Quat) r).z(), ((Quat) r).w());
+		else
+			setRotation(i, r.angle());
+	}
+
+	public void setScaling(int i, float x, float y, float z) {
+		if (x == 0 || y == 0 || z == 0) {
+			System.out.println("Setting a scale value to zero is not allowed");
+			return;
+		}
+		scls[3 * i] = x;
+		scls[3 * i + 1] = y;
+		scls[3 * i + 2] = z;
+		markDirty(i);
+		if (frames[i] != null) {
+			syncing = true;
+			frames[i].kernel().scaling().set(x, y, z);
+			frames[i].kernel().modified();
+			syncing = false;
+		}
+	}
+
+	/**
+	 * Returns the translation of the {@code i}-th frame, defined with respect to its
+	 * {@link #parent(int)}. If {@code target} is null, a new vector is created.
+	 */
+	public Vec translation(int i, Vec target) {
+		if (target == null)
+			target = new Vec();
+		target.set(trans[3 * i], trans[3 * i + 1], trans[3 * i + 2]);
+		return target;
+	}
+
+	/**
+	 * Returns a copy of the rotation of the {@code i}-th frame, defined with respect to
+	 * its {@link #parent(int)}.
+	 */
+	public Orientable rotation(int i) {
+		if (three_d)
+			return new Quat(rots[4 * i], rots[4 * i + 1], rots[4 * i + 2], rots[4 * i + 3], false);
+		return new Rot(rots[4 * i]);
+	}
+
+	/**
+	 * Returns the scaling of the {@code i}-th frame. If {@code target} is null, a new
+	 * vector is created.
+	 */
+	public Vec scaling(int i, Vec target) {
+		if (target == null)
+			target = new Vec();
+		target.set(scls[3 * i], scls[3 * i + 1], scls[3 * i + 2]);
+		return target;
+	}
+
+	/**
+	 * Returns the world position of the {@code i}-th frame. If {@code target} is null,
+	 * a new vector is created.
+	 */
+	public Vec position(int i, Vec target) {
+		updateWorldTransforms();
+		if (target == null)
+			target = new Vec();
+		target.set(world[16 * i + 12], world[16 * i + 13], world[16 * i + 14]);
+		return target;
+	}
+
+	/**
+	 * Returns the world (frame to world) matrix of the {@code i}-th frame. If
+	 * {@code target} is null, a new matrix is created.
+	 */
+	public Mat worldMatrix(int i, Mat target) {
+		updateWorldTransforms();
+		if (target == null)
+			target = new Mat();
+		System.arraycopy(world, 16 * i, target.mat, 0, 16);
+		return target;
+	}
+
+	/**
+	 * Converts {@code src} from the {@code i}-th frame to the world. See
+	 * {@link remixlab.dandelion.core.Frame#inverseCoordinatesOf(Vec)}. {@code target} may
+	 * be {@code src} itself. If {@code target} is null, a new vector is created.
+	 */
+	public Vec inverseCoordinatesOf(int i, Vec src, Vec target) {
+		updateWorldTransforms();
+		return multiply(world, 16 * i, src, target);
+	}
+
+	/**
+	 * Converts {@code src} from the world to the {@code i}-th frame. See
+	 * {@link remixlab.dandelion.core.Frame#coordinatesOf(Vec)}. {@code target} may be
+	 * {@code src} itself. If {@code target} is null, a new vector is created.
+	 */
+	public Vec coordinatesOf(int i, Vec src, Vec target) {
+		updateWorldTransforms();
+		return multiply(worldInv, 16 * i, src, target);
+	}
+
+	/**
+	 * Returns the world matrices of all the frames, packed as consecutive column-major
+	 * 4x4 matrices (i.e., the {@code i}-th one starts at {@code 16 * i}). Useful to
+	 * upload them at once, e.g., for instanced rendering. Don't modify it.
+	 */
+	public float[] worldMatrices() {
+		updateWorldTransforms();
+		return world;
+	}
+
+	/**
+	 * Refreshes the world transformation matrices of the frames whose local
+	 * transformation (or the one of any of their ancestors) changed, in a single linear
+	 * pass in topological order. Called automatically by the world queries.
+	 */
+	public void updateWorldTransforms() {
+		if (upToDate)
+			return;
+		if (orderDirty)
+			sortTopologically();
+		++pass;
+		for (int k = 0; k < size; ++k) {
+			int i = order[k];
+			int p = parents[i];
+			if (!dirty[i] && (p < 0 || updatedAt[p] != pass))
+				continue;
+			int m = 16 * i;
+			if (three_d)
+				Frame.rotationMatrices(rots[4 * i], rots[4 * i + 1], rots[4 * i + 2], rots[4 * i + 3], world, m, worldInv, m);
+			else
+				Frame.rotationMatrices(rots[4 * i], world, m, worldInv, m);
+			Frame.scaleAndTranslate(trans[3 * i], trans[3 * i + 1], trans[3 * i + 2], scls[3 * i], scls[3 * i + 1],
+					scls[3 * i + 2], world, m, worldInv, m);
+			if (p >= 0) {
+				Frame.composeWorld(world, 16 * p, world, m);
+				Frame.composeWorldInverse(worldInv, m, worldInv, 16 * p);
+			}
+			dirty[i] = false;
+			updatedAt[i] = pass;
+		}
+		upToDate = true;
+	}
+
+	/**
+	 * Copies the local transformation (and parent) of the kernel into its slot. Called
+	 * when a handle is modified.
+	 */
+	protected void sync(Frame.AbstractFrameKernel k) {
+		if (syncing)
+			return;
+		int i = k.storeIndex;
+		Vec t = k.translation();
+		Vec s = k.scaling();
+		trans[3 * i] = t.vec[0];
+		trans[3 * i + 1] = t.vec[1];
+		trans[3 * i + 2] = t.vec[2];
+		scls[3 * i] = s.vec[0];
+		scls[3 * i + 1] = s.vec[1];
+		scls[3 * i + 2] = s.vec[2];
+		if (k.rotation() instanceof Quat)
+			System.arraycopy(((Quat) k.rotation()).quat, 0, rots, 4 * i, 4);
+		else
+			rots[4 * i] = k.rotation().angle();
+		int p = parentIndex(k);
+		if (parents[i] != p) {
+			parents[i] = p;
+			orderDirty = true;
+		}
+		markDirty(i);
+	}
+
+	protected int parentIndex(Frame.AbstractFrameKernel k) {
+		Frame ref = k.referenceFrame();
+		if (ref == null)
+			return -1;
+		if (ref.kernel().store != this) {
+			System.out.println("FrameStore: the reference frame should be added to the store first");
+			return -1;
+		}
+		return ref.kernel().storeIndex;
+	}
+
+	protected void markDirty(int i) {
+		dirty[i] = true;
+		upToDate = false;
+	}
+
+	/**
+	 * Sorts the frames by depth in the hierarchy (counting sort), so that parents always
+	 * precede their children in {@code order}.
+	 */
+	protected void sortTopologically() {
+		int [] depth = new int[size];
+		java.util.Arrays.fill(depth, -1);
+		int [] stack = new int[size];
+		int maxDepth = 0;
+		for (int i = 0; i < size; ++i) {
+			int top = 0;
+			int j = i;
+			while (j >= 0 && depth[j] < 0) {
+				stack[top++] = j;
+				j = parents[j];
+			}
+			int d = (j < 0) ? -1 : depth[j];
+			while (top > 0)
+				depth[stack[--top]] = ++d;
+			maxDepth = Math.max(maxDepth, depth[i]);
+		}
+		int [] start = new int[maxDepth + 2];
+		for (int i = 0; i < size; ++i)
+			start[depth[i] + 1]++;
+		for (int d = 1; d < start.length; ++d)
+			start[d] += start[d - 1];
+		for (int i = 0; i < size; ++i)
+			order[start[depth[i]]++] = i;
+		orderDirty = false;
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity <= parents.length)
+			return;
+		int n = Math.max(capacity, 2 * parents.length);
+		trans = grow(trans, 3 * n);
+		rots = grow(rots, 4 * n);
+		scls = grow(scls, 3 * n);
+		world = grow(world, 16 * n);
+		worldInv = grow(worldInv, 16 * n);
+		int [] p = new int[n];
+		System.arraycopy(parents, 0, p, 0, size);
+		parents = p;
+		int [] o = new int[n];
+		System.arraycopy(order, 0, o, 0, size);
+		order = o;
+		int [] u = new int[n];
+		System.arraycopy(updatedAt, 0, u, 0, size);
+		updatedAt = u;
+		boolean [] d = new boolean[n];
+		System.arraycopy(dirty, 0, d, 0, size);
+		dirty = d;
+		Handle [] h = new Handle[n];
+		System.arraycopy(handles, 0, h, 0, size);
+		handles = h;
+		Frame [] f = new Frame[n];
+		System.arraycopy(frames, 0, f, 0, size);
+		frames = f;
+	}
+
+	protected static float[] grow(float[] array, int length) {
+		float [] result = new float[length];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+	protected static Vec multiply(float[] m, int o, Vec src, Vec target) {
+		if (target == null)
+			target = new Vec();
+		float x = src.vec[0], y = src.vec[1], z = src.vec[2];
+		target.set(m[o] * x + m[o + 4] * y + m[o + 8] * z + m[o + 12],
+				m[o + 1] * x + m[o + 5] * y + m[o + 9] * z + m[o + 13],
+				m[o + 2] * x + m[o + 6] * y + m[o + 10] * z + m[o + 14]);
+		return target;
+	}
+}
@@ -0,0 +1,469 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import java.util.*;
+
+import remixlab.dandelion.geom.*;
+
+/**
+ * A view frustum culling engine.
+ * <p>
+ * The FrustumCuller keeps the world bounding volumes (balls or axis aligned boxes)
+ * of the registered objects in a bounding volume hierarchy, so that the visible
+ * set is found by culling whole subtrees against the
+ * {@link remixlab.dandelion.core.Eye#getBoundaryEquations()} at once, instead of
+ * testing each object with {@link remixlab.dandelion.core.Eye#ballIsVisible(Vec, float)}
+ * or {@link remixlab.dandelion.core.Eye#boxIsVisible(Vec, Vec)}:
+ * <p>
+ * {@code culler.add(object, center, radius);} <br>
+ * {@code for (Object o : culler.cull(scene.eye())) draw(o);} <br>
+ * <p>
+ * The hierarchy traversal uses <i>plane masking</i> (the planes a node is entirely
+ * inside of are not tested against its descendants), <i>plane coherence</i> (the
+ * plane that rejected a node in the last {@link #cull(float[][], List)} is tested
+ * first) and skips testing the descendants of nodes lying entirely inside the
+ * frustum.
+ * <p>
+ * Call {@link #update(Object, Vec, float)} (or {@link #update(Object, Vec, Vec)})
+ * whenever an object moves. Volumes are enlarged by {@link #margin()} when
+ * inserted, so that small motions don't need to restructure the hierarchy. The
+ * hierarchy is rebalanced with tree rotations as objects are inserted and removed,
+ * so that its depth stays logarithmic whatever the insertion order.
+ * <p>
+ * Registered objects are compared by identity (not with {@code equals()}, which
+ * e.g., Frames implement by comparing their mutable transformations).
+ * <p>
+ * <b>Attention:</b> The eye boundary equations should be updated before culling.
+ * Enable them to be automatically updated in your Scene setup (with
+ * {@link remixlab.dandelion.core.AbstractScene#enableBoundaryEquations()}).
+ */
+public class FrustumCuller<T> {
+	protected static class Node<T> {
+		// world axis aligned box, as center and (half) extents
+		float cx, cy, cz, ex, ey, ez;
+		Node<T> parent, left, right;
+		// 0 for leaves
+		int height;
+		T object;
+		// the last plane that rejected the node
+		int lastPlane;
+
+		boolean isLeaf() {
+			return left == null;
+		}
+
+		float area() {
+			return ex * ey + ey * ez + ez * ex;
+		}
+
+		void setBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+			cx = (minX + maxX) / 2;
+			cy = (minY + maxY) / 2;
+			cz = (minZ + maxZ) / 2;
+			ex = (maxX - minX) / 2;
+			ey = (maxY - minY) / 2;
+			ez = (maxZ - minZ) / 2;
+		}
+
+		void setUnion(Node<T> a, Node<T> b) {
+			setBox(Math.min(a.cx - a.ex, b.cx - b.ex), Math.min(a.cy - a.ey, b.cy - b.ey), Math.min(a.cz - a.ez, b.cz - b.ez),
+					Math.max(a.cx + a.ex, b.cx + b.ex), Math.max(a.cy + a.ey, b.cy + b.ey), Math.max(a.cz + a.ez, b.cz + b.ez));
+		}
+
+		boolean contains(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+			return cx - ex <= minX && cy - ey <= minY && cz - ez <= minZ && cx + ex >= maxX && cy + ey >= maxY
+					&& cz + ez >= maxZ;
+		}
+	}
+
+	protected Node<T> root;
+	protected IdentityHashMap<T, Node<T>> leaves = new IdentityHashMap<T, Node<T>>();
+	protected float margin;
+	// normalized planes: nx, ny, nz, d, with nx*x + ny*y + nz*z + d > 0 outside
+	protected float[] planes = new float[24];
+	protected int planeCount;
+	// explicit traversal stack of cull(): nodes and their pending plane masks
+	@SuppressWarnings("unchecked")
+	protected Node<T>[] stack = new Node[64];
+	protected int[] masks = new int[64];
+
+	/**
+	 * Returns the number of registered objects.
+	 */
+	public int size() {
+		return leaves.size();
+	}
+
+	/**
+	 * Returns {@code true} if {@code object} is registered in the FrustumCuller.
+	 */
+	public boolean contains(T object) {
+		return leaves.containsKey(object);
+	}
+
+	/**
+	 * Removes all the registered objects.
+	 */
+	public void clear() {
+		root = null;
+		leaves.clear();
+	}
+
+	/**
+	 * Returns the (world units) amount by which bounding volumes are enlarged when
+	 * inserted into the hierarchy. Default is 0.
+	 *
+	 * @see #setMargin(float)
+	 */
+	public float margin() {
+		return margin;
+	}
+
+	/**
+	 * Sets the {@link #margin()}. A positive margin makes updates of slightly moving
+	 * objects cheaper, at the price of less tight culling. Only affects objects
+	 * inserted afterwards.
+	 */
+	public void setMargin(float m) {
+		margin = Math.max(0, m);
+	}
+
+	/**
+	 * Registers {@code object} with a bounding ball of center {@code center} and
+	 * radius {@code radius}, both defined in the world coordinate system. If
+	 * {@code object} was already registered its bounding volume is updated.
+	 */
+	public void add(T object, Vec center, float radius) {
+		add(object, center.x() - radius, center.y() - radius, center.z() - radius, center.x() + radius,
+				center.y() + radius, center.z() + radius);
+	}
+
+	/**
+	 * Registers {@code object} with the world axis aligned bounding box defined by
+	 * corners {@code p1} and {@code p2}. If {@code object} was already registered its
+	 * bounding volume is updated.
+	 */
+	public void add(T object, Vec p1, Vec p2) {
+		add(object, Math.min(p1.x(), p2.x()), Math.min(p1.y(), p2.y()), Math.min(p1.z(), p2.z()),
+				Math.max(p1.x(), p2.x()), Math.max(p1.y(), p2.y()), Math.max(p1.z(), p2.z()));
+	}
+
+	/**
+	 * Same as {@link #add(Object, Vec, float)}.
+	 */
+	public void update(T object, Vec center, float radius) {
+		add(object, center, radius);
+	}
+
+	/**
+	 * Same as {@link #add(Object, Vec, Vec)}.
+	 */
+	public void update(T object, Vec p1, Vec p2) {
+		add(object, p1, p2);
+	}
+
+	/**
+	 * Removes {@code object} from the FrustumCuller. Returns {@code true} if it was
+	 * registered.
+	 */
+	public boolean remove(T object) {
+		Node<T> leaf = leaves.remove(object);
+		if (leaf == null)
+			return false;
+		removeLeaf(leaf);
+		return true;
+	}
+
+	/**
+	 * Convenience function that simply returns {@code cull(eye.getBoundaryEquations(),
+	 * new ArrayList<T>())}.
+	 */
+	public List<T> cull(Eye eye) {
+		return cull(eye.getBoundaryEquations(), new ArrayList<T>());
+	}
+
+	/**
+	 * Convenience function that simply returns {@code cull(eye.getBoundaryEquations(),
+	 * result)}.
+	 */
+	public List<T> cull(Eye eye, List<T> result) {
+		return cull(eye.getBoundaryEquations(), result);
+	}
+
+	/**
+	 * Appends the registered objects whose bounding volume is visible or semi-visible
+	 * to {@code result} (which is allocated if {@code null}) and returns it.
+	 * <p>
+	 * {@code equations} are the boundary equations as returned by
+	 * {@link remixlab.dandelion.core.Eye#getBoundaryEquations()}: either the six
+	 * {@code a*x + b*y + c*z = d} planes of a {@link remixlab.dandelion.core.Camera}
+	 * or the four {@code a*x + b*y + c = 0} lines of a
+	 * {@link remixlab.dandelion.core.Window}.
+	 */
+	public List<T> cull(float[][] equations, List<T> result) {
+		if (result == null)
+			result = new ArrayList<T>();
+		setPlanes(equations);
+		if (root != null)
+			cull(root, (1 << planeCount) - 1, result);
+		return result;
+	}
+
+	protected void setPlanes(float[][] equations) {
+		planeCount = planes(equations, planes);
+	}
+
+	/**
+	 * Writes the normalized {@code equations} (see {@link #cull(float[][], List)}) into
+	 * {@code planes} as {@code nx, ny, nz, d} quadruples, such that
+	 * {@code nx*x + ny*y + nz*z + d} is the signed distance to the plane, positive
+	 * outside. Returns the number of planes.
+	 */
+	protected static int planes(float[][] equations, float[] planes) {
+		int count = Math.min(equations.length, 6);
+		for (int i = 0; i < count; ++i) {
+			float[] e = equations[i];
+			if (e.length == 3) {
+				float n = (float) Math.sqrt(e[0] * e[0] + e[1] * e[1]);
+				planes[4 * i] = e[0] / n;
+				planes[4 * i + 1] = e[1] / n;
+				planes[4 * i + 2] = 0;
+				planes[4 * i + 3] = e[2] / n;
+			}
+			else {
+				planes[4 * i] = e[0];
+				planes[4 * i + 1] = e[1];
+				planes[4 * i + 2] = e[2];
+				planes[4 * i + 3] = -e[3];
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Culls the subtree of {@code node}, testing only the planes in {@code mask}. The
+	 * tree is traversed with an explicit stack, so that no tree shape may overflow the
+	 * call stack.
+	 */
+	protected void cull(Node<T> node, int mask, List<T> result) {
+		int top = 0;
+		stack[top] = node;
+		masks[top++] = mask;
+		while (top > 0) {
+			node = stack[--top];
+			stack[top] = null;
+			// an empty mask is the fully-inside fast path: no more plane tests
+			mask = masks[top] == 0 ? 0 : test(node, masks[top]);
+			if (mask < 0)
+				continue;
+			if (node.isLeaf()) {
+				result.add(node.object);
+				continue;
+			}
+			if (top + 2 > stack.length)
+				growStack();
+			stack[top] = node.right;
+			masks[top++] = mask;
+			stack[top] = node.left;
+			masks[top++] = mask;
+		}
+	}
+
+	/**
+	 * Tests the {@code node} box against the planes in {@code mask}. Returns -1 if it
+	 * is outside one of them, and otherwise {@code mask} without the planes the box is
+	 * entirely inside.
+	 */
+	protected int test(Node<T> node, int mask) {
+		// plane coherence: first test the plane that rejected the node last time
+		int first = node.lastPlane;
+		if (((mask >> first) & 1) != 0) {
+			int r = classify(node, first);
+			if (r > 0)
+				return -1;
+			if (r < 0)
+				mask &= ~(1 << first);
+		}
+		for (int i = 0; i < planeCount; ++i) {
+			if (i == first || ((mask >> i) & 1) == 0)
+				continue;
+			int r = classify(node, i);
+			if (r > 0) {
+				node.lastPlane = i;
+				return -1;
+			}
+			if (r < 0)
+				mask &= ~(1 << i);
+		}
+		return mask;
+	}
+
+	protected void growStack() {
+		@SuppressWarnings("unchecked")
+		Node<T>[] s = new Node[2 * stack.length];
+		System.arraycopy(stack, 0, s, 0, stack.length);
+		stack = s;
+		int[] m = new int[2 * masks.length];
+		System.arraycopy(masks, 0, m, 0, masks.length);
+		masks = m;
+	}
+
+	/**
+	 * Returns 1 if the {@code node} box is outside plane {@code i}, -1 if it is
+	 * entirely inside it and 0 if it intersects it.
+	 */
+	protected int classify(Node<T> node, int i) {
+		float nx = planes[4 * i], ny = planes[4 * i + 1], nz = planes[4 * i + 2];
+		float s = nx * node.cx + ny * node.cy + nz * node.cz + planes[4 * i + 3];
+		float r = Math.abs(nx) * node.ex + Math.abs(ny) * node.ey + Math.abs(nz) * node.ez;
+		if (s - r > 0)
+			return 1;
+		if (s + r <= 0)
+			return -1;
+		return 0;
+	}
+
+	protected void add(T object, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+		Node<T> leaf = leaves.get(object);
+		if (leaf != null) {
+			if (leaf.contains(minX, minY, minZ, maxX, maxY, maxZ))
+				return;
+			removeLeaf(leaf);
+		}
+		else {
+			leaf = new Node<T>();
+			leaf.object = object;
+			leaves.put(object, leaf);
+		}
+		leaf.setBox(minX - margin, minY - margin, minZ - margin, maxX + margin, maxY + margin, maxZ + margin);
+		insertLeaf(leaf);
+	}
+
+	protected void insertLeaf(Node<T> leaf) {
+		leaf.parent = null;
+		if (root == null) {
+			root = leaf;
+			return;
+		}
+		// descend choosing the child whose box grows the least
+		Node<T> sibling = root;
+		Node<T> tmp = new Node<T>();
+		while (!sibling.isLeaf()) {
+			tmp.setUnion(sibling.left, leaf);
+			float l = tmp.area() - sibling.left.area();
+			tmp.setUnion(sibling.right, leaf);
+			float r = tmp.area() - sibling.right.area();
+			tmp.setUnion(sibling, leaf);
+			// stop here if pairing with the whole subtree is cheaper
+			if (tmp.area() < Math.min(l, r) + sibling.area())
+				break;
+			sibling = l <= r ? sibling.left : sibling.right;
+		}
+		Node<T> oldParent = sibling.parent;
+		Node<T> newParent = new Node<T>();
+		newParent.parent = oldParent;
+		newParent.left = sibling;
+		newParent.right = leaf;
+		sibling.parent = newParent;
+		leaf.parent = newParent;
+		if (oldParent == null)
+			root = newParent;
+		else if (oldParent.left == sibling)
+			oldParent.left = newParent;
+		else
+			oldParent.right = newParent;
+		refit(newParent);
+	}
+
+	protected void removeLeaf(Node<T> leaf) {
+		Node<T> parent = leaf.parent;
+		if (parent == null) {
+			root = null;
+			return;
+		}
+		Node<T> sibling = parent.left == leaf ? parent.right : parent.left;
+		Node<T> grandParent = parent.parent;
+		sibling.parent = grandParent;
+		if (grandParent == null)
+			root = sibling;
+		else {
+			if (grandParent.left == parent)
+				grandParent.left = sibling;
+			else
+				grandParent.right = sibling;
+			refit(grandParent);
+		}
+		leaf.parent = null;
+	}
+
+	/**
+	 * Walks up from {@code node} to the root, rebalancing the tree (see
+	 * {@link #balance(Node)}) and refitting the boxes and heights on the way.
+	 */
+	protected void refit(Node<T> node) {
+		for (; node != null; node = node.parent) {
+			node = balance(node);
+			node.height = 1 + Math.max(node.left.height, node.right.height);
+			node.setUnion(node.left, node.right);
+		}
+	}
+
+	/**
+	 * Performs a (AVL like) tree rotation at {@code a} if its children heights differ
+	 * by more than one, so that inserting objects in any order (e.g., sorted or
+	 * collinear) keeps the tree depth logarithmic. Returns the root of the (possibly
+	 * rotated) subtree.
+	 */
+	protected Node<T> balance(Node<T> a) {
+		if (a.isLeaf() || a.height < 2)
+			return a;
+		Node<T> b = a.left, c = a.right;
+		int balance = c.height - b.height;
+		if (balance > 1)
+			return rotate(a, c, b, false);
+		if (balance < -1)
+			return rotate(a, b, c, true);
+		return a;
+	}
+
+	/**
+	 * Moves {@code up}, the higher child of {@code a}, in place of {@code a}, which
+	 * keeps its other child {@code other} and takes the lower child of {@code up}.
+	 * {@code left} tells whether {@code up} is the left child of {@code a}.
+	 */
+	protected Node<T> rotate(Node<T> a, Node<T> up, Node<T> other, boolean left) {
+		Node<T> f = up.left, g = up.right;
+		// up replaces a
+		up.parent = a.parent;
+		a.parent = up;
+		if (up.parent == null)
+			root = up;
+		else if (up.parent.left == a)
+			up.parent.left = up;
+		else
+			up.parent.right = up;
+		// a becomes a child of up, and the lower child of up goes to a
+		Node<T> high = f.height > g.height ? f : g;
+		Node<T> low = high == f ? g : f;
+		up.left = a;
+		up.right = high;
+		if (left)
+			a.left = low;
+		else
+			a.right = low;
+		low.parent = a;
+		a.setUnion(other, low);
+		a.height = 1 + Math.max(other.height, low.height);
+		up.setUnion(a, high);
+		up.height = 1 + Math.max(a.height, high.height);
+		return up;
+	}
+}
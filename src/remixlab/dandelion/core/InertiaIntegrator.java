@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import remixlab.fpstiming.AbstractTimerJob;
+
+/**
+ * Moves the spinning and tossing {@link remixlab.dandelion.core.InteractiveFrame}s
+ * of a scene (see {@link remixlab.dandelion.core.AbstractScene#inertiaIntegrator()}).
+ * <p>
+ * The integrator owns only the frames currently in motion and runs a single timer
+ * job, which is active only while some frame moves. Each tick calls
+ * {@link remixlab.dandelion.core.InteractiveFrame#spin()} and
+ * {@link remixlab.dandelion.core.InteractiveFrame#toss()} on the frames whose
+ * update period has elapsed, as many times as their period elapsed since the last
+ * tick (up to {@link #MAX_CATCH_UP}), so that frames whose period is shorter than
+ * the {@link #PERIOD} keep their speed. The frames leave the integrator when they are
+ * stopped, e.g., once the damping brings their speed to zero. Hence idle frames cost
+ * nothing.
+ */
+public class InertiaIntegrator {
+	/**
+	 * The integrator timer period, in milliseconds.
+	 */
+	public static final long PERIOD = InteractiveFrame.FLY_UPDATE_PERDIOD;
+
+	/**
+	 * The maximum number of {@link remixlab.dandelion.core.InteractiveFrame#spin()} (or
+	 * {@link remixlab.dandelion.core.InteractiveFrame#toss()}) calls a frame gets per
+	 * tick to catch up with its period. Frames further behind (e.g., after a stall)
+	 * drop the missed updates.
+	 */
+	public static final int MAX_CATCH_UP = 16;
+
+	protected AbstractScene scene;
+	protected AbstractTimerJob job;
+	protected InteractiveFrame[] spinning = new InteractiveFrame[16];
+	protected int spinningCount;
+	protected InteractiveFrame[] tossing = new InteractiveFrame[16];
+	protected int tossingCount;
+	// copy of the moving frames, since they may stop while being integrated
+	protected InteractiveFrame[] scratch = new InteractiveFrame[16];
+
+	public InertiaIntegrator(AbstractScene scn) {
+		scene = scn;
+		job = new AbstractTimerJob() {
+			public void execute() {
+				integrate();
+			}
+		};
+		scene.registerJob(job);
+	}
+
+	/**
+	 * Returns the number of spinning frames.
+	 */
+	public int spinningFrames() {
+		return spinningCount;
+	}
+
+	/**
+	 * Returns the number of tossing frames.
+	 */
+	public int tossingFrames() {
+		return tossingCount;
+	}
+
+	/**
+	 * Returns {@code true} if some frame is in motion.
+	 */
+	public boolean isActive() {
+		return spinningCount + tossingCount > 0;
+	}
+
+	/**
+	 * Spins {@code frame} every {@code period} milliseconds, until
+	 * {@link #stopSpinning(InteractiveFrame)}.
+	 */
+	public void startSpinning(InteractiveFrame frame, long period) {
+		frame.spinPeriod = Math.max(1, period);
+		frame.spinNext = System.currentTimeMillis() + frame.spinPeriod;
+		if (frame.spinSlot < 0) {
+			spinning = ensure(spinning, spinningCount);
+			frame.spinSlot = spinningCount;
+			spinning[spinningCount++] = frame;
+		}
+		start();
+	}
+
+	public void stopSpinning(InteractiveFrame frame) {
+		int i = frame.spinSlot;
+		if (i < 0)
+			return;
+		frame.spinSlot = -1;
+		InteractiveFrame last = spinning[--spinningCount];
+		spinning[spinningCount] = null;
+		if (i < spinningCount) {
+			spinning[i] = last;
+			last.spinSlot = i;
+		}
+	}
+
+	/**
+	 * Tosses {@code frame} every {@code period} milliseconds, until
+	 * {@link #stopTossing(InteractiveFrame)}.
+	 */
+	public void startTossing(InteractiveFrame frame, long period) {
+		frame.tossPeriod = Math.max(1, period);
+		frame.tossNext = System.currentTimeMillis() + frame.tossPeriod;
+		if (frame.tossSlot < 0) {
+			tossing = ensure(tossing, tossingCount);
+			frame.tossSlot = tossingCount;
+			tossing[tossingCount++] = frame;
+		}
+		start();
+	}
+
+	public void stopTossing(InteractiveFrame frame) {
+		int i = frame.tossSlot;
+		if (i < 0)
+			return;
+		frame.tossSlot = -1;
+		InteractiveFrame last = tossing[--tossingCount];
+		tossing[tossingCount] = null;
+		if (i < tossingCount) {
+			tossing[i] = last;
+			last.tossSlot = i;
+		}
+	}
+
+	/**
+	 * Spins and tosses the frames whose period has elapsed. Called by the integrator
+	 * timer job.
+	 */
+	public void integrate() {
+		long now = System.currentTimeMillis();
+		int count = spinningCount;
+		scratch = ensure(scratch, count);
+		System.arraycopy(spinning, 0, scratch, 0, count);
+		for (int i = 0; i < count; ++i) {
+			InteractiveFrame frame = scratch[i];
+			scratch[i] = null;
+			for (int n = 0; frame.spinSlot >= 0 && now >= frame.spinNext; ++n) {
+				if (n == MAX_CATCH_UP) {
+					frame.spinNext = now + frame.spinPeriod;
+					break;
+				}
+				frame.spinNext += frame.spinPeriod;
+				frame.spin();
+			}
+		}
+		count = tossingCount;
+		scratch = ensure(scratch, count);
+		System.arraycopy(tossing, 0, scratch, 0, count);
+		for (int i = 0; i < count; ++i) {
+			InteractiveFrame frame = scratch[i];
+			scratch[i] = null;
+			for (int n = 0; frame.tossSlot >= 0 && now >= frame.tossNext; ++n) {
+				if (n == MAX_CATCH_UP) {
+					frame.tossNext = now + frame.tossPeriod;
+					break;
+				}
+				frame.tossNext += frame.tossPeriod;
+				frame.toss();
+			}
+		}
+		if (!isActive())
+			job.stop();
+	}
+
+	protected void start() {
+		if (!job.isActive())
+			job.run(PERIOD);
+	}
+
+	protected static InteractiveFrame[] ensure(InteractiveFrame[] array, int size) {
+		if (size < array.length)
+			return array;
+		InteractiveFrame[] result = new InteractiveFrame[Math.max(16, 2 * size)];
+		System.arraycopy(array, 0, result, 0, Math.min(size, array.length));
+		return result;
+	}
+}
@@ -11,7 +11,6 @@ package remixlab.dandelion.core;
 
 //import remixlab.remixcam.constraint.Constraint;
 import remixlab.dandelion.geom.*;
-import remixlab.fpstiming.AbstractTimerJob;
 import remixlab.tersehandling.core.Agent;
 import remixlab.tersehandling.core.Grabbable;
 import remixlab.tersehandling.generic.event.*;
@@ -95,8 +94,10 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 	
 	//TODO: remove this flag?:
 	private boolean isSpng;
-	private AbstractTimerJob spinningTimerJob;
 	private Orientable spngQuat;
+	// inertia integrator state, see InertiaIntegrator
+	int spinSlot = -1, tossSlot = -1;
+	long spinPeriod, spinNext, tossPeriod, tossNext;
 	protected float dampFriction; //new
 	//TODO decide whether or not toss should have its own damp var
 	// currently its share among the two -> test behavior
@@ -112,7 +113,6 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 	protected Vec tDir;
 	protected float flySpd;
 	protected float drvSpd;
-	protected AbstractTimerJob flyTimerJob;
 	protected Vec flyUpVec;
 	protected Vec flyDisp;
 	protected static final long FLY_UPDATE_PERDIOD = 10;
@@ -148,13 +148,6 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		setSpinningSensitivity(0.3f);
 		setDampingFriction(0.5f);
 		
-		spinningTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				spin();
-			}
-		};	
-		scene.registerJob(spinningTimerJob);
-		
 		// Drivable stuff:
 		drvSpd = 0.0f;
 		flyUpVec = new Vec(0.0f, 1.0f, 0.0f);
@@ -163,13 +156,6 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 
 		if(! (this instanceof InteractiveEyeFrame) )
 			setFlySpeed(0.01f * scene.radius());
-
-		flyTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				toss();
-			}
-		};		
-		scene.registerJob(flyTimerJob);
 	}
 	
 	/**
@@ -198,13 +184,6 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		this.setSpinningSensitivity( otherFrame.spinningSensitivity() );
 		this.setDampingFriction( otherFrame.dampingFriction() );
 		
-		this.spinningTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				spin();
-			}
-		};		
-		this.scene.registerJob(spinningTimerJob);
-		
 		// Drivable stuff:
 		this.drvSpd = otherFrame.drvSpd;
 		this.flyUpVec = new Vec();
@@ -212,13 +191,6 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		this.flyDisp = new Vec();
 		this.flyDisp.set(otherFrame.flyDisp);
 		this.setFlySpeed( otherFrame.flySpeed() );
-		
-		this.flyTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				toss();
-			}
-		};		
-		this.scene.registerJob(flyTimerJob);
 	}
   
 	/**
@@ -261,25 +233,12 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		isSpng = false;
 		setSpinningSensitivity(0.3f);
 		setDampingFriction(0.5f);
-				
-		spinningTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				spin();
-			}
-		};		
-		scene.registerJob(spinningTimerJob);
 		
 		// Drivable stuff:
 		drvSpd = 0.0f;
 		flyUpVec = new Vec(0.0f, 1.0f, 0.0f);
 		flyDisp = new Vec(0.0f, 0.0f, 0.0f);
 		setFlySpeed(0.0f);
-		flyTimerJob = new AbstractTimerJob() {
-			public void execute() {
-				toss();
-			}
-		};
-		scene.registerJob(flyTimerJob);
 	}	
 
 	/**
@@ -345,23 +304,30 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 	 */
 	@Override
 	public boolean checkIfGrabsInput(TerseEvent event) {
-		DOF2Event event2 = null;
+		float x = 0, y = 0;
 		
 		if ( ( ! (event instanceof MotionEvent) ) || (event instanceof DOF1Event) )  {
 			throw new RuntimeException("Gravving an interactive frame requires at least a DOF2 event");
 		}
 		
-		if( event instanceof DOF2Event )
-			event2 = ((DOF2Event)event).get();
-		else if( event instanceof DOF3Event )
-			event2 = ((DOF3Event)event).dof2Event();
-		else if( event instanceof DOF6Event )
-			event2 = ((DOF6Event)event).dof3Event().dof2Event();
+		// the event is only read: no need to copy (or convert) it
+		if( event instanceof DOF2Event ) {
+			x = ((DOF2Event)event).x();
+			y = ((DOF2Event)event).y();
+		}
+		else if( event instanceof DOF3Event ) {
+			x = ((DOF3Event)event).x();
+			y = ((DOF3Event)event).y();
+		}
+		else if( event instanceof DOF6Event ) {
+			x = ((DOF6Event)event).x();
+			y = ((DOF6Event)event).y();
+		}
 		
 		Vec proj = scene.eye().projectedCoordinatesOf(position());
 		
-		return ((Math.abs(event2.x() - proj.vec[0]) < grabsInputThreshold()) &&
-		        (Math.abs(event2.y() - proj.vec[1]) < grabsInputThreshold()));
+		return ((Math.abs(x - proj.vec[0]) < grabsInputThreshold()) &&
+		        (Math.abs(y - proj.vec[1]) < grabsInputThreshold()));
 	}
 
 	/**
@@ -583,8 +549,18 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
   	return currentAction != null;
   }
 	
+	/**
+	 * Returns {@code true} when the InteractiveFrame is being tossed.
+	 * 
+	 * @see #startTossing(MotionEvent)
+	 * @see #isSpinning()
+	 */
+	public final boolean isTossing() {
+		return tossSlot >= 0;
+	}
+	
 	public final void stopTossing() {
-		this.flyTimerJob.stop();
+		scene.inertiaIntegrator().stopTossing(this);
 	}
 	
 	/**
@@ -598,16 +574,16 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 	 * @see #toss()
 	 */
 	public final void stopSpinning() {
-		spinningTimerJob.stop();
+		scene.inertiaIntegrator().stopSpinning(this);
 		isSpng = false;
 	}
 
 	/**
 	 * Starts the spinning of the InteractiveFrame.
 	 * <p>
-	 * This method starts a timer that will call {@link #spin()} every {@code
-	 * updateInterval} milliseconds. The InteractiveFrame {@link #isSpinning()}
-	 * until you call {@link #stopSpinning()}.
+	 * This method has the scene {@link remixlab.dandelion.core.AbstractScene#inertiaIntegrator()}
+	 * call {@link #spin()} every {@code e.delay()} milliseconds. The InteractiveFrame
+	 * {@link #isSpinning()} until you call {@link #stopSpinning()}.
 	 * <p>
 	 * <b>Attention: </b>Spinning may be decelerated according to {@link #dampingFriction()}
 	 * till it stops completely.
@@ -620,12 +596,18 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		isSpng = true;
 		int updateInterval = (int) e.delay();
 		if(updateInterval>0)
-			spinningTimerJob.run(updateInterval);
+			scene.inertiaIntegrator().startSpinning(this, updateInterval);
 	}
 	
+	/**
+	 * Starts the tossing of the InteractiveFrame, i.e., the scene
+	 * {@link remixlab.dandelion.core.AbstractScene#inertiaIntegrator()} calls
+	 * {@link #toss()} every {@link #FLY_UPDATE_PERDIOD} milliseconds until
+	 * {@link #stopTossing()}.
+	 */
 	public void startTossing(MotionEvent e) {
 		eventSpeed = e.speed();
-		flyTimerJob.run(FLY_UPDATE_PERDIOD);
+		scene.inertiaIntegrator().startTossing(this, FLY_UPDATE_PERDIOD);
 	}
 	
 	/**
@@ -722,8 +704,19 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		if (Math.abs(eventSpeed) < .001f)
 			eventSpeed = 0;
 		//float currSpeed = eventSpeed;
-		if( scene.is3D() )
-			((Quat)spinningQuaternion()).fromAxisAngle(((Quat)spinningQuaternion()).axis(), spinningQuaternion().angle() * (eventSpeed / prevSpeed) );
+		if( scene.is3D() ) {
+			// same as fromAxisAngle(axis(), angle() * (eventSpeed / prevSpeed)), in place
+			Quat q = (Quat)spinningQuaternion();
+			float sinus = (float) Math.sqrt(q.x()*q.x() + q.y()*q.y() + q.z()*q.z());
+			if ( Util.zero(sinus) ) {
+				q.setX(0); q.setY(0); q.setZ(0); q.setW(1);
+			}
+			else {
+				float halfAngle = (float) Math.acos(q.w()) * (eventSpeed / prevSpeed);
+				float f = (float) Math.sin(halfAngle) / sinus;
+				q.setX(q.x()*f); q.setY(q.y()*f); q.setZ(q.z()*f); q.setW((float) Math.cos(halfAngle));
+			}
+		}
 		else
 			this.setSpinningQuaternion(new Rot(spinningQuaternion().angle() * (eventSpeed / prevSpeed)));
 	}
@@ -804,7 +797,15 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 	DOF3Event e3;
 	DOF6Event e6;
 	DandelionAction currentAction;
+	// frame owned copies of the pooled events, see retain()
+	DOF1Event pe1;
+	DOF2Event pe2;
+	DOF3Event pe3;
+	DOF6Event pe6;
 	
+	// events of the required dofs are not copied, unless they are pooled (see retain()),
+	// since the reduced events may be read after the event is released (e.g., by the
+	// inertia integrator); reduced (converted) events are always new instances
 	protected DandelionAction reduceEvent(MotionEvent e) {
 		//currentEvent = e;
 		if( !(e instanceof Duoable) )	return null;
@@ -817,7 +818,7 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		switch(dofs) {
 		case 1:
 			if( e instanceof DOF1Event )
-				e1 = (DOF1Event) e.get();
+				e1 = retain((DOF1Event) e);
 			else if( e instanceof DOF2Event )
 				e1 = currentAction == DandelionAction.ROLL || currentAction == DandelionAction.DRIVE ? ((DOF2Event)e).dof1Event() : ((DOF2Event)e).dof1Event(false);
 			else if( e instanceof DOF3Event )
@@ -827,7 +828,7 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 			break;
 		case 2:
 			if( e instanceof DOF2Event )
-				e2 = ((DOF2Event)e).get();
+				e2 = retain((DOF2Event) e);
 			else if( e instanceof DOF3Event )
 				e2 = ((DOF3Event)e).dof2Event();
 			else if( e instanceof DOF6Event )
@@ -835,7 +836,7 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 			break;
 		case 3:
 			if( e instanceof DOF3Event )
-				e3 = ((DOF3Event)e).get();
+				e3 = retain((DOF3Event) e);
 			else if( e instanceof DOF6Event )
 				e3 = ((DOF6Event)e).dof3Event();
 			if(scene.is2D())
@@ -843,7 +844,7 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 			break;
 		case 6:
 			if( e instanceof DOF6Event )
-			  e6 = ((DOF6Event)e).get();
+			  e6 = retain((DOF6Event) e);
 			break;
 		default:
 		  break;
@@ -851,6 +852,44 @@ public class InteractiveFrame extends Frame implements Grabbable, Copyable {
 		return currentAction;		
 	}
 	
+	/**
+	 * Returns {@code e}, or a frame owned copy of it if it is
+	 * {@link remixlab.tersehandling.event.TerseEvent#isPooled()}, since pooled events are
+	 * reused once performed. The copy is reused while the event class doesn't change.
+	 */
+	protected DOF1Event retain(DOF1Event e) {
+		if( !e.isPooled() ) return e;
+		if( pe1 == null || pe1.getClass() != e.getClass() ) pe1 = e.get(); else pe1.set(e);
+		return pe1;
+	}
+	
+	/**
+	 * Same as {@link #retain(DOF1Event)}, for DOF2 events.
+	 */
+	protected DOF2Event retain(DOF2Event e) {
+		if( !e.isPooled() ) return e;
+		if( pe2 == null || pe2.getClass() != e.getClass() ) pe2 = e.get(); else pe2.set(e);
+		return pe2;
+	}
+	
+	/**
+	 * Same as {@link #retain(DOF1Event)}, for DOF3 events.
+	 */
+	protected DOF3Event retain(DOF3Event e) {
+		if( !e.isPooled() ) return e;
+		if( pe3 == null || pe3.getClass() != e.getClass() ) pe3 = e.get(); else pe3.set(e);
+		return pe3;
+	}
+	
+	/**
+	 * Same as {@link #retain(DOF1Event)}, for DOF6 events.
+	 */
+	protected DOF6Event retain(DOF6Event e) {
+		if( !e.isPooled() ) return e;
+		if( pe6 == null || pe6.getClass() != e.getClass() ) pe6 = e.get(); else pe6.set(e);
+		return pe6;
+	}
+	
 	public void execAction2D(DandelionAction a) {
 		if(a==null) return;
 		Vec trans;
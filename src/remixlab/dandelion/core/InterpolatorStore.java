@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import remixlab.dandelion.geom.Vec;
+
+/**
+ * A store of the paths of (a possibly very large number of)
+ * {@link remixlab.dandelion.core.KeyFrameInterpolator}s, e.g., the animations of a
+ * crowd, which are all evaluated at a given global time in a single pass (see
+ * {@link #update(float)}).
+ * <p>
+ * The keyFrame times, spline coefficients and orientations of the paths (see
+ * {@link remixlab.dandelion.core.KeyFrameInterpolator#updateSplineCache()}) are
+ * concatenated into shared primitive arrays, addressed by the index returned by
+ * {@link #add(KeyFrameInterpolator, Frame)}. They are refreshed by {@link #pack()}
+ * only for the paths whose keyFrames changed. The interpolated states are written
+ * into a packed transform buffer (see {@link #transforms()}) and then into the
+ * target frames, if any.
+ * <p>
+ * {@link #evaluate(float, int, int)} only reads the packed paths and writes its own
+ * range of the buffer, so that disjoint ranges may be evaluated concurrently once
+ * the store is packed. Target frames are always written sequentially by
+ * {@link #apply(int, int)}, since modifying a frame is not thread-safe.
+ * <p>
+ * Each path is evaluated at the global time minus its {@link #timeOffset(int)},
+ * wrapped if its interpolator {@link remixlab.dandelion.core.KeyFrameInterpolator#loopInterpolation()}
+ * and clamped otherwise. The interpolator constant speed mode and interpolation speed
+ * are ignored. Interpolators driven by a store should not be started, so that
+ * their own timers remain idle.
+ */
+public class InterpolatorStore {
+	/**
+	 * Number of floats of each path state in the {@link #transforms()} buffer: the
+	 * position (3), the orientation (4), i.e., the (x, y, z, w) quaternion in 3D or
+	 * the rotation angle (followed by 3 unused floats) in 2D, and the magnitude (3).
+	 */
+	public static final int STRIDE = KeyFrameInterpolator.STATE_SIZE;
+
+	protected boolean three_d;
+	protected int size;
+
+	protected KeyFrameInterpolator [] interpolators;
+	protected Frame [] targets;
+	protected float [] offsets;
+	// packed spline stamp of each path, see KeyFrameInterpolator.updatedSplineStamp()
+	protected long [] stamps;
+	// first keyFrame, number of keyFrames, first segment and current segment of each path
+	protected int [] keyStart, keyCount, segmentStart, current;
+	protected boolean repack;
+
+	// packed paths: 1, 4 and 4 floats per keyFrame and 12 per segment
+	protected float [] times = new float[0], orientations = new float[0], tangents = new float[0];
+	protected float [] positions = new float[0], magnitudes = new float[0];
+
+	protected float [] transforms;
+
+	// scratch objects of evaluate() and apply()
+	protected float [] scratch = new float[8];
+	protected Vec pos = new Vec(), mag = new Vec(), refMag = new Vec();
+
+	public InterpolatorStore() {
+		this(true);
+	}
+
+	public InterpolatorStore(boolean three_d) {
+		this(three_d, 16);
+	}
+
+	/**
+	 * Creates an empty 3D (or 2D) store with room for {@code capacity} paths. The store
+	 * grows as needed.
+	 */
+	public InterpolatorStore(boolean three_d, int capacity) {
+		this.three_d = three_d;
+		capacity = Math.max(1, capacity);
+		interpolators = new KeyFrameInterpolator[capacity];
+		targets = new Frame[capacity];
+		offsets = new float[capacity];
+		stamps = new long[capacity];
+		keyStart = new int[capacity];
+		keyCount = new int[capacity];
+		segmentStart = new int[capacity];
+		current = new int[capacity];
+		transforms = new float[STRIDE * capacity];
+	}
+
+	public boolean is3D() {
+		return three_d;
+	}
+
+	public boolean is2D() {
+		return !three_d;
+	}
+
+	/**
+	 * Returns the number of paths in the store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Convenience function that simply calls {@code add(kfi, kfi.frame())}.
+	 */
+	public int add(KeyFrameInterpolator kfi) {
+		return add(kfi, kfi.frame());
+	}
+
+	/**
+	 * Adds the path of {@code kfi}, whose state is to be written into {@code target}
+	 * (which may be {@code null}, see {@link #transforms()}), and returns its index.
+	 * Returns -1 if {@code kfi} and the store dimensions differ.
+	 */
+	public int add(KeyFrameInterpolator kfi, Frame target) {
+		if (kfi.scene.is3D() != three_d) {
+			System.out.println("InterpolatorStore.add: interpolator and store dimensions differ");
+			return -1;
+		}
+		if (size == interpolators.length)
+			ensureCapacity(2 * size);
+		interpolators[size] = kfi;
+		targets[size] = target;
+		offsets[size] = 0;
+		stamps[size] = -1;
+		keyCount[size] = 0;
+		current[size] = -1;
+		repack = true;
+		return size++;
+	}
+
+	/**
+	 * Removes all the paths from the store.
+	 */
+	public void clear() {
+		for (int i = 0; i < size; ++i) {
+			interpolators[i] = null;
+			targets[i] = null;
+		}
+		size = 0;
+		repack = true;
+	}
+
+	/**
+	 * Returns the interpolator of path {@code i}.
+	 */
+	public KeyFrameInterpolator interpolator(int i) {
+		return interpolators[i];
+	}
+
+	/**
+	 * Returns the frame into which the state of path {@code i} is written, or
+	 * {@code null}.
+	 */
+	public Frame target(int i) {
+		return targets[i];
+	}
+
+	public void setTarget(int i, Frame target) {
+		targets[i] = target;
+	}
+
+	/**
+	 * Returns the time (in seconds) subtracted from the global time to evaluate path
+	 * {@code i}. Default is 0.
+	 */
+	public float timeOffset(int i) {
+		return offsets[i];
+	}
+
+	public void setTimeOffset(int i, float offset) {
+		offsets[i] = offset;
+	}
+
+	/**
+	 * Returns the buffer holding the last evaluated state of each path, i.e.,
+	 * {@link #STRIDE} floats per path, starting at {@code STRIDE * i} for path
+	 * {@code i}. Don't modify it. Note that the buffer is reallocated when the store
+	 * grows.
+	 */
+	public float[] transforms() {
+		return transforms;
+	}
+
+	/**
+	 * Packs the paths, evaluates them at the global {@code time} and writes their
+	 * states into their target frames.
+	 *
+	 * @see #pack()
+	 * @see #evaluate(float, int, int)
+	 * @see #apply(int, int)
+	 */
+	public void update(float time) {
+		pack();
+		evaluate(time, 0, size);
+		apply(0, size);
+	}
+
+	/**
+	 * Copies the paths whose keyFrames changed since the last call into the packed
+	 * arrays. All the paths are re-packed when a number of keyFrames changes.
+	 */
+	public void pack() {
+		for (int p = 0; p < size; ++p) {
+			KeyFrameInterpolator kfi = interpolators[p];
+			long stamp = kfi.updatedSplineStamp();
+			if (stamp == stamps[p])
+				continue;
+			stamps[p] = stamp;
+			if (keyCount(kfi) != keyCount[p])
+				repack = true;
+			else if (!repack)
+				copy(p);
+		}
+		if (!repack)
+			return;
+		int keys = 0, segments = 0;
+		for (int p = 0; p < size; ++p) {
+			keyStart[p] = keys;
+			segmentStart[p] = segments;
+			keyCount[p] = keyCount(interpolators[p]);
+			keys += keyCount[p];
+			segments += keyCount[p] == 0 ? 0 : Math.max(keyCount[p] - 1, 1);
+		}
+		if (times.length < keys || positions.length < 12 * segments) {
+			times = new float[keys];
+			orientations = new float[4 * keys];
+			tangents = new float[4 * keys];
+			positions = new float[12 * segments];
+			magnitudes = new float[12 * segments];
+		}
+		for (int p = 0; p < size; ++p)
+			copy(p);
+		repack = false;
+	}
+
+	/**
+	 * Evaluates the paths {@code from} (inclusive) {@code to} (exclusive) at the
+	 * global {@code time} into the {@link #transforms()} buffer. The store must be
+	 * {@link #pack()}ed.
+	 * <p>
+	 * Uses the store scratch buffer, so concurrent calls should use
+	 * {@link #evaluate(float, int, int, float[])} instead.
+	 */
+	public void evaluate(float time, int from, int to) {
+		evaluate(time, from, to, scratch);
+	}
+
+	/**
+	 * Same as {@link #evaluate(float, int, int)}, but uses the given {@code scratch}
+	 * buffer (of at least 8 floats), so that disjoint ranges of paths may be evaluated
+	 * concurrently.
+	 */
+	public void evaluate(float time, int from, int to, float [] scratch) {
+		for (int p = from; p < to; ++p) {
+			int n = keyCount[p];
+			if (n == 0)
+				continue;
+			int k = keyStart[p];
+			float t = time - offsets[p];
+			if (interpolators[p].loopInterpolation()) {
+				float first = times[k];
+				float duration = times[k + n - 1] - first;
+				if (duration > 0) {
+					t = (t - first) % duration;
+					t = first + (t < 0 ? t + duration : t);
+				}
+			}
+			int s = KeyFrameInterpolator.segment(times, k, n, t, current[p]);
+			current[p] = s;
+			float alpha = KeyFrameInterpolator.alpha(times, k, n, s, t);
+			KeyFrameInterpolator.evaluate(three_d, positions, magnitudes, segmentStart[p] + s, orientations, tangents, k + s,
+					k + Math.min(s + 1, n - 1), alpha, scratch, transforms, STRIDE * p);
+		}
+	}
+
+	/**
+	 * Writes the evaluated states of the paths {@code from} (inclusive) {@code to}
+	 * (exclusive) into their target frames, as
+	 * {@link remixlab.dandelion.core.KeyFrameInterpolator#interpolateAtTime(float, Frame)}
+	 * does.
+	 */
+	public void apply(int from, int to) {
+		for (int p = from; p < to; ++p)
+			if (targets[p] != null && keyCount[p] > 0)
+				KeyFrameInterpolator.apply(targets[p], three_d, transforms, STRIDE * p, pos, mag, refMag);
+	}
+
+	protected static int keyCount(KeyFrameInterpolator kfi) {
+		return kfi.numberOfKeyFrames() == 0 ? 0 : kfi.keyTimes.length;
+	}
+
+	protected void copy(int p) {
+		KeyFrameInterpolator kfi = interpolators[p];
+		int n = keyCount[p];
+		if (n == 0)
+			return;
+		int segments = Math.max(n - 1, 1);
+		System.arraycopy(kfi.keyTimes, 0, times, keyStart[p], n);
+		System.arraycopy(kfi.orientations, 0, orientations, 4 * keyStart[p], 4 * n);
+		System.arraycopy(kfi.orientationTangents, 0, tangents, 4 * keyStart[p], 4 * n);
+		System.arraycopy(kfi.positionCoefficients, 0, positions, 12 * segmentStart[p], 12 * segments);
+		System.arraycopy(kfi.magnitudeCoefficients, 0, magnitudes, 12 * segmentStart[p], 12 * segments);
+		current[p] = -1;
+	}
+
+	protected void ensureCapacity(int capacity) {
+		if (capacity <= interpolators.length)
+			return;
+		KeyFrameInterpolator [] i = new KeyFrameInterpolator[capacity];
+		System.arraycopy(interpolators, 0, i, 0, size);
+		interpolators = i;
+		Frame [] t = new Frame[capacity];
+		System.arraycopy(targets, 0, t, 0, size);
+		targets = t;
+		long [] s = new long[capacity];
+		System.arraycopy(stamps, 0, s, 0, size);
+		stamps = s;
+		offsets = grow(offsets, capacity);
+		keyStart = grow(keyStart, capacity);
+		keyCount = grow(keyCount, capacity);
+		segmentStart = grow(segmentStart, capacity);
+		current = grow(current, capacity);
+		transforms = grow(transforms, STRIDE * capacity);
+	}
+
+	protected static float[] grow(float[] array, int length) {
+		float [] result = new float[length];
+		System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+		return result;
+	}
+
+	protected static int[] grow(int[] array, int length) {
+		int [] result = new int[length];
+		System.arraycopy(array, 0, result, 0, Math.min(array.length, length));
+		return result;
+	}
+}
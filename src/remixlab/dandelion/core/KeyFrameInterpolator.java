@@ -157,6 +157,10 @@ public class KeyFrameInterpolator implements Copyable {
 		protected Vec tgSVec;
 		protected float tm;
 		protected Frame frm;
+		// position in keyFrameList and last seen world stamp (see checkValidity())
+		protected int index;
+		protected long wStamp;
+		protected boolean relative;
 
 		AbstractKeyFrame(Frame fr, float t) {
 			tm = t;
@@ -187,6 +191,11 @@ public class KeyFrameInterpolator implements Copyable {
 		Frame frame() {
 			return frm;
 		}
+
+		// called by the frame kernel when it is modified
+		void frameModified() {
+			keyFrameModified(this);
+		}
 		
 		Vec tgP() {
 			return tgPVec;
@@ -253,13 +262,42 @@ public class KeyFrameInterpolator implements Copyable {
 		}
 	}
 
+	/**
+	 * Number of samples per path segment of the arc-length table (see
+	 * {@link #isConstantSpeed()}).
+	 */
+	public static final int ARC_LENGTH_SAMPLES = 16;
+
+	// size of an interpolated state: position (3), orientation (4) and magnitude (3)
+	protected static final int STATE_SIZE = 10;
+
 	private long lUpdate;
 	protected List<AbstractKeyFrame> keyFrameList;
-	private ListIterator<AbstractKeyFrame> currentFrame0;
-	private ListIterator<AbstractKeyFrame> currentFrame1;
-	private ListIterator<AbstractKeyFrame> currentFrame2;
-	private ListIterator<AbstractKeyFrame> currentFrame3;
+	// current segment, i.e., index of its first keyFrame
+	private int currentSegment;
 	protected List<Frame> path;
+
+	// P a c k e d s p l i n e (see updateSplineCache())
+	// keyFrame times
+	protected float[] keyTimes = new float[0];
+	// per segment: {p, tgP, v1, v2} Hermite coefficients of x, then y, then z
+	protected float[] positionCoefficients = new float[0];
+	protected float[] magnitudeCoefficients = new float[0];
+	// per keyFrame: orientation (x, y, z, w) and squad tangent in 3D, angle in 2D
+	protected float[] orientations = new float[0];
+	protected float[] orientationTangents = new float[0];
+	// cumulative path length at each arc-length sample
+	protected float[] arcLengths = new float[0];
+	// scratch state of the interpolation, so that it does not allocate
+	private float[] quatScratch = new float[8];
+	private float[] state = new float[STATE_SIZE];
+	private Vec pos = new Vec();
+	private Vec mag = new Vec();
+	private Vec refMag = new Vec();
+	private boolean constantSpeed;
+	private boolean arcLengthIsValid;
+	// increased every time the packed spline is rebuilt
+	private long splineStamp;
 	// A s s o c i a t e d f r a m e
 	private Frame mainFrame;
 
@@ -277,10 +315,10 @@ public class KeyFrameInterpolator implements Copyable {
 	private boolean pathIsValid;
 	private boolean valuesAreValid;
 	private boolean currentFrmValid;
-	private boolean splineCacheIsValid;
-	private Vec pv1, pv2;
-  //Option 2 (interpolate scaling using a spline)
-	private Vec sv1, sv2;
+	// range of keyFrames modified since the last checkValidity()
+	private int dirtyFrom = Integer.MAX_VALUE, dirtyTo = -1;
+	// keyFrames defined in a reference frame, whose ancestors don't notify them
+	private List<AbstractKeyFrame> relativeKeyFrames = new ArrayList<AbstractKeyFrame>();
 
   //S C E N E
   public AbstractScene scene;
@@ -322,11 +360,6 @@ public class KeyFrameInterpolator implements Copyable {
 		currentFrmValid = false;
 		setFrame(frame);
 
-		currentFrame0 = keyFrameList.listIterator();
-		currentFrame1 = keyFrameList.listIterator();
-		currentFrame2 = keyFrameList.listIterator();
-		currentFrame3 = keyFrameList.listIterator();
-		
 		interpolationTimerJob = new AbstractTimerJob() {
 			public void execute() {
 				update();
@@ -352,22 +385,20 @@ public class KeyFrameInterpolator implements Copyable {
 		this.lpInterpolation = otherKFI.lpInterpolation;
 		this.pathIsValid = otherKFI.pathIsValid;
 		this.valuesAreValid = otherKFI.valuesAreValid;
-		this.currentFrmValid = otherKFI.currentFrmValid;		
-		
+		this.currentFrmValid = otherKFI.currentFrmValid;
+		this.currentSegment = otherKFI.currentSegment;
+		this.constantSpeed = otherKFI.constantSpeed;
+
 		this.keyFrameList = new ArrayList<AbstractKeyFrame>();		
 		
 		for (AbstractKeyFrame element : otherKFI.keyFrameList) {
 			AbstractKeyFrame kf = (AbstractKeyFrame)element.get();
 			this.keyFrameList.add(kf);
+			this.watch(kf);
 			if (kf.frame() instanceof InteractiveFrame)
 				this.scene.terseHandler().removeFromAllAgentPools((InteractiveFrame)kf.frame());
 		}
-		
-		this.currentFrame0 = keyFrameList.listIterator(otherKFI.currentFrame0.nextIndex());
-		this.currentFrame1 = keyFrameList.listIterator(otherKFI.currentFrame1.nextIndex());
-		this.currentFrame2 = keyFrameList.listIterator(otherKFI.currentFrame2.nextIndex());
-		this.currentFrame3 = keyFrameList.listIterator(otherKFI.currentFrame3.nextIndex());
-		
+
 		this.interpolationTimerJob = new AbstractTimerJob() {
 			public void execute() {
 				update();
@@ -520,6 +551,47 @@ public class KeyFrameInterpolator implements Copyable {
 		lpInterpolation = loop;
 	}
 
+	/**
+	 * Returns {@code true} when the {@link #frame()} moves along the path at
+	 * constant speed.
+	 * <p>
+	 * When {@code false} (default), the keyFrames are reached at their
+	 * {@link #keyFrameTime(int)}s. Otherwise the time is reparameterized by the path
+	 * arc length, so that the {@link #frame()} goes from the first to the last
+	 * keyFrame within the same {@link #duration()}, but at constant speed, i.e.,
+	 * the intermediate keyFrame times are ignored. The arc-length table is
+	 * computed (with {@link #ARC_LENGTH_SAMPLES} per path segment) when needed.
+	 *
+	 * @see #pathLength()
+	 */
+	public boolean isConstantSpeed() {
+		return constantSpeed;
+	}
+
+	/**
+	 * Sets the {@link #isConstantSpeed()} value.
+	 */
+	public void setConstantSpeed(boolean enable) {
+		constantSpeed = enable;
+	}
+
+	/**
+	 * Returns the (approximated) length of the path traversed by the
+	 * {@link #frame()} position.
+	 *
+	 * @see #isConstantSpeed()
+	 */
+	public float pathLength() {
+		checkValidity();
+		if (keyFrameList.isEmpty())
+			return 0;
+		if (!valuesAreValid)
+			updateModifiedFrameValues();
+		if (!arcLengthIsValid)
+			updateArcLengths();
+		return arcLengths[arcLengths.length - 1];
+	}
+
 	/**
 	 * Returns {@code true} when the interpolation is being performed. Use
 	 * {@link #startInterpolation()}, {@link #stopInterpolation()} or
@@ -580,7 +652,7 @@ public class KeyFrameInterpolator implements Copyable {
 	public void invalidateValues() {
 		valuesAreValid = false;
 		pathIsValid = false;
-		splineCacheIsValid = false;
+		arcLengthIsValid = false;
 	}
 
 	/**
@@ -697,10 +769,13 @@ public class KeyFrameInterpolator implements Copyable {
 		if ((!keyFrameList.isEmpty()) && (keyFrameList.get(keyFrameList.size() - 1).time() > time))
 			System.out.println("Error in KeyFrameInterpolator.addKeyFrame: time is not monotone");
 		else {
+			AbstractKeyFrame kf;
 			if(scene.is3D())
-				keyFrameList.add(new KeyFrame3D(frame, time));
+				kf = new KeyFrame3D(frame, time);
 			else
-				keyFrameList.add(new KeyFrame2D(frame, time));
+				kf = new KeyFrame2D(frame, time);
+			keyFrameList.add(kf);
+			watch(kf);
 		}
 		// */
 
@@ -725,8 +800,13 @@ public class KeyFrameInterpolator implements Copyable {
 		if( interpolationIsStarted() )
 			stopInterpolation();
 		AbstractKeyFrame kf = keyFrameList.remove(index);
+		unwatch(kf);
+		for (int i = index; i < keyFrameList.size(); ++i)
+			keyFrameList.get(i).index = i;
 		if (kf.frm  instanceof InteractiveFrame)
 			scene.terseHandler().removeFromAllAgentPools( (InteractiveFrame) kf.frm );
+		// the packed spline is rebuilt only while there are keyFrames left
+		++splineStamp;
 		  //before:
 			//if (((InteractiveFrame) kf.frm).isInDeviceGrabberPool())
 				//((InteractiveFrame) kf.frm).removeFromDeviceGrabberPool();
@@ -737,16 +817,23 @@ public class KeyFrameInterpolator implements Copyable {
 	 * Removes all keyFrames from the path. Calls
 	 * {@link #removeFramesFromAllAgentPools()}. The
 	 * {@link #numberOfKeyFrames()} is set to 0.
+	 * <p>
+	 * The keyFrame frames notify (and hence reference) the KeyFrameInterpolator until
+	 * they are removed from its path.
 	 * 
 	 * @see #removeFramesFromAllAgentPools()
 	 */
 	public void deletePath() {
 		stopInterpolation();
 		removeFramesFromAllAgentPools();
+		for (int i = 0; i < keyFrameList.size(); ++i)
+			unwatch(keyFrameList.get(i));
 		keyFrameList.clear();
 		pathIsValid = false;
 		valuesAreValid = false;
 		currentFrmValid = false;
+		// tell the InterpolatorStore (if any) the path is gone
+		++splineStamp;
 	}
 
 	/**
@@ -789,7 +876,29 @@ public class KeyFrameInterpolator implements Copyable {
 			prev = kf;
 			kf = next;
 		}
+		updateSplineCache();
 		valuesAreValid = true;
+		currentFrmValid = false;
+		arcLengthIsValid = false;
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
+	}
+
+	/**
+	 * Recomputes the tangents of the keyFrames {@code first..last} (which were modified)
+	 * and of their neighbors, and repacks only the spline segments depending on them.
+	 * The number of keyFrames should not have changed since the last
+	 * {@link #updateModifiedFrameValues()}.
+	 */
+	protected void updateModifiedFrameValues(int first, int last) {
+		int n = keyFrameList.size();
+		int from = Math.max(first - 1, 0);
+		int to = Math.min(last + 1, n - 1);
+		for (int i = from; i <= to; ++i)
+			keyFrameList.get(i).computeTangent(keyFrameList.get(Math.max(i - 1, 0)), keyFrameList.get(Math.min(i + 1, n - 1)));
+		updateSplineCache(from, to);
+		pathIsValid = false;
+		arcLengthIsValid = false;
 	}
 
 	/**
@@ -849,91 +958,106 @@ public class KeyFrameInterpolator implements Copyable {
 	protected void updatePath() {
 		checkValidity();
 		if (!pathIsValid) {
-			path.clear();
 			int nbSteps = 30;
 
-			if (keyFrameList.isEmpty())
+			if (keyFrameList.isEmpty()) {
+				path.clear();
 				return;
+			}
 
 			if (!valuesAreValid)
 				updateModifiedFrameValues();
 
-			if (keyFrameList.get(0) == keyFrameList.get(keyFrameList.size() - 1))
-				path.add(new Frame(keyFrameList.get(0).orientation(), keyFrameList.get(0).position(), keyFrameList.get(0).magnitude()));
-			else {
-				AbstractKeyFrame[] kf = new AbstractKeyFrame[4];
-				kf[0] = keyFrameList.get(0);
-				kf[1] = kf[0];
-
-				int index = 1;
-				kf[2] = (index < keyFrameList.size()) ? keyFrameList.get(index) : null;
-				index++;
-				kf[3] = (index < keyFrameList.size()) ? keyFrameList.get(index) : null;
-
-				while (kf[2] != null) {
-					Vec pdiff = Vec.subtract(kf[2].position(), kf[1].position());
-					Vec pvec1 = Vec.add(Vec.multiply(pdiff, 3.0f), Vec.multiply(kf[1].tgP(), (-2.0f)));
-					pvec1 = Vec.subtract(pvec1, kf[2].tgP());
-					Vec pvec2 = Vec.add(Vec.multiply(pdiff, (-2.0f)), kf[1].tgP());
-					pvec2 = Vec.add(pvec2, kf[2].tgP());
-					
-					// /**
-					//Option 2 (interpolate scaling using a spline)
-					Vec sdiff = Vec.subtract(kf[2].magnitude(), kf[1].magnitude());
-					Vec svec1 = Vec.add(Vec.multiply(sdiff, 3.0f), Vec.multiply(kf[1].tgS(), (-2.0f)));
-					svec1 = Vec.subtract(svec1, kf[2].tgS());
-					Vec svec2 = Vec.add(Vec.multiply(sdiff, (-2.0f)), kf[1].tgS());
-					svec2 = Vec.add(svec2, kf[2].tgS());
-					// */
-					
-					for (int step = 0; step < nbSteps; ++step) {
-						Frame frame = new Frame(scene.is3D());
-						float alpha = step / (float) nbSteps;
-						frame.setPosition(Vec.add(kf[1].position(), Vec.multiply(Vec.add(kf[1].tgP(), Vec.multiply(Vec.add(pvec1, Vec.multiply(pvec2, alpha)), alpha)), alpha)));
-					  if( scene.is3D()) {
-						  frame.setOrientation(Quat.squad((Quat)kf[1].orientation(), ((KeyFrame3D)kf[1]).tgQ(), ((KeyFrame3D)kf[2]).tgQ(), (Quat)kf[2].orientation(), alpha));
-					  }
-					  else {
-					    //linear interpolation
-							float start = kf[1].orientation().angle();
-							float stop = kf[2].orientation().angle();
-							frame.setOrientation(new Rot(start + (stop-start) * alpha) );
-					  }
-					  //myFrame.setMagnitude(magnitudeLerp(kf[1], kf[2], alpha));
-					  //Option 2 (interpolate scaling using a spline)
-					  frame.setMagnitude(Vec.add(kf[1].magnitude(), Vec.multiply(Vec.add(kf[1].tgS(), Vec.multiply(Vec.add(svec1, Vec.multiply(svec2, alpha)), alpha)), alpha)));					  
-						path.add(frame.get());
-					}
-
-					// Shift
-					kf[0] = kf[1];
-					kf[1] = kf[2];
-					kf[2] = kf[3];
-
-					index++;
-					kf[3] = (index < keyFrameList.size()) ? keyFrameList.get(index) : null;
-				}
-				// Add last KeyFrame
-				path.add(new Frame(kf[1].orientation(), kf[1].position(), kf[1].magnitude()));
+			// the path frames are recycled, so that only new ones are allocated
+			int segments = Math.max(keyFrameList.size() - 1, 1);
+			int size = keyFrameList.size() == 1 ? 1 : segments * nbSteps + 1;
+			while (path.size() > size)
+				path.remove(path.size() - 1);
+			while (path.size() < size)
+				path.add(new Frame(scene.is3D()));
+			for (int i = 0; i < size; ++i) {
+				// the last sample is the last keyFrame
+				int segment = Math.min(i / nbSteps, segments - 1);
+				evaluate(segment, (i - segment * nbSteps) / (float) nbSteps, state, 0);
+				apply(path.get(i), scene.is3D(), state, 0, pos, mag, refMag);
 			}
 			pathIsValid = true;
 		}
 	}
 	
+	/**
+	 * Brings the path up to date with its keyFrames frames. The keyFrame frames notify
+	 * the interpolator when they are modified, so that the check is O(1) when the path
+	 * is unchanged, except for the keyFrames defined in a reference frame (see
+	 * {@link remixlab.dandelion.core.Frame#referenceFrame()}), whose world stamps
+	 * need to be compared, since their ancestors don't notify them. Only the spline
+	 * segments around the modified keyFrames are recomputed.
+	 */
 	protected void checkValidity() {
-		boolean flag = false;
-		for (AbstractKeyFrame element : keyFrameList) {
-	    if(element.frame().lastUpdate() > lastUpdate()) {
-	    	flag = true;
-	    	break;
-	    }
-	  }
-		if(flag) {
-			this.invalidateValues();
-			this.checked();
+		for (int i = 0; i < relativeKeyFrames.size(); ++i) {
+			AbstractKeyFrame kf = relativeKeyFrames.get(i);
+			long stamp = kf.frame().worldStamp();
+			if (stamp != kf.wStamp) {
+				kf.wStamp = stamp;
+				dirty(kf.index);
+			}
+		}
+		if (dirtyTo < 0)
+			return;
+		if (valuesAreValid)
+			updateModifiedFrameValues(dirtyFrom, dirtyTo);
+		dirtyFrom = Integer.MAX_VALUE;
+		dirtyTo = -1;
+		this.checked();
+	}
+
+	// registers kf (just appended to keyFrameList) into its frame kernel, see Frame.AbstractFrameKernel.modified()
+	private void watch(AbstractKeyFrame kf) {
+		kf.index = keyFrameList.size() - 1;
+		kf.frame().kernel().addKeyFrame(kf);
+		kf.relative = kf.frame().referenceFrame() != null;
+		if (kf.relative) {
+			kf.wStamp = kf.frame().worldStamp();
+			relativeKeyFrames.add(kf);
 		}
 	}
 
+	private void unwatch(AbstractKeyFrame kf) {
+		kf.frame().kernel().removeKeyFrame(kf);
+		if (kf.relative)
+			removeRelative(kf);
+		kf.relative = false;
+	}
+
+	private void removeRelative(AbstractKeyFrame kf) {
+		for (int i = 0; i < relativeKeyFrames.size(); ++i)
+			if (relativeKeyFrames.get(i) == kf) {
+				relativeKeyFrames.remove(i);
+				return;
+			}
+	}
+
+	// O(1), since it is called every time a keyFrame frame is modified
+	void keyFrameModified(AbstractKeyFrame kf) {
+		boolean relative = kf.frame().referenceFrame() != null;
+		if (relative != kf.relative) {
+			kf.relative = relative;
+			if (relative)
+				relativeKeyFrames.add(kf);
+			else
+				removeRelative(kf);
+		}
+		if (relative)
+			kf.wStamp = kf.frame().worldStamp();
+		dirty(kf.index);
+	}
+
+	private void dirty(int index) {
+		dirtyFrom = Math.min(dirtyFrom, index);
+		dirtyTo = Math.max(dirtyTo, index);
+		pathIsValid = false;
+	}
+
 	/**
 	 * Returns the Frame associated with the keyFrame at index {@code index}.
 	 * <p>
@@ -1006,76 +1130,216 @@ public class KeyFrameInterpolator implements Copyable {
 			return keyFrameList.get(keyFrameList.size() - 1).time();
 	}
 
+	/**
+	 * Updates the current path segment, i.e., the pair of consecutive keyFrames
+	 * enclosing {@code time}. Consecutive calls with close times are O(1), otherwise
+	 * the segment is binary searched among the {@link #keyFrameTime(int)}s.
+	 */
 	protected void updateCurrentKeyFrameForTime(float time) {
 		// Assertion: times are sorted in monotone order.
 		// Assertion: keyFrame_ is not empty
+		currentSegment = segment(keyTimes, 0, keyTimes.length, time, currentFrmValid ? currentSegment : -1);
+		currentFrmValid = true;
+	}
 
-		// TODO: Special case for loops when closed path is implemented !!
-		if (!currentFrmValid)
-			// Recompute everything from scratch
-			currentFrame1 = keyFrameList.listIterator();
-
-		// currentFrame_[1]->peekNext() <---> keyFr.get(currentFrame1.nextIndex());
-		while (keyFrameList.get(currentFrame1.nextIndex()).time() > time) {
-			currentFrmValid = false;
-			if (!currentFrame1.hasPrevious())
-				break;
-			currentFrame1.previous();
+	/**
+	 * Returns the segment (relative to {@code start}) enclosing {@code time} of the
+	 * path whose {@code count} keyFrame times are stored at {@code times[start]}. The
+	 * {@code hint} segment is returned if it still encloses {@code time}.
+	 */
+	protected static int segment(float[] times, int start, int count, float time, int hint) {
+		int last = count - 1;
+		if (hint >= 0) {
+			int s = start + hint;
+			if ((hint == 0 || times[s] < time) && (hint + 1 >= last || time <= times[s + 1]))
+				return hint;
 		}
+		// first keyFrame whose time is not smaller than time
+		int low = start, high = start + count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (times[mid] < time)
+				low = mid + 1;
+			else
+				high = mid;
+		}
+		return Math.max(0, Math.min(low - start - 1, last - 1));
+	}
 
-		if (!currentFrmValid)
-			// *currentFrame_[2] = *currentFrame_[1]; <---> currentFrame2 =
-			// keyFr.listIterator( currentFrame1.nextIndex() );
-			currentFrame2 = keyFrameList.listIterator(currentFrame1.nextIndex());
-
-		while (keyFrameList.get(currentFrame2.nextIndex()).time() < time) {
-			currentFrmValid = false;
-
-			if (!currentFrame2.hasNext())
-				break;
+	/**
+	 * Returns the (clamped) parameter of {@code time} within the {@code segment} of
+	 * the path whose {@code count} keyFrame times are stored at {@code times[start]}.
+	 * Clamping keeps the path from being extrapolated outside its keyFrame times.
+	 */
+	protected static float alpha(float[] times, int start, int count, int segment, float time) {
+		float t1 = times[start + segment];
+		float dt = times[start + Math.min(segment + 1, count - 1)] - t1;
+		if (Util.zero(dt))
+			return 0.0f;
+		return Math.max(0, Math.min(1, (time - t1) / dt));
+	}
 
-			currentFrame2.next();
+	/**
+	 * Packs the keyFrame times, the position and magnitude Hermite coefficients of
+	 * each path segment, and the keyFrame orientations (and their tangents) into
+	 * primitive arrays, so that the interpolation only reads them. Called when the
+	 * keyFrames or their tangents change.
+	 */
+	public void updateSplineCache() {
+		int n = keyFrameList.size();
+		if (keyTimes.length != n) {
+			int segments = Math.max(n - 1, 1);
+			keyTimes = new float[n];
+			orientations = new float[4 * n];
+			orientationTangents = new float[4 * n];
+			positionCoefficients = new float[12 * segments];
+			magnitudeCoefficients = new float[12 * segments];
 		}
+		updateSplineCache(0, n - 1);
+	}
 
-		if (!currentFrmValid) {
-			currentFrame1 = keyFrameList.listIterator(currentFrame2.nextIndex());
+	// packs the keyFrames first..last and the segments having (the tangent of) one of them as an end
+	protected void updateSplineCache(int first, int last) {
+		int n = keyFrameList.size();
+		for (int i = first; i <= last; ++i) {
+			AbstractKeyFrame kf = keyFrameList.get(i);
+			keyTimes[i] = kf.time();
+			if (scene.is3D()) {
+				System.arraycopy(((Quat) kf.orientation()).quat, 0, orientations, 4 * i, 4);
+				System.arraycopy(((KeyFrame3D) kf).tgQ().quat, 0, orientationTangents, 4 * i, 4);
+			}
+			else
+				orientations[4 * i] = kf.orientation().angle();
+		}
+		int segments = Math.max(n - 1, 1);
+		for (int s = Math.max(first - 1, 0); s < Math.min(last + 1, segments); ++s) {
+			AbstractKeyFrame kf1 = keyFrameList.get(s);
+			AbstractKeyFrame kf2 = keyFrameList.get(Math.min(s + 1, n - 1));
+			packHermite(kf1.position(), kf1.tgP(), kf2.position(), kf2.tgP(), positionCoefficients, 12 * s);
+			//Option 2 (interpolate scaling using a spline)
+			packHermite(kf1.magnitude(), kf1.tgS(), kf2.magnitude(), kf2.tgS(), magnitudeCoefficients, 12 * s);
+		}
+		++splineStamp;
+	}
 
-			if ((currentFrame1.hasPrevious())
-					&& (time < keyFrameList.get(currentFrame2.nextIndex()).time()))
-				currentFrame1.previous();
+	/**
+	 * Brings the packed spline (see {@link #updateSplineCache()}) up to date, if there
+	 * are keyFrames, and returns its stamp, which is increased every time it is
+	 * rebuilt.
+	 */
+	protected long updatedSplineStamp() {
+		checkValidity();
+		if (!keyFrameList.isEmpty() && !valuesAreValid)
+			updateModifiedFrameValues();
+		return splineStamp;
+	}
 
-			currentFrame0 = keyFrameList.listIterator(currentFrame1.nextIndex());
+	// stores p1, tg1, v1 and v2 (per coordinate) such that the curve is p1 + a * (tg1 + a * (v1 + a * v2))
+	protected static void packHermite(Vec p1, Vec tg1, Vec p2, Vec tg2, float[] coefficients, int offset) {
+		for (int c = 0; c < 3; ++c) {
+			float delta = p2.vec[c] - p1.vec[c];
+			int i = offset + 4 * c;
+			coefficients[i] = p1.vec[c];
+			coefficients[i + 1] = tg1.vec[c];
+			coefficients[i + 2] = 3.0f * delta - 2.0f * tg1.vec[c] - tg2.vec[c];
+			coefficients[i + 3] = -2.0f * delta + tg1.vec[c] + tg2.vec[c];
+		}
+	}
 
-			if (currentFrame0.hasPrevious())
-				currentFrame0.previous();
+	/**
+	 * Computes the cumulative {@link #pathLength()} at {@link #ARC_LENGTH_SAMPLES}
+	 * evenly spaced parameters of each path segment.
+	 */
+	protected void updateArcLengths() {
+		int segments = positionCoefficients.length / 12;
+		int size = segments * ARC_LENGTH_SAMPLES + 1;
+		if (arcLengths.length != size)
+			arcLengths = new float[size];
+		float px = positionCoefficients[0], py = positionCoefficients[4], pz = positionCoefficients[8];
+		float length = 0;
+		for (int k = 1; k < size; ++k) {
+			int s = Math.min((k - 1) / ARC_LENGTH_SAMPLES, segments - 1);
+			float alpha = (k - s * ARC_LENGTH_SAMPLES) / (float) ARC_LENGTH_SAMPLES;
+			float x = hermite(positionCoefficients, 12 * s, alpha);
+			float y = hermite(positionCoefficients, 12 * s + 4, alpha);
+			float z = hermite(positionCoefficients, 12 * s + 8, alpha);
+			length += (float) Math.sqrt((x - px) * (x - px) + (y - py) * (y - py) + (z - pz) * (z - pz));
+			arcLengths[k] = length;
+			px = x;
+			py = y;
+			pz = z;
+		}
+		arcLengthIsValid = true;
+	}
 
-			currentFrame3 = keyFrameList.listIterator(currentFrame2.nextIndex());
+	protected static float hermite(float[] coefficients, int i, float alpha) {
+		return coefficients[i] + alpha * (coefficients[i + 1] + alpha * (coefficients[i + 2] + alpha * coefficients[i + 3]));
+	}
 
-			if (currentFrame3.hasNext())
-				currentFrame3.next();
+	/**
+	 * Evaluates the path at parameter {@code alpha} (in [0..1]) of the segment which
+	 * starts at keyFrame {@code segment}, and stores the interpolated state at
+	 * {@code target[offset]}: the position, the orientation, i.e., the (x, y, z, w)
+	 * quaternion coordinates in 3D or the rotation angle (followed by 3 unused floats)
+	 * in 2D, and the magnitude.
+	 */
+	protected void evaluate(int segment, float alpha, float[] target, int offset) {
+		evaluate(scene.is3D(), positionCoefficients, magnitudeCoefficients, segment, orientations, orientationTangents,
+				segment, Math.min(segment + 1, keyTimes.length - 1), alpha, quatScratch, target, offset);
+	}
 
-			currentFrmValid = true;
-			splineCacheIsValid = false;
+	/**
+	 * Static version of {@link #evaluate(int, float, float[], int)} on packed arrays:
+	 * {@code segment} indexes the Hermite coefficients and {@code key1} and
+	 * {@code key2} the segment keyFrame orientations. {@code scratch} holds at least
+	 * 8 floats.
+	 */
+	protected static void evaluate(boolean threeD, float[] positions, float[] magnitudes, int segment,
+			float[] orientations, float[] tangents, int key1, int key2, float alpha, float[] scratch, float[] target, int offset) {
+		int i = 12 * segment;
+		target[offset] = hermite(positions, i, alpha);
+		target[offset + 1] = hermite(positions, i + 4, alpha);
+		target[offset + 2] = hermite(positions, i + 8, alpha);
+		int q1 = 4 * key1;
+		int q2 = 4 * key2;
+		if (threeD) {
+			// Quat.squad(q1, tg1, tg2, q2, alpha)
+			slerp(orientations, q1, orientations, q2, alpha, true, scratch, 0);
+			slerp(tangents, q1, tangents, q2, alpha, false, scratch, 4);
+			slerp(scratch, 0, scratch, 4, 2.0f * alpha * (1.0f - alpha), false, target, offset + 3);
 		}
+		else
+			target[offset + 3] = orientations[q1] + (orientations[q2] - orientations[q1]) * alpha;
+		//Option 2 (interpolate scaling using a spline)
+		target[offset + 7] = hermite(magnitudes, i, alpha);
+		target[offset + 8] = hermite(magnitudes, i + 4, alpha);
+		target[offset + 9] = hermite(magnitudes, i + 8, alpha);
 	}
 
-	public void updateSplineCache() {		
-		Vec deltaP = Vec.subtract(keyFrameList.get(currentFrame2.nextIndex()).position(), keyFrameList.get(currentFrame1.nextIndex()).position());
-		pv1 = Vec.add(Vec.multiply(deltaP, 3.0f), Vec.multiply(keyFrameList.get(currentFrame1.nextIndex()).tgP(), (-2.0f)));
-		pv1 = Vec.subtract(pv1, keyFrameList.get(currentFrame2.nextIndex()).tgP());
-		pv2 = Vec.add(Vec.multiply(deltaP, (-2.0f)), keyFrameList.get(currentFrame1.nextIndex()).tgP());
-		pv2 = Vec.add(pv2, keyFrameList.get(currentFrame2.nextIndex()).tgP());
-	
-		// /**
-		//Option 2 (interpolate scaling using a spline)
-		Vec deltaS = Vec.subtract(keyFrameList.get(currentFrame2.nextIndex()).magnitude(), keyFrameList.get(currentFrame1.nextIndex()).magnitude());
-		sv1 = Vec.add(Vec.multiply(deltaS, 3.0f), Vec.multiply(keyFrameList.get(currentFrame1.nextIndex()).tgS(), (-2.0f)));
-		sv1 = Vec.subtract(sv1, keyFrameList.get(currentFrame2.nextIndex()).tgS());
-		sv2 = Vec.add(Vec.multiply(deltaS, (-2.0f)), keyFrameList.get(currentFrame1.nextIndex()).tgS());
-		sv2 = Vec.add(sv2, keyFrameList.get(currentFrame2.nextIndex()).tgS());
-		// */
-		
-		splineCacheIsValid = true;
+	/**
+	 * Same as {@link remixlab.dandelion.geom.Quat#slerp(Quat, Quat, float, boolean)},
+	 * but on the (x, y, z, w) quaternions stored at {@code a[i]} and {@code b[j]}.
+	 * The result is stored at {@code target[k]}.
+	 */
+	protected static void slerp(float[] a, int i, float[] b, int j, float t, boolean allowFlip, float[] target, int k) {
+		float cosAngle = a[i] * b[j] + a[i + 1] * b[j + 1] + a[i + 2] * b[j + 2] + a[i + 3] * b[j + 3];
+		float c1, c2;
+		// Linear interpolation for close orientations
+		if ((1.0 - Math.abs(cosAngle)) < 0.01) {
+			c1 = 1.0f - t;
+			c2 = t;
+		} else {
+			// Spherical interpolation
+			float angle = (float) Math.acos(Math.abs(cosAngle));
+			float sinAngle = (float) Math.sin(angle);
+			c1 = (float) Math.sin(angle * (1.0f - t)) / sinAngle;
+			c2 = (float) Math.sin(angle * t) / sinAngle;
+		}
+		// Use the shortest path
+		if (allowFlip && (cosAngle < 0.0))
+			c1 = -c1;
+		for (int c = 0; c < 4; ++c)
+			target[k + c] = c1 * a[i + c] + c2 * b[j + c];
 	}
 
 	/**
@@ -1085,67 +1349,113 @@ public class KeyFrameInterpolator implements Copyable {
 	 * <p>
 	 * If you simply want to change {@link #interpolationTime()} but not the
 	 * {@link #frame()} state, use {@link #setInterpolationTime(float)} instead.
+	 * <p>
+	 * The keyFrames enclosing {@code time} are binary searched, hence seeking costs
+	 * O(log n) whatever the number of keyFrames. See also {@link #isConstantSpeed()}.
+	 * <p>
+	 * The path is not extrapolated: a {@code time} before the {@link #firstTime()}
+	 * (resp. after the {@link #lastTime()}) sets the {@link #frame()} at the first
+	 * (resp. last) keyFrame.
+	 * 
+	 * @see #interpolateAtTime(float, Frame)
 	 */
 	public void interpolateAtTime(float time) {
-		this.checkValidity();
 		setInterpolationTime(time);
+		if (frame() != null)
+			interpolateAtTime(time, frame());
+		else
+			this.checkValidity();
+	}
+
+	/**
+	 * Sets {@code target} at the path state at time {@code time} (expressed in
+	 * seconds), as {@link #interpolateAtTime(float)} does with the {@link #frame()},
+	 * but without modifying the {@link #interpolationTime()}.
+	 * <p>
+	 * The state is evaluated into preallocated scratch objects and, unless
+	 * {@code target} has a {@link remixlab.dandelion.core.Frame#constraint()}, written
+	 * into the {@code target} translation, rotation and scaling in place. Hence,
+	 * once the path values are computed, no object is allocated.
+	 */
+	public void interpolateAtTime(float time, Frame target) {
+		this.checkValidity();
 
-		if ((keyFrameList.isEmpty()) || (frame() == null))
+		if (keyFrameList.isEmpty())
 			return;
 
 		if (!valuesAreValid)
 			updateModifiedFrameValues();
 
-		updateCurrentKeyFrameForTime(time);
+		int segment;
+		float alpha;
+		if (constantSpeed && keyTimes.length > 1) {
+			if (!arcLengthIsValid)
+				updateArcLengths();
+			// find the arc-length sample interval of the fraction of the path length
+			float duration = keyTimes[keyTimes.length - 1] - keyTimes[0];
+			float length = arcLengths[arcLengths.length - 1];
+			float u = Util.zero(duration) ? 0 : (time - keyTimes[0]) / duration;
+			float arc = Math.max(0, Math.min(1, u)) * length;
+			int low = 0, high = arcLengths.length - 1;
+			while (high - low > 1) {
+				int mid = (low + high) >>> 1;
+				if (arcLengths[mid] <= arc)
+					low = mid;
+				else
+					high = mid;
+			}
+			float ds = arcLengths[high] - arcLengths[low];
+			float sample = low + (Util.zero(ds) ? 0 : (arc - arcLengths[low]) / ds);
+			segment = Math.min((int) (sample / ARC_LENGTH_SAMPLES), keyTimes.length - 2);
+			alpha = Math.min(1, sample / ARC_LENGTH_SAMPLES - segment);
+		}
+		else {
+			updateCurrentKeyFrameForTime(time);
+			segment = currentSegment;
+			alpha = alpha(keyTimes, 0, keyTimes.length, segment, time);
+		}
 
-		if (!splineCacheIsValid)
-			updateSplineCache();
+		evaluate(segment, alpha, state, 0);
+		apply(target, scene.is3D(), state, 0, pos, mag, refMag);
+	}
 
-		float alpha;
-		float dt = keyFrameList.get(currentFrame2.nextIndex()).time() - keyFrameList.get(currentFrame1.nextIndex()).time();
-		if (Util.zero(dt))
-			alpha = 0.0f;
-		else
-			alpha = (time - keyFrameList.get(currentFrame1.nextIndex()).time()) / dt;		
-
-		// Linear interpolation - debug
-		// Vec pos = alpha*(currentFrame2->peekNext()->position()) +
-		// (1.0-alpha)*(currentFrame1->peekNext()->position());
-		// Vec pos = currentFrame_[1]->peekNext()->position() + alpha *
-		// (currentFrame_[1]->peekNext()->tgP() + alpha * (v1+alpha*v2));
-		Vec pos = Vec.add(keyFrameList.get(currentFrame1.nextIndex()).position(),
-				                        Vec.multiply(Vec.add(keyFrameList.get(currentFrame1.nextIndex()).tgP(),
-						                    Vec.multiply(Vec.add(pv1, Vec.multiply(pv2, alpha)), alpha)), alpha));
-		
-		/**
-		//Option 1
-		Vector3D mag = magnitudeLerp((keyFr.get(currentFrame1.nextIndex())),
-                                 (keyFr.get(currentFrame2.nextIndex())),
-                                  (alpha));
-		// */
-		
-		// /**
-		//Option 2 (interpolate scaling using a spline)
-		Vec mag = Vec.add(keyFrameList.get(currentFrame1.nextIndex()).magnitude(),
-                                Vec.multiply(Vec.add(keyFrameList.get(currentFrame1.nextIndex()).tgS(),
-                                Vec.multiply(Vec.add(sv1, Vec.multiply(sv2, alpha)), alpha)), alpha));
-    // */		
-
-		Orientable q;
-		if(scene.is3D()) {
-		  q = Quat.squad((Quat)keyFrameList.get(currentFrame1.nextIndex()).orientation(), 
-			                    ((KeyFrame3D)keyFrameList.get(currentFrame1.nextIndex())).tgQ(),
-			                    ((KeyFrame3D)keyFrameList.get(currentFrame2.nextIndex())).tgQ(),
-			                     (Quat)keyFrameList.get(currentFrame2.nextIndex()).orientation(), alpha);
-		} else {
-			q =  new Rot( rotationLerp(keyFrameList.get(currentFrame1.nextIndex()),
-					                                 keyFrameList.get(currentFrame2.nextIndex()),
-					                                 ( alpha)));
+	/**
+	 * Sets the {@link #evaluate(int, float, float[], int)}d state stored at
+	 * {@code state[offset]} into {@code target}, as
+	 * {@link remixlab.dandelion.core.Frame#setPositionWithConstraint(Vec)},
+	 * {@link remixlab.dandelion.core.Frame#setRotationWithConstraint(Orientable)} and
+	 * {@link remixlab.dandelion.core.Frame#setMagnitudeWithConstraint(Vec)} would.
+	 * Without a constraint the target kernel values are overwritten in place. The
+	 * {@code pos}, {@code mag} and {@code refMag} scratch vectors are overwritten.
+	 */
+	protected static void apply(Frame target, boolean threeD, float[] state, int offset, Vec pos, Vec mag, Vec refMag) {
+		pos.set(state[offset], state[offset + 1], state[offset + 2]);
+		mag.set(state[offset + 7], state[offset + 8], state[offset + 9]);
+		if (target.constraint() != null || Util.zero(mag.x()) || Util.zero(mag.y()) || Util.zero(mag.z())) {
+			target.setPositionWithConstraint(pos);
+			if (threeD)
+				target.setRotationWithConstraint(new Quat(state[offset + 3], state[offset + 4], state[offset + 5], state[offset + 6], false));
+			else
+				target.setRotationWithConstraint(new Rot(state[offset + 3]));
+			target.setMagnitudeWithConstraint(mag);
+			return;
 		}
-		
-		frame().setPositionWithConstraint(pos);
-		frame().setRotationWithConstraint(q);
-		frame().setMagnitudeWithConstraint(mag);
+		Frame ref = target.referenceFrame();
+		if (ref != null) {
+			ref.coordinatesOf(pos, pos);
+			mag.divide(ref.magnitude(refMag));
+		}
+		Frame.AbstractFrameKernel kernel = target.kernel();
+		kernel.translation().set(pos);
+		kernel.scaling().set(mag);
+		if (threeD) {
+			Quat q = (Quat) kernel.rotation();
+			System.arraycopy(state, offset + 3, q.quat, 0, 4);
+			q.normalize(); // Prevents numerical drift
+		}
+		else
+			((Rot) kernel.rotation()).setAngle(state[offset + 3]);
+		kernel.modified();
 	}
 	
 	protected float rotationLerp(AbstractKeyFrame kf1, AbstractKeyFrame kf2, float alpha) {
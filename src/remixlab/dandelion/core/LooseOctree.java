@@ -0,0 +1,504 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import java.util.*;
+
+import remixlab.dandelion.geom.*;
+
+/**
+ * A loose octree spatial index of bounding balls.
+ * <p>
+ * Objects are registered either with a world bounding ball (see
+ * {@link #add(Object, Vec, float)}) or attached to a Frame (see
+ * {@link #add(Object, Frame, float)}), e.g., {@code octree.add(iFrame, iFrame, radius)}
+ * for an {@link remixlab.dandelion.core.InteractiveFrame}. The bounds of the latter
+ * are incrementally refreshed by {@link #update()}, which only relocates the
+ * objects whose Frame world transformation changed since the previous call (see
+ * {@link remixlab.dandelion.core.Frame#worldStamp()}).
+ * <p>
+ * The index may be queried against the eye boundary equations (see
+ * {@link #queryBoundary(Eye, List)}), a ball (see {@link #queryBall(Vec, float, List)}),
+ * an axis aligned box (see {@link #queryBox(Vec, Vec, List)}) and a ray (see
+ * {@link #queryRay(Vec, Vec, List)}).
+ * <p>
+ * Each octree cell holds the objects whose center lies within it and whose radius
+ * is not greater than half the cell size, so that they fit the cell loose bounds
+ * (twice the cell size). Objects lying outside the {@link #center()} /
+ * {@link #size()} cube are kept at the root.
+ * <p>
+ * Registered objects are compared by identity (not with {@code equals()}, which
+ * e.g., Frames implement by comparing their mutable transformations).
+ */
+public class LooseOctree<T> {
+	protected static class Entry {
+		Object object;
+		Frame frame;
+		float localRadius;
+		long stamp;
+		// world bounding ball
+		float x, y, z, r;
+		Node node;
+		// ray query distance
+		float t;
+	}
+
+	protected static class Node {
+		// cell center and half size
+		float cx, cy, cz, h;
+		int depth;
+		Node parent;
+		Node[] children;
+		ArrayList<Entry> entries = new ArrayList<Entry>();
+		// number of entries in the subtree
+		int count;
+	}
+
+	protected Node root;
+	protected int maxDepth;
+	protected IdentityHashMap<T, Entry> entries = new IdentityHashMap<T, Entry>();
+	protected ArrayList<Entry> frameEntries = new ArrayList<Entry>();
+	protected float[] planes = new float[24];
+	protected Vec tmp = new Vec();
+
+	/**
+	 * Same as {@code this(new Vec(0, 0, 0), 1000, 8)}.
+	 */
+	public LooseOctree() {
+		this(new Vec(0, 0, 0), 1000, 8);
+	}
+
+	/**
+	 * Defines an octree covering the cube of given {@code center} and {@code size}
+	 * (edge length), with at most {@code depth} levels of subdivision.
+	 */
+	public LooseOctree(Vec center, float size, int depth) {
+		root = new Node();
+		root.cx = center.x();
+		root.cy = center.y();
+		root.cz = center.z();
+		root.h = size / 2;
+		maxDepth = Math.max(0, depth);
+	}
+
+	/**
+	 * Returns the center of the cube covered by the octree.
+	 */
+	public Vec center() {
+		return new Vec(root.cx, root.cy, root.cz);
+	}
+
+	/**
+	 * Returns the edge length of the cube covered by the octree.
+	 */
+	public float size() {
+		return 2 * root.h;
+	}
+
+	/**
+	 * Returns the number of registered objects.
+	 */
+	public int count() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns {@code true} if {@code object} is registered in the octree.
+	 */
+	public boolean contains(T object) {
+		return entries.containsKey(object);
+	}
+
+	/**
+	 * Removes all the registered objects.
+	 */
+	public void clear() {
+		root.children = null;
+		root.entries.clear();
+		root.count = 0;
+		entries.clear();
+		frameEntries.clear();
+	}
+
+	/**
+	 * Registers {@code object} with the world bounding ball of center {@code center}
+	 * and radius {@code radius}. If {@code object} was already registered its bounds
+	 * are updated (and it gets detached from its Frame, if any).
+	 */
+	public void add(T object, Vec center, float radius) {
+		Entry e = entry(object);
+		if (e.frame != null) {
+			e.frame = null;
+			frameEntries.remove(e);
+		}
+		place(e, center.x(), center.y(), center.z(), radius);
+	}
+
+	/**
+	 * Registers {@code object} with a bounding ball centered at the {@code frame}
+	 * origin and of radius {@code radius}, defined in the {@code frame} coordinate
+	 * system (i.e., its world radius is bounded by the {@code frame} world scaling, see
+	 * {@link #maxScaling(Frame)}).
+	 *
+	 * @see #update()
+	 */
+	public void add(T object, Frame frame, float radius) {
+		Entry e = entry(object);
+		if (e.frame == null)
+			frameEntries.add(e);
+		e.frame = frame;
+		e.localRadius = radius;
+		refresh(e);
+	}
+
+	/**
+	 * Same as {@link #add(Object, Vec, float)}.
+	 */
+	public void update(T object, Vec center, float radius) {
+		add(object, center, radius);
+	}
+
+	/**
+	 * Refreshes the bounds of the objects attached to a Frame whose world
+	 * transformation changed since the last call. Call it once per frame, before
+	 * querying the octree.
+	 */
+	public void update() {
+		for (int i = 0; i < frameEntries.size(); ++i) {
+			Entry e = frameEntries.get(i);
+			if (e.frame.worldStamp() != e.stamp)
+				refresh(e);
+		}
+	}
+
+	/**
+	 * Removes {@code object} from the octree. Returns {@code true} if it was
+	 * registered.
+	 */
+	public boolean remove(T object) {
+		Entry e = entries.remove(object);
+		if (e == null)
+			return false;
+		if (e.frame != null)
+			frameEntries.remove(e);
+		unlink(e);
+		return true;
+	}
+
+	/**
+	 * Convenience function that simply returns {@code queryBoundary(eye.getBoundaryEquations(),
+	 * result)}.
+	 */
+	public List<T> queryBoundary(Eye eye, List<T> result) {
+		return queryBoundary(eye.getBoundaryEquations(), result);
+	}
+
+	/**
+	 * Appends the objects which are visible or semi-visible according to the eye
+	 * boundary {@code equations} (see
+	 * {@link remixlab.dandelion.core.Eye#getBoundaryEquations()}) to {@code result}
+	 * (which is allocated if {@code null}) and returns it.
+	 */
+	public List<T> queryBoundary(float[][] equations, List<T> result) {
+		if (result == null)
+			result = new ArrayList<T>();
+		int n = FrustumCuller.planes(equations, planes);
+		queryBoundary(root, n, result);
+		return result;
+	}
+
+	/**
+	 * Appends the objects whose bounding ball intersects the ball of center
+	 * {@code center} and radius {@code radius} to {@code result} (which is allocated
+	 * if {@code null}) and returns it.
+	 */
+	public List<T> queryBall(Vec center, float radius, List<T> result) {
+		if (result == null)
+			result = new ArrayList<T>();
+		queryBall(root, center.x(), center.y(), center.z(), radius, result);
+		return result;
+	}
+
+	/**
+	 * Appends the objects whose bounding ball intersects the axis aligned box defined
+	 * by corners {@code p1} and {@code p2} to {@code result} (which is allocated if
+	 * {@code null}) and returns it.
+	 */
+	public List<T> queryBox(Vec p1, Vec p2, List<T> result) {
+		if (result == null)
+			result = new ArrayList<T>();
+		queryBox(root, Math.min(p1.x(), p2.x()), Math.min(p1.y(), p2.y()), Math.min(p1.z(), p2.z()),
+				Math.max(p1.x(), p2.x()), Math.max(p1.y(), p2.y()), Math.max(p1.z(), p2.z()), result);
+		return result;
+	}
+
+	/**
+	 * Appends the objects whose bounding ball is hit by the ray starting at
+	 * {@code origin} with direction {@code direction} to {@code result} (which is
+	 * allocated if {@code null}) and returns it. Objects are sorted by distance to
+	 * the ray {@code origin}, nearest first.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<T> queryRay(Vec origin, Vec direction, List<T> result) {
+		if (result == null)
+			result = new ArrayList<T>();
+		for (Entry e : rayHits(origin, direction))
+			result.add((T) e.object);
+		return result;
+	}
+
+	/**
+	 * Returns the entries hit by the ray, sorted by their {@code t} distance to the
+	 * ray {@code origin} (measured along the normalized {@code direction}).
+	 */
+	protected List<Entry> rayHits(Vec origin, Vec direction) {
+		ArrayList<Entry> hits = new ArrayList<Entry>();
+		float l = direction.magnitude();
+		if (l == 0)
+			return hits;
+		queryRay(root, origin.x(), origin.y(), origin.z(), direction.x() / l, direction.y() / l, direction.z() / l, hits);
+		Collections.sort(hits, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry a, Entry b) {
+				return Float.compare(a.t, b.t);
+			}
+		});
+		return hits;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void queryBoundary(Node node, int planeCount, List<T> result) {
+		if (node.count == 0)
+			return;
+		// the root holds the objects lying outside the octree cube
+		if (node != root)
+			for (int i = 0; i < planeCount; ++i) {
+				float nx = planes[4 * i], ny = planes[4 * i + 1], nz = planes[4 * i + 2];
+				float s = nx * node.cx + ny * node.cy + nz * node.cz + planes[4 * i + 3];
+				if (s > 2 * node.h * (Math.abs(nx) + Math.abs(ny) + Math.abs(nz)))
+					return;
+			}
+		for (int j = 0; j < node.entries.size(); ++j) {
+			Entry e = node.entries.get(j);
+			boolean in = true;
+			for (int i = 0; i < planeCount && in; ++i)
+				in = planes[4 * i] * e.x + planes[4 * i + 1] * e.y + planes[4 * i + 2] * e.z + planes[4 * i + 3] <= e.r;
+			if (in)
+				result.add((T) e.object);
+		}
+		if (node.children != null)
+			for (Node child : node.children)
+				if (child != null)
+					queryBoundary(child, planeCount, result);
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void queryBall(Node node, float x, float y, float z, float r, List<T> result) {
+		if (node.count == 0)
+			return;
+		if (node != root && boxDistance(node, x, y, z) > r * r)
+			return;
+		for (int j = 0; j < node.entries.size(); ++j) {
+			Entry e = node.entries.get(j);
+			float dx = e.x - x, dy = e.y - y, dz = e.z - z, s = e.r + r;
+			if (dx * dx + dy * dy + dz * dz <= s * s)
+				result.add((T) e.object);
+		}
+		if (node.children != null)
+			for (Node child : node.children)
+				if (child != null)
+					queryBall(child, x, y, z, r, result);
+	}
+
+	@SuppressWarnings("unchecked")
+	protected void queryBox(Node node, float minX, float minY, float minZ, float maxX, float maxY, float maxZ,
+			List<T> result) {
+		if (node.count == 0)
+			return;
+		if (node != root) {
+			float l = 2 * node.h;
+			if (node.cx - l > maxX || node.cx + l < minX || node.cy - l > maxY || node.cy + l < minY || node.cz - l > maxZ
+					|| node.cz + l < minZ)
+				return;
+		}
+		for (int j = 0; j < node.entries.size(); ++j) {
+			Entry e = node.entries.get(j);
+			float dx = Math.max(0, Math.max(minX - e.x, e.x - maxX));
+			float dy = Math.max(0, Math.max(minY - e.y, e.y - maxY));
+			float dz = Math.max(0, Math.max(minZ - e.z, e.z - maxZ));
+			if (dx * dx + dy * dy + dz * dz <= e.r * e.r)
+				result.add((T) e.object);
+		}
+		if (node.children != null)
+			for (Node child : node.children)
+				if (child != null)
+					queryBox(child, minX, minY, minZ, maxX, maxY, maxZ, result);
+	}
+
+	protected void queryRay(Node node, float ox, float oy, float oz, float dx, float dy, float dz, List<Entry> hits) {
+		if (node.count == 0)
+			return;
+		if (node != root && !rayHitsBox(node, ox, oy, oz, dx, dy, dz))
+			return;
+		for (int j = 0; j < node.entries.size(); ++j) {
+			Entry e = node.entries.get(j);
+			// ray - ball intersection, with a unit direction
+			float px = e.x - ox, py = e.y - oy, pz = e.z - oz;
+			float b = px * dx + py * dy + pz * dz;
+			float c = px * px + py * py + pz * pz - e.r * e.r;
+			float disc = b * b - c;
+			if (disc < 0)
+				continue;
+			float sq = (float) Math.sqrt(disc);
+			float t = b - sq;
+			if (t < 0)
+				t = b + sq;
+			if (t < 0)
+				continue;
+			// inside the ball: distance is 0
+			e.t = c <= 0 ? 0 : t;
+			hits.add(e);
+		}
+		if (node.children != null)
+			for (Node child : node.children)
+				if (child != null)
+					queryRay(child, ox, oy, oz, dx, dy, dz, hits);
+	}
+
+	// squared distance from a point to the node loose bounds
+	protected static float boxDistance(Node node, float x, float y, float z) {
+		float l = 2 * node.h;
+		float dx = Math.max(0, Math.abs(x - node.cx) - l);
+		float dy = Math.max(0, Math.abs(y - node.cy) - l);
+		float dz = Math.max(0, Math.abs(z - node.cz) - l);
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	// slab test of the ray against the node loose bounds
+	protected static boolean rayHitsBox(Node node, float ox, float oy, float oz, float dx, float dy, float dz) {
+		float l = 2 * node.h;
+		float tMin = 0, tMax = Float.MAX_VALUE;
+		float[] o = { ox - node.cx, oy - node.cy, oz - node.cz };
+		float[] d = { dx, dy, dz };
+		for (int i = 0; i < 3; ++i) {
+			if (d[i] == 0) {
+				if (Math.abs(o[i]) > l)
+					return false;
+				continue;
+			}
+			float t1 = (-l - o[i]) / d[i], t2 = (l - o[i]) / d[i];
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax)
+				return false;
+		}
+		return true;
+	}
+
+	protected Entry entry(T object) {
+		Entry e = entries.get(object);
+		if (e == null) {
+			e = new Entry();
+			e.object = object;
+			entries.put(object, e);
+		}
+		return e;
+	}
+
+	protected void refresh(Entry e) {
+		e.stamp = e.frame.worldStamp();
+		e.frame.position(tmp);
+		float x = tmp.x(), y = tmp.y(), z = tmp.z();
+		place(e, x, y, z, e.localRadius * maxScaling(e.frame));
+	}
+
+	/**
+	 * Returns an upper bound of the factor by which {@code frame} scales lengths in the
+	 * world: the product of the largest (absolute) scaling of each level of the
+	 * {@link remixlab.dandelion.core.Frame#referenceFrame()} chain. Differently from the
+	 * largest world {@link remixlab.dandelion.core.Frame#magnitude()} component, it
+	 * remains an upper bound when non-uniformly scaled ancestors are rotated.
+	 */
+	protected static float maxScaling(Frame frame) {
+		float s = 1;
+		for (Frame f = frame; f != null; f = f.referenceFrame()) {
+			Vec scl = f.scaling();
+			float m = Math.max(Math.abs(scl.x()), Math.abs(scl.y()));
+			if (scl.z() != 0)
+				m = Math.max(m, Math.abs(scl.z()));
+			s *= m;
+		}
+		return s;
+	}
+
+	protected void place(Entry e, float x, float y, float z, float r) {
+		e.x = x;
+		e.y = y;
+		e.z = z;
+		e.r = r;
+		// stay in the current cell if it is where the ball belongs
+		if (e.node != null && belongs(e.node, x, y, z, r))
+			return;
+		unlink(e);
+		Node node = root;
+		if (fits(root, x, y, z, r))
+			while (node.depth < maxDepth && node.h / 2 >= r) {
+				int i = (x >= node.cx ? 1 : 0) | (y >= node.cy ? 2 : 0) | (z >= node.cz ? 4 : 0);
+				if (node.children == null)
+					node.children = new Node[8];
+				Node child = node.children[i];
+				if (child == null) {
+					child = new Node();
+					child.h = node.h / 2;
+					child.cx = node.cx + ((i & 1) != 0 ? child.h : -child.h);
+					child.cy = node.cy + ((i & 2) != 0 ? child.h : -child.h);
+					child.cz = node.cz + ((i & 4) != 0 ? child.h : -child.h);
+					child.depth = node.depth + 1;
+					child.parent = node;
+					node.children[i] = child;
+				}
+				node = child;
+			}
+		e.node = node;
+		node.entries.add(e);
+		for (; node != null; node = node.parent)
+			++node.count;
+	}
+
+	protected boolean fits(Node node, float x, float y, float z, float r) {
+		return r <= node.h && Math.abs(x - node.cx) <= node.h && Math.abs(y - node.cy) <= node.h
+				&& Math.abs(z - node.cz) <= node.h;
+	}
+
+	// true if the ball would be placed into node
+	protected boolean belongs(Node node, float x, float y, float z, float r) {
+		if (!fits(node, x, y, z, r))
+			return node == root;
+		return node.depth == maxDepth || node.h / 2 < r;
+	}
+
+	protected void unlink(Entry e) {
+		Node node = e.node;
+		if (node == null)
+			return;
+		node.entries.remove(e);
+		e.node = null;
+		for (Node n = node; n != null; n = n.parent)
+			--n.count;
+		// prune the emptied cells
+		while (node != root && node.count == 0) {
+			Node[] siblings = node.parent.children;
+			for (int i = 0; i < 8; ++i)
+				if (siblings[i] == node)
+					siblings[i] = null;
+			node = node.parent;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * dandelion (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.dandelion.core;
+
+import java.util.*;
+
+import remixlab.dandelion.geom.*;
+
+/**
+ * CPU ray-cast picking.
+ * <p>
+ * An alternative to reading back the depth buffer to find the
+ * {@link remixlab.dandelion.core.Camera#pointUnderPixel(Point)}: the ray defined by
+ * {@link remixlab.dandelion.core.Camera#convertClickToLine(Point, Vec, Vec)} is
+ * intersected with the registered bounding balls (see
+ * {@link #addBall(Object, Vec, float)}) and triangle soups (see
+ * {@link #addMesh(Object, Frame, float[])}), which are kept in a
+ * {@link remixlab.dandelion.core.LooseOctree}. Each triangle soup holds its own
+ * bounding volume hierarchy.
+ * <p>
+ * Install it with {@link remixlab.dandelion.core.Camera#setRayPicker(RayPicker)}
+ * so that {@link remixlab.dandelion.core.Camera#setArcballReferencePointFromPixel(Point)},
+ * {@link remixlab.dandelion.core.Camera#interpolateToZoomOnPixel(Point)} and the
+ * like use it.
+ * <p>
+ * Call {@link #update()} before picking when Frame attached objects may have moved.
+ */
+public class RayPicker {
+	protected static class Mesh {
+		Frame frame;
+		float[] triangles;
+		// triangle indices, sorted by hierarchy leaves
+		int[] index;
+		// per node: min xyz, max xyz
+		float[] bounds;
+		// per node: first triangle and triangle count (leaves), or left child and -1
+		// (inner nodes)
+		int[] start, count;
+		int nodes;
+	}
+
+	// triangles per bounding volume hierarchy leaf
+	protected static final int LEAF_SIZE = 4;
+
+	protected LooseOctree<Object> octree;
+	protected IdentityHashMap<Object, Mesh> meshes = new IdentityHashMap<Object, Mesh>();
+	protected Object picked;
+
+	/**
+	 * Same as {@code this(new LooseOctree<Object>())}.
+	 */
+	public RayPicker() {
+		this(new LooseOctree<Object>());
+	}
+
+	/**
+	 * Defines a RayPicker which keeps its objects in {@code index}. See
+	 * {@link remixlab.dandelion.core.LooseOctree#LooseOctree(Vec, float, int)}.
+	 */
+	public RayPicker(LooseOctree<Object> index) {
+		octree = index;
+	}
+
+	/**
+	 * Returns the {@link remixlab.dandelion.core.LooseOctree} holding the pickable
+	 * objects.
+	 */
+	public LooseOctree<Object> index() {
+		return octree;
+	}
+
+	/**
+	 * Registers {@code object} as a pickable ball of world center {@code center}
+	 * and radius {@code radius}.
+	 */
+	public void addBall(Object object, Vec center, float radius) {
+		meshes.remove(object);
+		octree.add(object, center, radius);
+	}
+
+	/**
+	 * Registers {@code object} as a pickable ball centered at the {@code frame}
+	 * origin and of radius {@code radius} (defined in {@code frame} coordinates).
+	 */
+	public void addBall(Object object, Frame frame, float radius) {
+		meshes.remove(object);
+		octree.add(object, frame, radius);
+	}
+
+	/**
+	 * Registers {@code object} as a pickable triangle soup. {@code triangles} holds
+	 * the {@code x1,y1,z1,x2,y2,z2,x3,y3,z3} vertices of each triangle, defined in
+	 * the {@code frame} coordinate system (or in the world coordinate system when
+	 * {@code frame} is {@code null}).
+	 * <p>
+	 * The triangle bounding volume hierarchy is built once, so {@code triangles}
+	 * should not be modified afterwards (register it again if it is).
+	 */
+	public void addMesh(Object object, Frame frame, float[] triangles) {
+		if (triangles.length < 9) {
+			System.out.println("Warning: RayPicker.addMesh requires at least one triangle. Nothing done");
+			return;
+		}
+		Mesh mesh = build(triangles);
+		mesh.frame = frame;
+		meshes.put(object, mesh);
+		float[] b = mesh.bounds;
+		float cx = (b[0] + b[3]) / 2, cy = (b[1] + b[4]) / 2, cz = (b[2] + b[5]) / 2;
+		float r = (float) Math.sqrt((b[3] - cx) * (b[3] - cx) + (b[4] - cy) * (b[4] - cy) + (b[5] - cz) * (b[5] - cz));
+		if (frame == null)
+			octree.add(object, new Vec(cx, cy, cz), r);
+		else
+			// the octree ball is centered at the frame origin
+			octree.add(object, frame, r + (float) Math.sqrt(cx * cx + cy * cy + cz * cz));
+	}
+
+	/**
+	 * Removes {@code object} from the RayPicker. Returns {@code true} if it was
+	 * registered.
+	 */
+	public boolean remove(Object object) {
+		meshes.remove(object);
+		return octree.remove(object);
+	}
+
+	/**
+	 * Refreshes the bounds of the Frame attached objects. See
+	 * {@link remixlab.dandelion.core.LooseOctree#update()}.
+	 */
+	public void update() {
+		octree.update();
+	}
+
+	/**
+	 * Returns the object hit by the last {@link #pick(Camera, Point)} or
+	 * {@link #intersect(Vec, Vec, Vec)}, or {@code null} if none was hit.
+	 */
+	public Object pickedObject() {
+		return picked;
+	}
+
+	/**
+	 * Returns the world coordinates of the nearest registered surface located at
+	 * {@code pixel} (x,y) on screen, i.e., the same contract as
+	 * {@link remixlab.dandelion.core.Camera#pointUnderPixel(Point)}.
+	 */
+	public Camera.WorldPoint pick(Camera camera, Point pixel) {
+		Vec orig = new Vec();
+		Vec dir = new Vec();
+		camera.convertClickToLine(pixel, orig, dir);
+		Vec point = new Vec();
+		boolean found = intersect(orig, dir, point);
+		return camera.new WorldPoint(point, found);
+	}
+
+	/**
+	 * Intersects the ray starting at {@code origin} with direction {@code direction}
+	 * with the registered objects. Returns {@code true} if an object was hit, in
+	 * which case the nearest hit point is stored in {@code target}.
+	 */
+	public boolean intersect(Vec origin, Vec direction, Vec target) {
+		picked = null;
+		float l = direction.magnitude();
+		if (l == 0)
+			return false;
+		Vec dir = new Vec(direction.x() / l, direction.y() / l, direction.z() / l);
+		Vec localOrig = new Vec();
+		Vec localDir = new Vec();
+		float best = Float.MAX_VALUE;
+		for (LooseOctree.Entry e : octree.rayHits(origin, dir)) {
+			// candidates are sorted by their bounding ball distance
+			if (e.t >= best)
+				break;
+			float t;
+			Mesh mesh = meshes.get(e.object);
+			if (mesh == null)
+				t = ballHit(e, origin, dir);
+			else if (mesh.frame == null)
+				t = intersect(mesh, origin.x(), origin.y(), origin.z(), dir.x(), dir.y(), dir.z(), best);
+			else {
+				// parametric distances are preserved by the (affine) world to frame map
+				mesh.frame.coordinatesOf(origin, localOrig);
+				mesh.frame.transformOf(dir, localDir);
+				t = intersect(mesh, localOrig.x(), localOrig.y(), localOrig.z(), localDir.x(), localDir.y(), localDir.z(),
+						best);
+			}
+			if (t >= 0 && t < best) {
+				best = t;
+				picked = e.object;
+			}
+		}
+		if (picked == null)
+			return false;
+		target.set(origin.x() + best * dir.x(), origin.y() + best * dir.y(), origin.z() + best * dir.z());
+		return true;
+	}
+
+	// ball surface hit along the (normalized) ray
+	protected static float ballHit(LooseOctree.Entry e, Vec o, Vec d) {
+		float px = e.x - o.x(), py = e.y - o.y(), pz = e.z - o.z();
+		float b = px * d.x() + py * d.y() + pz * d.z();
+		float disc = b * b - (px * px + py * py + pz * pz - e.r * e.r);
+		if (disc < 0)
+			return -1;
+		float sq = (float) Math.sqrt(disc);
+		return b - sq >= 0 ? b - sq : b + sq;
+	}
+
+	/**
+	 * Returns the nearest ray parameter, smaller than {@code tMax}, at which the ray
+	 * hits a {@code mesh} triangle, or -1 if there's none.
+	 */
+	protected static float intersect(Mesh mesh, float ox, float oy, float oz, float dx, float dy, float dz, float tMax) {
+		float best = -1;
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			if (!rayHitsBox(mesh.bounds, 6 * node, ox, oy, oz, dx, dy, dz, tMax))
+				continue;
+			if (mesh.count[node] >= 0) {
+				for (int i = mesh.start[node]; i < mesh.start[node] + mesh.count[node]; ++i) {
+					float t = triangleHit(mesh.triangles, 9 * mesh.index[i], ox, oy, oz, dx, dy, dz);
+					if (t >= 0 && t < tMax) {
+						tMax = t;
+						best = t;
+					}
+				}
+			}
+			else {
+				stack[top++] = mesh.start[node];
+				stack[top++] = mesh.start[node] + 1;
+			}
+		}
+		return best;
+	}
+
+	// Moller-Trumbore, double sided
+	protected static float triangleHit(float[] v, int i, float ox, float oy, float oz, float dx, float dy, float dz) {
+		float e1x = v[i + 3] - v[i], e1y = v[i + 4] - v[i + 1], e1z = v[i + 5] - v[i + 2];
+		float e2x = v[i + 6] - v[i], e2y = v[i + 7] - v[i + 1], e2z = v[i + 8] - v[i + 2];
+		float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+		float det = e1x * px + e1y * py + e1z * pz;
+		if (Math.abs(det) < 1e-12f)
+			return -1;
+		float inv = 1 / det;
+		float sx = ox - v[i], sy = oy - v[i + 1], sz = oz - v[i + 2];
+		float u = (sx * px + sy * py + sz * pz) * inv;
+		if (u < 0 || u > 1)
+			return -1;
+		float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+		float w = (dx * qx + dy * qy + dz * qz) * inv;
+		if (w < 0 || u + w > 1)
+			return -1;
+		float t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+		return t >= 0 ? t : -1;
+	}
+
+	protected static boolean rayHitsBox(float[] b, int o, float ox, float oy, float oz, float dx, float dy, float dz,
+			float tMax) {
+		float tMin = 0;
+		float[] orig = { ox, oy, oz };
+		float[] dir = { dx, dy, dz };
+		for (int i = 0; i < 3; ++i) {
+			if (dir[i] == 0) {
+				if (orig[i] < b[o + i] || orig[i] > b[o + 3 + i])
+					return false;
+				continue;
+			}
+			float t1 = (b[o + i] - orig[i]) / dir[i], t2 = (b[o + 3 + i] - orig[i]) / dir[i];
+			tMin = Math.max(tMin, Math.min(t1, t2));
+			tMax = Math.min(tMax, Math.max(t1, t2));
+			if (tMin > tMax)
+				return false;
+		}
+		return true;
+	}
+
+	protected static Mesh build(float[] triangles) {
+		Mesh mesh = new Mesh();
+		mesh.triangles = triangles;
+		int n = triangles.length / 9;
+		mesh.index = new int[n];
+		for (int i = 0; i < n; ++i)
+			mesh.index[i] = i;
+		int maxNodes = Math.max(1, 2 * n);
+		mesh.bounds = new float[6 * maxNodes];
+		mesh.start = new int[maxNodes];
+		mesh.count = new int[maxNodes];
+		mesh.nodes = 1;
+		build(mesh, 0, 0, n, 0);
+		return mesh;
+	}
+
+	protected static void build(Mesh mesh, int node, int first, int n, int depth) {
+		float[] b = mesh.bounds;
+		int o = 6 * node;
+		b[o] = b[o + 1] = b[o + 2] = Float.MAX_VALUE;
+		b[o + 3] = b[o + 4] = b[o + 5] = -Float.MAX_VALUE;
+		// centroid bounds
+		float[] c = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE,
+				-Float.MAX_VALUE };
+		for (int i = first; i < first + n; ++i) {
+			int t = 9 * mesh.index[i];
+			for (int k = 0; k < 3; ++k) {
+				float s = 0;
+				for (int v = 0; v < 3; ++v) {
+					float x = mesh.triangles[t + 3 * v + k];
+					b[o + k] = Math.min(b[o + k], x);
+					b[o + 3 + k] = Math.max(b[o + 3 + k], x);
+					s += x;
+				}
+				c[k] = Math.min(c[k], s / 3);
+				c[3 + k] = Math.max(c[3 + k], s / 3);
+			}
+		}
+		// the stack of intersect() bounds the depth
+		if (n <= LEAF_SIZE || depth >= 30) {
+			mesh.start[node] = first;
+			mesh.count[node] = n;
+			return;
+		}
+		int axis = 0;
+		for (int k = 1; k < 3; ++k)
+			if (c[3 + k] - c[k] > c[3 + axis] - c[axis])
+				axis = k;
+		// split at the centroid bounds middle, or at the median if degenerated
+		float split = (c[axis] + c[3 + axis]) / 2;
+		int mid = first;
+		for (int i = first; i < first + n; ++i) {
+			int t = 9 * mesh.index[i];
+			float s = (mesh.triangles[t + axis] + mesh.triangles[t + 3 + axis] + mesh.triangles[t + 6 + axis]) / 3;
+			if (s < split) {
+				int tmp = mesh.index[i];
+				mesh.index[i] = mesh.index[mid];
+				mesh.index[mid++] = tmp;
+			}
+		}
+		if (mid == first || mid == first + n)
+			mid = first + n / 2;
+		int left = mesh.nodes;
+		mesh.nodes += 2;
+		mesh.start[node] = left;
+		mesh.count[node] = -1;
+		build(mesh, left, first, mid - first, depth + 1);
+		build(mesh, left + 1, mid, first + n - mid, depth + 1);
+	}
+}
@@ -19,7 +19,9 @@ public interface Orientable extends Copyable {
 	public void compose(Orientable o);
 	public Orientable inverse();
 	public Vec rotate(Vec v);
+	public Vec rotate(Vec v, Vec target);
 	public Vec inverseRotate(Vec v);
+	public Vec inverseRotate(Vec v, Vec target);
 	public Mat matrix();
 	public Mat inverseMatrix();
 	public void fromMatrix(Mat glMatrix);
@@ -561,23 +561,22 @@ public class Quat implements Constants, Primitivable, Orientable {
 	 */
 	@Override
 	public final Vec rotate(Vec v) {
-		float q00 = 2.0f * this.quat[0] * this.quat[0];
-		float q11 = 2.0f * this.quat[1] * this.quat[1];
-		float q22 = 2.0f * this.quat[2] * this.quat[2];
-
-		float q01 = 2.0f * this.quat[0] * this.quat[1];
-		float q02 = 2.0f * this.quat[0] * this.quat[2];
-		float q03 = 2.0f * this.quat[0] * this.quat[3];
-
-		float q12 = 2.0f * this.quat[1] * this.quat[2];
-		float q13 = 2.0f * this.quat[1] * this.quat[3];
-
-		float q23 = 2.0f * this.quat[2] * this.quat[3];
+		return rotate(v, null);
+	}
 
-		return new Vec((1.0f - q11 - q22) * v.vec[0] + (q01 - q23) * v.vec[1]
-				+ (q02 + q13) * v.vec[2], (q01 + q23) * v.vec[0] + (1.0f - q22 - q00) * v.vec[1]
-				+ (q12 - q03) * v.vec[2], (q02 - q13) * v.vec[0] + (q12 + q03) * v.vec[1]
-				+ (1.0f - q11 - q00) * v.vec[2]);
+	/**
+	 * Rotates {@code v} by this Quaternion and stores the result in {@code target}
+	 * (which may be {@code v} itself). If {@code target} is null, a new vector is
+	 * created.
+	 * 
+	 * @param v
+	 *          the Vector3D
+	 * @param target
+	 *          the Vector3D to store the result
+	 */
+	@Override
+	public final Vec rotate(Vec v, Vec target) {
+		return rotate(this.quat[0], this.quat[1], this.quat[2], this.quat[3], v, target);
 	}
 
 	/**
@@ -591,9 +590,46 @@ public class Quat implements Constants, Primitivable, Orientable {
 	 */
 	@Override
 	public final Vec inverseRotate(Vec v) {
-		Quat tempQuat = new Quat(this.quat[0], this.quat[1], this.quat[2], this.quat[3]);
-		tempQuat.invert();
-		return tempQuat.rotate(v);
+		return inverseRotate(v, null);
+	}
+
+	/**
+	 * Rotates {@code v} by the Quaternion {@link #inverse()} and stores the result
+	 * in {@code target} (which may be {@code v} itself). If {@code target} is null, a
+	 * new vector is created.
+	 * 
+	 * @param v
+	 *          the Vector3D
+	 * @param target
+	 *          the Vector3D to store the result
+	 */
+	@Override
+	public final Vec inverseRotate(Vec v, Vec target) {
+		float sqNorm = squaredNorm(this);
+		return rotate(this.quat[0] / -sqNorm, this.quat[1] / -sqNorm, this.quat[2] / -sqNorm, this.quat[3] / sqNorm, v, target);
+	}
+
+	protected static final Vec rotate(float x, float y, float z, float w, Vec v, Vec target) {
+		float q00 = 2.0f * x * x;
+		float q11 = 2.0f * y * y;
+		float q22 = 2.0f * z * z;
+
+		float q01 = 2.0f * x * y;
+		float q02 = 2.0f * x * z;
+		float q03 = 2.0f * x * w;
+
+		float q12 = 2.0f * y * z;
+		float q13 = 2.0f * y * w;
+
+		float q23 = 2.0f * z * w;
+		
+		float vx = v.vec[0], vy = v.vec[1], vz = v.vec[2];
+		if (target == null)
+			target = new Vec();
+		target.set((1.0f - q11 - q22) * vx + (q01 - q23) * vy + (q02 + q13) * vz,
+				(q01 + q23) * vx + (1.0f - q22 - q00) * vy + (q12 - q03) * vz,
+				(q02 - q13) * vx + (q12 + q03) * vy + (1.0f - q11 - q00) * vz);
+		return target;
 	}
 
 	/**
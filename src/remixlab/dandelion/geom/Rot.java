@@ -70,6 +70,13 @@ public class Rot implements Constants, Orientable {
 		return angle;
 	}
 
+	/**
+	 * Sets the rotation {@link #angle()}, in radians.
+	 */
+	public void setAngle(float a) {
+		angle = a;
+	}
+
 	@Override
 	public void negate() {
 		angle = -angle;
@@ -82,16 +89,32 @@ public class Rot implements Constants, Orientable {
 
 	@Override
 	public Vec rotate(Vec v) {
-		float cosB = (float)Math.cos(angle());
-		float sinB = (float)Math.sin(angle());
-		return new Vec( ((v.x()*cosB) - (v.y()*sinB)), ((v.x()*sinB) + (v.y()*cosB)));
+		return rotate(v, null);
+	}
+	
+	@Override
+	public Vec rotate(Vec v, Vec target) {
+		return rotate(angle(), v, target);
 	}
 
 	@Override
 	public Vec inverseRotate(Vec v) {
-		float cosB = (float)Math.cos(-angle());
-		float sinB = (float)Math.sin(-angle());
-		return new Vec( ((v.x()*cosB) - (v.y()*sinB)), ((v.x()*sinB) + (v.y()*cosB)));
+		return inverseRotate(v, null);
+	}
+	
+	@Override
+	public Vec inverseRotate(Vec v, Vec target) {
+		return rotate(-angle(), v, target);
+	}
+	
+	protected static Vec rotate(float a, Vec v, Vec target) {
+		float cosB = (float)Math.cos(a);
+		float sinB = (float)Math.sin(a);
+		float x = v.x(), y = v.y();
+		if (target == null)
+			target = new Vec();
+		target.set( ((x*cosB) - (y*sinB)), ((x*sinB) + (y*cosB)), 0);
+		return target;
 	}
 
 	/**
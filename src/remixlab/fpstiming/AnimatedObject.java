@@ -169,6 +169,17 @@ public class AnimatedObject implements Animatable {
 			startAnimation();
 	}
 
+	/**
+	 * Returns the fraction of the {@link #animationPeriod()} elapsed since the last
+	 * {@link #animate()} call when the timing handler steps the animations at a fixed
+	 * timestep, and {@code 0} otherwise. Use it to interpolate the rendering.
+	 * 
+	 * @see remixlab.fpstiming.TimingHandler#setFixedTimestep(boolean)
+	 */
+	public float animationAlpha() {
+		return handler == null ? 0 : handler.animationAlpha(this);
+	}
+
 	@Override
 	public void animate() {
 	}
@@ -15,6 +15,8 @@ package remixlab.fpstiming;
  */
 public class SeqTaskableTimer extends SeqTimer {
 	Taskable task;
+	// true while the task is in the handler timer pool
+	boolean registered;
 
 	public SeqTaskableTimer(TimingHandler h, Taskable t) {
 		super(h);
@@ -53,6 +53,12 @@ public class SeqTimer implements Timable {
 	private long counter;
 	private long prd;
 	private long startTime;
+	// timing wheel links, see TimingWheel
+	SeqTimer wheelNext, wheelPrev;
+	int wheelSlot = -1;
+	long wheelTime;
+	// true while the handler checks the timer at each frame, see TimingHandler
+	boolean due, inDueList;
 
 	/**
 	 * Defines a single shot sequential (single-threaded) timer.
@@ -99,6 +105,8 @@ public class SeqTimer implements Timable {
 		counter = 1;
 		active = true;
 		startTime = System.currentTimeMillis();
+		if (handler != null)
+			handler.schedule(this);
 	}
 
 	@Override
@@ -115,6 +123,25 @@ public class SeqTimer implements Timable {
 
 	public void inactivate() {
 		active = false;
+		if (handler != null)
+			handler.unschedule(this);
+	}
+
+	/**
+	 * Returns the time (as given by {@code System.currentTimeMillis()}) the timer is
+	 * next due. Note that it may be triggered up to one frame earlier (see
+	 * {@link #trigggered()}).
+	 */
+	public long nextTime() {
+		return startTime + counter * prd;
+	}
+
+	/**
+	 * Returns the time (as given by {@code System.currentTimeMillis()}) the timer was
+	 * last run.
+	 */
+	public long startTime() {
+		return startTime;
 	}
 
 	/**
@@ -171,6 +198,8 @@ public class SeqTimer implements Timable {
 	@Override
 	public void setPeriod(long period) {
 		prd = period;
+		if (active && handler != null)
+			handler.schedule(this);
 	}
 
 	@Override
@@ -10,6 +10,7 @@
 package remixlab.fpstiming;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 
 /**
  * A timing handler holds a {@link #timerPool()} and an {@link #animationPool()}.
@@ -23,6 +24,13 @@ import java.util.ArrayList;
  * ({@link #registerJob(AbstractTimerJob)} ); 3. Register some animation objects
  * ({@link #registerAnimation(Animatable)}); and, 4. Call {@link #handle()}
  * from within the application main event loop.
+ * <p>
+ * The active sequential timers are kept in a {@link remixlab.fpstiming.TimingWheel},
+ * so that {@link #handle()} only touches the timers which are due: inactive jobs and
+ * stopped animations cost nothing per frame.
+ * <p>
+ * Animations may also be stepped at a fixed timestep, decoupled from the frame rate
+ * (see {@link #setFixedTimestep(boolean)}).
  */
 public class TimingHandler {
 	// protected boolean singleThreadedTaskableTimers;
@@ -34,6 +42,28 @@ public class TimingHandler {
 
 	// A N I M A T I O N
 	protected ArrayList<Animatable> animationPool;
+	// animation timer -> animated object, lazily filled (see animation(SeqTimer))
+	protected IdentityHashMap<SeqTimer, Animatable> animationTimers;
+
+	// S C H E D U L I N G
+	protected TimingWheel wheel;
+	// timers which are due but have not been triggered yet
+	protected ArrayList<SeqTimer> dueTimers;
+	protected ArrayList<SeqTimer> expiredTimers;
+
+	// F I X E D T I M E S T E P
+	protected static class Stepper {
+		Animatable animation;
+		// animation timer start time, to detect restarts
+		long start;
+		// nanoseconds
+		long last, accumulator;
+	}
+
+	protected boolean fixedTimestep;
+	protected int maxSubsteps = 5;
+	protected ArrayList<Stepper> steppers;
+	protected IdentityHashMap<Animatable, Stepper> stepperMap;
 
 	public static final String prettyVersion = "1.0.0-alpha.1";
 
@@ -49,6 +79,12 @@ public class TimingHandler {
 		// drawing timer pool
 		timerPool = new ArrayList<AbstractTimerJob>();
 		animationPool = new ArrayList<Animatable>();
+		animationTimers = new IdentityHashMap<SeqTimer, Animatable>();
+		wheel = new TimingWheel(frameRateLastMillis);
+		dueTimers = new ArrayList<SeqTimer>();
+		expiredTimers = new ArrayList<SeqTimer>();
+		steppers = new ArrayList<Stepper>();
+		stepperMap = new IdentityHashMap<Animatable, Stepper>();
 	}
 
 	/**
@@ -65,19 +101,237 @@ public class TimingHandler {
 	 * 2. Executes the all timers (those in the {@link #timerPool()})
 	 * callback functions; and, 3. Performs all the animated objects
 	 * (those in the {@link #animationPool()}) animation functions.
+	 * <p>
+	 * Only the timers which are due (see {@link remixlab.fpstiming.SeqTimer#nextTime()})
+	 * are checked.
 	 */
 	public void handle() {
 		updateFrameRate();
-		for (AbstractTimerJob tJob : timerPool)
-			if (tJob.timer() != null)
-				if (tJob.timer() instanceof SeqTaskableTimer)
-					((SeqTaskableTimer) tJob.timer()).execute();
-		// Animation
-		for (Animatable aObj : animationPool)
-			if (aObj.isAnimationStarted())
-				if (aObj.timer().trigggered())
-					if (!aObj.invokeAnimationHandler())
-						aObj.animate();
+		wheel.expire(System.currentTimeMillis(), expiredTimers);
+		for (SeqTimer timer : expiredTimers) {
+			timer.due = true;
+			if (!timer.inDueList) {
+				timer.inDueList = true;
+				dueTimers.add(timer);
+			}
+		}
+		expiredTimers.clear();
+		// dispatch the due timers, keeping those which are still due
+		int j = 0;
+		for (int i = 0; i < dueTimers.size(); ++i) {
+			SeqTimer timer = dueTimers.get(i);
+			if (timer.due)
+				dispatch(timer);
+			if (timer.due)
+				dueTimers.set(j++, timer);
+			else
+				timer.inDueList = false;
+		}
+		for (int i = dueTimers.size() - 1; i >= j; --i)
+			dueTimers.remove(i);
+		// fixed timestep animations
+		if (!steppers.isEmpty())
+			stepAnimations();
+	}
+
+	/**
+	 * Executes the callback of the due {@code timer}, if it is triggered at this frame.
+	 */
+	protected void dispatch(SeqTimer timer) {
+		boolean result = false;
+		if (timer instanceof SeqTaskableTimer) {
+			if (((SeqTaskableTimer) timer).registered)
+				result = ((SeqTaskableTimer) timer).execute();
+			else {
+				unschedule(timer);
+				return;
+			}
+		}
+		else {
+			Animatable aObj = animation(timer);
+			if (aObj == null || !aObj.isAnimationStarted()) {
+				unschedule(timer);
+				return;
+			}
+			if (isFixedTimestep()) {
+				startStepping(aObj);
+				return;
+			}
+			result = timer.trigggered();
+			if (result)
+				if (!aObj.invokeAnimationHandler())
+					aObj.animate();
+		}
+		// the callback may have restarted or stopped the timer
+		if (result && timer.isActive() && timer.due)
+			schedule(timer);
+	}
+
+	/**
+	 * Returns {@code true} if the animations are stepped at a fixed timestep.
+	 * 
+	 * @see #setFixedTimestep(boolean)
+	 */
+	public boolean isFixedTimestep() {
+		return fixedTimestep;
+	}
+
+	/**
+	 * Enables or disables the fixed timestep mode. In this mode, each started
+	 * animation accumulates the elapsed (real) time and calls its
+	 * {@link remixlab.fpstiming.Animatable#animate()} once per elapsed
+	 * {@link remixlab.fpstiming.Animatable#animationPeriod()} (the fixed timestep),
+	 * i.e., several times at slow frames (up to {@link #maxSubsteps()}) and none at fast
+	 * ones. Hence the simulation rate does not depend on the frame rate. The rendering
+	 * may interpolate the last two simulation states with the
+	 * {@link #animationAlpha(Animatable)}.
+	 * <p>
+	 * Otherwise (default), each animation is performed at most once per frame, when its
+	 * timer is triggered.
+	 */
+	public void setFixedTimestep(boolean enable) {
+		if (fixedTimestep == enable)
+			return;
+		fixedTimestep = enable;
+		if (!enable) {
+			// give the animations back to their timers
+			for (Stepper stepper : steppers)
+				if (stepper.animation.isAnimationStarted() && stepper.animation.timer() != null)
+					stepper.animation.timer().run(stepper.animation.animationPeriod());
+			steppers.clear();
+			stepperMap.clear();
+		}
+	}
+
+	/**
+	 * Returns the maximum number of fixed timesteps an animation performs per frame.
+	 * When it falls further behind, the exceeding time is dropped, so that slow frames
+	 * do not slow down the application even more. Default is 5.
+	 * 
+	 * @see #setFixedTimestep(boolean)
+	 */
+	public int maxSubsteps() {
+		return maxSubsteps;
+	}
+
+	public void setMaxSubsteps(int substeps) {
+		maxSubsteps = Math.max(1, substeps);
+	}
+
+	/**
+	 * Returns the fraction of the fixed timestep accumulated by {@code animation} since
+	 * its last {@link remixlab.fpstiming.Animatable#animate()}, in {@code [0, 1)}. Use
+	 * it to interpolate the previous and current simulation states when rendering.
+	 * Returns {@code 0} if {@code animation} is not stepped at a fixed timestep.
+	 * 
+	 * @see #setFixedTimestep(boolean)
+	 */
+	public float animationAlpha(Animatable animation) {
+		Stepper stepper = stepperMap.get(animation);
+		if (stepper == null || animation.animationPeriod() <= 0)
+			return 0;
+		return Math.min(1, (float) stepper.accumulator / (animation.animationPeriod() * 1000000L));
+	}
+
+	/**
+	 * Moves {@code animation} from its timer to the fixed timestep animations,
+	 * accounting for the time elapsed since its timer was run.
+	 */
+	protected void startStepping(Animatable animation) {
+		SeqTimer timer = animation.timer();
+		// the timer remains active but it is no longer checked
+		unschedule(timer);
+		Stepper stepper = stepperMap.get(animation);
+		if (stepper == null) {
+			stepper = new Stepper();
+			stepper.animation = animation;
+			stepperMap.put(animation, stepper);
+			steppers.add(stepper);
+		}
+		stepper.start = timer.startTime();
+		stepper.last = System.nanoTime();
+		stepper.accumulator = Math.max(0, System.currentTimeMillis() - stepper.start) * 1000000L;
+	}
+
+	/**
+	 * Performs the due fixed timesteps of the stepped animations.
+	 */
+	protected void stepAnimations() {
+		long now = System.nanoTime();
+		int j = 0;
+		for (int i = 0; i < steppers.size(); ++i) {
+			Stepper stepper = steppers.get(i);
+			Animatable aObj = stepper.animation;
+			SeqTimer timer = aObj.timer();
+			long dt = aObj.animationPeriod() * 1000000L;
+			if (!aObj.isAnimationStarted() || timer == null || !timer.isActive() || dt <= 0
+					|| stepperMap.get(aObj) != stepper) {
+				if (stepperMap.get(aObj) == stepper)
+					stepperMap.remove(aObj);
+				continue;
+			}
+			if (timer.startTime() != stepper.start)
+				// restarted
+				startStepping(aObj);
+			else {
+				stepper.accumulator += now - stepper.last;
+				stepper.last = now;
+			}
+			int steps = 0;
+			while (stepper.accumulator >= dt && steps < maxSubsteps) {
+				if (!aObj.invokeAnimationHandler())
+					aObj.animate();
+				stepper.accumulator -= dt;
+				++steps;
+			}
+			// drop the time the animation cannot catch up with
+			if (stepper.accumulator >= dt)
+				stepper.accumulator %= dt;
+			steppers.set(j++, stepper);
+		}
+		for (int i = steppers.size() - 1; i >= j; --i)
+			steppers.remove(i);
+	}
+
+	/**
+	 * Returns the registered animated object whose timer is {@code timer}, or
+	 * {@code null} if there is none.
+	 */
+	protected Animatable animation(SeqTimer timer) {
+		Animatable aObj = animationTimers.get(timer);
+		if (aObj != null && aObj.timer() == timer)
+			return aObj;
+		animationTimers.remove(timer);
+		for (Animatable a : animationPool)
+			if (a.timer() == timer) {
+				animationTimers.put(timer, a);
+				return a;
+			}
+		return null;
+	}
+
+	/**
+	 * Schedules the (active) {@code timer} to be checked from one frame (or so) before
+	 * its {@link remixlab.fpstiming.SeqTimer#nextTime()} on. Called by the timer when
+	 * it is run.
+	 */
+	protected void schedule(SeqTimer timer) {
+		timer.due = false;
+		if (!timer.isActive() || timer.period() <= 0) {
+			wheel.remove(timer);
+			return;
+		}
+		// the timer may be triggered up to a frame earlier
+		long lookahead = 2 * (long) Math.ceil(1000 / Math.max(1, frameRate()));
+		wheel.add(timer, timer.nextTime() - lookahead);
+	}
+
+	/**
+	 * Stops checking {@code timer}. Called by the timer when it is stopped.
+	 */
+	protected void unschedule(SeqTimer timer) {
+		timer.due = false;
+		wheel.remove(timer);
 	}
 
 	/**
@@ -91,7 +345,9 @@ public class TimingHandler {
 	 * Register a task in the timer pool and creates a sequential timer for it.
 	 */
 	public void registerJob(AbstractTimerJob job) {
-		job.setTimer(new SeqTaskableTimer(this, job));
+		SeqTaskableTimer timer = new SeqTaskableTimer(this, job);
+		timer.registered = true;
+		job.setTimer(timer);
 		timerPool.add(job);
 	}
 
@@ -101,6 +357,10 @@ public class TimingHandler {
 	public void registerJob(AbstractTimerJob job, Timable timer) {
 		job.setTimer(timer);
 		timerPool.add(job);
+		if (timer instanceof SeqTaskableTimer) {
+			((SeqTaskableTimer) timer).registered = true;
+			schedule((SeqTaskableTimer) timer);
+		}
 	}
 
 	/**
@@ -111,6 +371,8 @@ public class TimingHandler {
 	 */
 	public void unregisterJob(SeqTaskableTimer t) {
 		timerPool.remove(t.timerJob());
+		t.registered = false;
+		unschedule(t);
 	}
 
 	/**
@@ -121,6 +383,10 @@ public class TimingHandler {
 	 */
 	public void unregisterJob(AbstractTimerJob job) {
 		timerPool.remove(job);
+		if (job.timer() instanceof SeqTaskableTimer) {
+			((SeqTaskableTimer) job.timer()).registered = false;
+			unschedule((SeqTaskableTimer) job.timer());
+		}
 	}
 
 	/**
@@ -179,7 +445,9 @@ public class TimingHandler {
 				rOnce = job.timer().isSingleShot();
 			}
 			job.stop();
-			job.setTimer(new SeqTaskableTimer(this, job));
+			SeqTaskableTimer timer = new SeqTaskableTimer(this, job);
+			timer.registered = true;
+			job.setTimer(timer);
 			if (isActive) {
 				if (rOnce)
 					job.runOnce(period);
@@ -207,6 +475,9 @@ public class TimingHandler {
 		if (object.timingHandler() != this)
 			object.setTimingHandler(this);
 		animationPool.add(object);
+		// the timer of a running animation is unscheduled when it is unregistered
+		if (object.isAnimationStarted() && object.timer() != null && object.timer().handler == this)
+			schedule(object.timer());
 	}
 
 	/**
@@ -214,6 +485,14 @@ public class TimingHandler {
 	 */
 	public void unregisterAnimation(Animatable object) {
 		animationPool.remove(object);
+		// the stepper, if any, is dropped at the next stepAnimations()
+		if (!animationPool.contains(object))
+			stepperMap.remove(object);
+		if (object.timer() != null) {
+			animationTimers.remove(object.timer());
+			if (!animationPool.contains(object))
+				unschedule(object.timer());
+		}
 	}
 
 	/**
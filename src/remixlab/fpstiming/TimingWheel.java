@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * FPSTiming (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.fpstiming;
+
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel of {@link remixlab.fpstiming.SeqTimer}s, used by the
+ * {@link remixlab.fpstiming.TimingHandler} so that each {@link TimingHandler#handle()}
+ * only touches the timers which are due.
+ * <p>
+ * Times are in milliseconds. The wheel has {@link #LEVELS} levels of {@link #SLOTS}
+ * slots each: level {@code l} slots span {@code SLOTS^l} milliseconds, so that
+ * timers are added, removed and expired in constant time. Timers due further than
+ * {@code SLOTS^LEVELS} milliseconds (about 4.6 hours) are parked at the last level
+ * until they get closer. Timers are linked into the slots, hence the wheel does not
+ * allocate.
+ */
+public class TimingWheel {
+	protected static final int BITS = 6;
+	public static final int SLOTS = 1 << BITS;
+	public static final int LEVELS = 4;
+	protected static final int MASK = SLOTS - 1;
+	protected static final long SPAN = 1L << (BITS * LEVELS);
+
+	protected SeqTimer[] slots = new SeqTimer[LEVELS * SLOTS];
+	// next millisecond to be expired
+	protected long tick;
+	protected int size;
+
+	/**
+	 * Defines an empty wheel whose time starts at {@code now}.
+	 */
+	public TimingWheel(long now) {
+		tick = now;
+	}
+
+	/**
+	 * Returns the number of timers in the wheel.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns {@code true} if {@code timer} is in the wheel.
+	 */
+	public boolean contains(SeqTimer timer) {
+		return timer.wheelSlot >= 0;
+	}
+
+	/**
+	 * Adds {@code timer} to be expired at {@code time} (or at the next
+	 * {@link #expire(long, List)} call if {@code time} has already passed). The timer
+	 * is moved if it was already in the wheel.
+	 */
+	public void add(SeqTimer timer, long time) {
+		remove(timer);
+		timer.wheelTime = Math.max(time, tick);
+		link(timer);
+		++size;
+	}
+
+	/**
+	 * Removes {@code timer} from the wheel, if it is there.
+	 */
+	public void remove(SeqTimer timer) {
+		if (timer.wheelSlot < 0)
+			return;
+		unlink(timer);
+		--size;
+	}
+
+	/**
+	 * Removes the timers whose time is {@code now} or earlier from the wheel and
+	 * appends them to {@code expired}.
+	 */
+	public void expire(long now, List<SeqTimer> expired) {
+		if (size == 0) {
+			tick = Math.max(tick, now + 1);
+			return;
+		}
+		while (tick <= now && size > 0) {
+			// bring the timers of the next higher level slot down
+			for (int level = 1; level < LEVELS && (tick & ((1L << (BITS * level)) - 1)) == 0; ++level)
+				cascade(level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK));
+			int slot = (int) (tick & MASK);
+			SeqTimer timer = slots[slot];
+			while (timer != null) {
+				SeqTimer next = timer.wheelNext;
+				unlink(timer);
+				--size;
+				expired.add(timer);
+				timer = next;
+			}
+			tick = next(now + 1);
+		}
+		tick = Math.max(tick, now + 1);
+	}
+
+	/**
+	 * Returns the first time after the current tick (and before {@code limit}) at which
+	 * a level 0 slot expires or a higher level slot cascades, or {@code limit} if there
+	 * is none. Empty slots are skipped, so that a long pause between two
+	 * {@link #expire(long, List)} calls costs no more than the slots it actually visits.
+	 */
+	protected long next(long limit) {
+		long best = limit;
+		for (int d = 1; d < SLOTS && tick + d < best; ++d)
+			if (slots[(int) ((tick + d) & MASK)] != null) {
+				best = tick + d;
+				break;
+			}
+		for (int level = 1; level < LEVELS; ++level) {
+			int shift = BITS * level;
+			// slot boundaries of this level after tick, in order
+			long boundary = (tick >>> shift) + 1;
+			for (int n = 0; n < SLOTS && (boundary << shift) < best; ++n, ++boundary)
+				if (slots[level * SLOTS + (int) (boundary & MASK)] != null) {
+					best = boundary << shift;
+					break;
+				}
+		}
+		return best;
+	}
+
+	protected void cascade(int slot) {
+		SeqTimer timer = slots[slot];
+		slots[slot] = null;
+		while (timer != null) {
+			SeqTimer next = timer.wheelNext;
+			timer.wheelSlot = -1;
+			link(timer);
+			timer = next;
+		}
+	}
+
+	protected void link(SeqTimer timer) {
+		long time = timer.wheelTime;
+		long delta = time - tick;
+		if (delta >= SPAN) {
+			delta = SPAN - 1;
+			time = tick + delta;
+		}
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1))))
+			++level;
+		int slot = level * SLOTS + (int) ((time >>> (BITS * level)) & MASK);
+		timer.wheelSlot = slot;
+		timer.wheelPrev = null;
+		timer.wheelNext = slots[slot];
+		if (slots[slot] != null)
+			slots[slot].wheelPrev = timer;
+		slots[slot] = timer;
+	}
+
+	protected void unlink(SeqTimer timer) {
+		if (timer.wheelPrev != null)
+			timer.wheelPrev.wheelNext = timer.wheelNext;
+		else
+			slots[timer.wheelSlot] = timer.wheelNext;
+		if (timer.wheelNext != null)
+			timer.wheelNext.wheelPrev = timer.wheelPrev;
+		timer.wheelNext = timer.wheelPrev = null;
+		timer.wheelSlot = -1;
+	}
+}
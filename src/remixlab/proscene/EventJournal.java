@@ -0,0 +1,278 @@
+/**************************************************************************************
+ * ProScene (version 2.0.0)
+ * Copyright (c) 2010-2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive scenes
+ * in Processing, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ *************************************************************************************/
+package remixlab.proscene;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import remixlab.tersehandling.core.Agent;
+import remixlab.tersehandling.core.EventRecorder;
+import remixlab.tersehandling.core.Grabbable;
+import remixlab.tersehandling.core.TerseHandler;
+import remixlab.tersehandling.event.EventCodec;
+import remixlab.tersehandling.event.TerseEvent;
+import remixlab.tersehandling.generic.profile.Actionable;
+import remixlab.tersehandling.generic.profile.Duoable;
+
+/**
+ * An append-only binary journal of the events performed by a
+ * {@link remixlab.tersehandling.core.TerseHandler}, together with their timestamp,
+ * agent name, grabber and resolved action. The events are recorded as they are
+ * performed, i.e., already modulated by their agents, so that they are replayed
+ * as is, without going through the agents again. The journal is written through a memory mapped
+ * file, growing it by {@link #CHUNK} bytes at a time. Replay it with an
+ * {@link remixlab.proscene.EventJournalPlayer}.
+ * <p>
+ * Usage: {@code journal = new EventJournal("session.journal"); journal.start(scene.terseHandler());}
+ * and then {@code journal.close()} to stop recording.
+ * <p>
+ * File layout: a {@link #MAGIC} int and a {@link #VERSION} int, followed by
+ * records, each starting with its type byte:
+ * <ul>
+ * <li>{@link #AGENT}: short id and name, written before the first event of the agent.</li>
+ * <li>{@link #ACTION}: short id and name, written before the first event bound to it.
+ * The name of enum actions is their class name and constant name separated by
+ * {@code '#'}, so that the player may restore them.</li>
+ * <li>{@link #EVENT}: short agent id, short action id ({@code -1} if none), int
+ * grabber (see {@link #grabberId(Agent, Grabbable)}) and the
+ * {@link remixlab.tersehandling.event.EventCodec} encoded event.</li>
+ * </ul>
+ * Names are written as a short byte length followed by their UTF-8 bytes.
+ */
+public class EventJournal implements EventRecorder {
+	public static final int MAGIC = 0x544A524E;
+	public static final int VERSION = 2;
+	public static final byte AGENT = 1;
+	public static final byte ACTION = 2;
+	public static final byte EVENT = 3;
+	/**
+	 * Grabber id of the events performed by the default grabber of their agent.
+	 */
+	public static final int DEFAULT_GRABBER = -2;
+	/**
+	 * Grabber id of the events performed by a grabber which is neither in the pool of
+	 * their agent nor its default grabber.
+	 */
+	public static final int UNKNOWN_GRABBER = -1;
+	public static final int CHUNK = 1 << 20;
+
+	static final Charset UTF8 = Charset.forName("UTF-8");
+
+	protected RandomAccessFile file;
+	protected FileChannel channel;
+	protected MappedByteBuffer buffer;
+	// file offset of the buffer
+	protected long offset;
+	protected TerseHandler handler;
+	protected IdentityHashMap<Agent, Short> agents = new IdentityHashMap<Agent, Short>();
+	protected IdentityHashMap<Actionable<?>, Short> actions = new IdentityHashMap<Actionable<?>, Short>();
+	protected long events;
+	protected EventCodec.Output output = new EventCodec.Output() {
+		@Override
+		public void writeByte(int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void writeInt(int i) {
+			buffer.putInt(i);
+		}
+
+		@Override
+		public void writeLong(long l) {
+			buffer.putLong(l);
+		}
+
+		@Override
+		public void writeFloat(float f) {
+			buffer.putFloat(f);
+		}
+	};
+
+	/**
+	 * Creates (or truncates) the journal file at {@code path}.
+	 */
+	public EventJournal(String path) throws IOException {
+		file = new RandomAccessFile(path, "rw");
+		file.setLength(0);
+		channel = file.getChannel();
+		ensure(8);
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+	}
+
+	/**
+	 * Starts recording the events performed by {@code h}.
+	 */
+	public void start(TerseHandler h) {
+		stop();
+		handler = h;
+		handler.setEventRecorder(this);
+	}
+
+	/**
+	 * Stops recording. The journal remains open: {@link #start(TerseHandler)} resumes
+	 * the recording.
+	 */
+	public void stop() {
+		if (handler != null && handler.eventRecorder() == this)
+			handler.setEventRecorder(null);
+		handler = null;
+	}
+
+	/**
+	 * Returns {@code true} while the journal is open.
+	 */
+	public boolean isOpen() {
+		return channel != null;
+	}
+
+	/**
+	 * Returns the number of recorded events.
+	 */
+	public long eventCount() {
+		return events;
+	}
+
+	/**
+	 * Returns the journal size in bytes.
+	 */
+	public long size() {
+		return buffer == null ? offset : offset + buffer.position();
+	}
+
+	@Override
+	public void record(Agent agent, Grabbable grabber, TerseEvent event) {
+		if (!isOpen() || event == null)
+			return;
+		try {
+			short agentId = agentId(agent);
+			short actionId = actionId(event);
+			ensure(9 + EventCodec.maxSize());
+			buffer.put(EVENT);
+			buffer.putShort(agentId);
+			buffer.putShort(actionId);
+			buffer.putInt(grabberId(agent, grabber));
+			EventCodec.write(event, output);
+			++events;
+		} catch (IOException e) {
+			System.out.println("Event journal write failed, closing it: " + e.getMessage());
+			close();
+		}
+	}
+
+	/**
+	 * Stops recording, flushes the journal, trims the file to the written bytes
+	 * and closes it.
+	 */
+	public void close() {
+		stop();
+		if (!isOpen())
+			return;
+		long length = size();
+		try {
+			buffer.force();
+			buffer = null;
+			// may fail on platforms which cannot truncate mapped files, leaving a
+			// zero padded tail, which the player ignores
+			channel.truncate(length);
+		} catch (IOException e) {
+			System.out.println("Event journal could not be trimmed: " + e.getMessage());
+		}
+		try {
+			channel.close();
+			file.close();
+		} catch (IOException e) {
+			System.out.println("Event journal could not be closed: " + e.getMessage());
+		}
+		offset = length;
+		channel = null;
+		file = null;
+	}
+
+	protected short agentId(Agent agent) throws IOException {
+		if (agent == null)
+			return -1;
+		Short id = agents.get(agent);
+		if (id == null) {
+			id = (short) agents.size();
+			agents.put(agent, id);
+			writeName(AGENT, id, agent.name());
+		}
+		return id;
+	}
+
+	protected short actionId(TerseEvent event) throws IOException {
+		if (!(event instanceof Duoable<?>))
+			return -1;
+		Actionable<?> action = ((Duoable<?>) event).action();
+		if (action == null)
+			return -1;
+		Short id = actions.get(action);
+		if (id == null) {
+			id = (short) actions.size();
+			actions.put(action, id);
+			writeName(ACTION, id, actionName(action));
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the recorded name of {@code action}: its class and constant names
+	 * separated by {@code '#'} if it is an enum constant, and its (reference action)
+	 * string otherwise, which the player cannot restore.
+	 */
+	protected String actionName(Actionable<?> action) {
+		if (action instanceof Enum<?>)
+			return ((Enum<?>) action).getDeclaringClass().getName() + "#" + ((Enum<?>) action).name();
+		Object reference = action.referenceAction();
+		return reference == null ? action.toString() : reference.toString();
+	}
+
+	/**
+	 * Returns the index of {@code grabber} in the {@code agent} pool,
+	 * {@link #DEFAULT_GRABBER} if it is the agent default grabber and
+	 * {@link #UNKNOWN_GRABBER} otherwise. Pool grabbers are thus identified across
+	 * sessions as long as the pools are populated in the same order.
+	 */
+	protected int grabberId(Agent agent, Grabbable grabber) {
+		if (agent == null || grabber == null)
+			return UNKNOWN_GRABBER;
+		List<Grabbable> pool = agent.pool();
+		// by identity, since grabbers such as frames compare their state in equals()
+		for (int i = 0; i < pool.size(); ++i)
+			if (pool.get(i) == grabber)
+				return i;
+		return grabber == agent.defaultGrabber() ? DEFAULT_GRABBER : UNKNOWN_GRABBER;
+	}
+
+	protected void writeName(byte type, short id, String name) throws IOException {
+		byte[] bytes = (name == null ? "" : name).getBytes(UTF8);
+		ensure(5 + bytes.length);
+		buffer.put(type);
+		buffer.putShort(id);
+		buffer.putShort((short) bytes.length);
+		buffer.put(bytes);
+	}
+
+	// maps the next chunk when the current one cannot hold n more bytes
+	protected void ensure(int n) throws IOException {
+		if (buffer != null && buffer.remaining() >= n)
+			return;
+		if (buffer != null)
+			offset += buffer.position();
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.max(CHUNK, n));
+	}
+}
@@ -0,0 +1,297 @@
+/**************************************************************************************
+ * ProScene (version 2.0.0)
+ * Copyright (c) 2010-2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive scenes
+ * in Processing, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ *************************************************************************************/
+package remixlab.proscene;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+
+import remixlab.tersehandling.core.Agent;
+import remixlab.tersehandling.core.EventGrabberTuple;
+import remixlab.tersehandling.core.Grabbable;
+import remixlab.tersehandling.core.TerseHandler;
+import remixlab.tersehandling.event.EventCodec;
+import remixlab.tersehandling.event.TerseEvent;
+import remixlab.tersehandling.generic.event.*;
+import remixlab.tersehandling.generic.profile.Actionable;
+import remixlab.tersehandling.generic.profile.Duoable;
+
+/**
+ * An agent which replays an {@link remixlab.proscene.EventJournal}: it hands each
+ * recorded event, bound to its recorded action, to the grabber which performed it,
+ * through the (registered) agent having the recorded name.
+ * <p>
+ * The events were recorded as performed, i.e., already modulated by their agent, and
+ * are hence replayed as is: they are neither modulated again, nor parsed by the agent
+ * profile, nor given to the grabber the agent currently tracks. Pool grabbers are
+ * restored by their index in the agent pool, so the pools should be populated as
+ * when recording (see
+ * {@link remixlab.proscene.EventJournal#grabberId(Agent, Grabbable)}). Events of
+ * unknown grabbers are given to the agent current
+ * {@link remixlab.tersehandling.core.Agent#grabber()}.
+ * <p>
+ * The events are replayed either in real time, i.e., respecting their recorded
+ * timestamps (see {@link #isRealTime()}), or as fast as possible, i.e., all the
+ * pending events are fed at the next
+ * {@link remixlab.tersehandling.core.TerseHandler#handle()} call. Events whose agent
+ * is unknown or not registered, events recorded with an action which cannot be
+ * restored (see {@link #action(String)}) and events of unsupported kinds (see
+ * {@link #event(EventCodec.Builder)}) are skipped. Events recorded without an action
+ * are replayed without it.
+ */
+public class EventJournalPlayer extends Agent {
+	protected MappedByteBuffer buffer;
+	protected HashMap<Integer, String> agentNames = new HashMap<Integer, String>();
+	protected HashMap<Integer, String> actionNames = new HashMap<Integer, String>();
+	protected HashMap<Integer, Actionable<?>> actions = new HashMap<Integer, Actionable<?>>();
+	protected boolean realTime = true;
+	// next event to be fed, already decoded, together with its agent, grabber and action
+	protected TerseEvent next;
+	protected String nextAgent;
+	protected int nextGrabber;
+	// recorded action id (-1 if none) and its restored action (null if it cannot be)
+	protected int nextActionId;
+	protected Actionable<?> nextAction;
+	protected EventCodec.Builder builder = new EventCodec.Builder();
+	protected long firstTimestamp, startTime;
+	protected boolean started;
+	protected long played;
+	protected EventCodec.Input input = new EventCodec.Input() {
+		@Override
+		public int readByte() {
+			return buffer.get();
+		}
+
+		@Override
+		public int readInt() {
+			return buffer.getInt();
+		}
+
+		@Override
+		public long readLong() {
+			return buffer.getLong();
+		}
+
+		@Override
+		public float readFloat() {
+			return buffer.getFloat();
+		}
+	};
+
+	/**
+	 * Opens the journal at {@code path} for replaying it on {@code handler}.
+	 */
+	public EventJournalPlayer(TerseHandler handler, String name, String path) throws IOException {
+		super(handler, name);
+		RandomAccessFile file = new RandomAccessFile(path, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			// the mapping remains valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} finally {
+			file.close();
+		}
+		if (buffer.remaining() < 8 || buffer.getInt() != EventJournal.MAGIC)
+			throw new IOException(path + " is not an event journal");
+		int version = buffer.getInt();
+		if (version != EventJournal.VERSION)
+			throw new IOException("Unsupported event journal version: " + version);
+		advance();
+	}
+
+	/**
+	 * Returns {@code true} if the events are replayed respecting their recorded
+	 * timestamps, and {@code false} if they are replayed as fast as possible. The
+	 * default is {@code true}.
+	 */
+	public boolean isRealTime() {
+		return realTime;
+	}
+
+	public void setRealTime(boolean enable) {
+		realTime = enable;
+		started = false;
+	}
+
+	/**
+	 * Returns {@code true} once all the journal events have been fed.
+	 */
+	public boolean isFinished() {
+		return next == null;
+	}
+
+	/**
+	 * Returns the number of events fed so far.
+	 */
+	public long playedEvents() {
+		return played;
+	}
+
+	/**
+	 * Returns the name of the action (as recorded) of the id, or {@code null}.
+	 */
+	public String actionName(int id) {
+		return actionNames.get(id);
+	}
+
+	/**
+	 * Feeds the pending (see {@link #isRealTime()}) events to their grabbers. Called by
+	 * the {@link remixlab.tersehandling.core.TerseHandler} on each
+	 * {@link remixlab.tersehandling.core.TerseHandler#handle()}.
+	 *
+	 * @return {@code null}, since the player does not handle events itself
+	 */
+	@Override
+	public TerseEvent feed() {
+		if (next == null)
+			return null;
+		long now = System.currentTimeMillis();
+		if (!started) {
+			started = true;
+			startTime = now;
+			firstTimestamp = next.timestamp();
+		}
+		while (next != null && (!realTime || next.timestamp() - firstTimestamp <= now - startTime)) {
+			Agent agent = handler.agent(nextAgent);
+			if (agent != null && agent != this && (nextActionId < 0 || nextAction != null)) {
+				Grabbable grabber = grabber(agent, nextGrabber);
+				if (grabber != null)
+					// enqueued on behalf of the agent, so that the replay may be recorded too
+					agent.enqueueEventTuple(new EventGrabberTuple(next, grabber));
+			}
+			++played;
+			advance();
+		}
+		return null;
+	}
+
+	/**
+	 * Feeds all the remaining events at once, regardless of {@link #isRealTime()}.
+	 */
+	public void playAll() {
+		boolean rt = realTime;
+		realTime = false;
+		feed();
+		realTime = rt;
+	}
+
+	@Override
+	public void handle(TerseEvent event) {
+	}
+
+	/**
+	 * Returns the grabber of {@code agent} having the recorded {@code id}, see
+	 * {@link remixlab.proscene.EventJournal#grabberId(Agent, Grabbable)}.
+	 */
+	protected Grabbable grabber(Agent agent, int id) {
+		if (id == EventJournal.DEFAULT_GRABBER)
+			return agent.defaultGrabber();
+		List<Grabbable> pool = agent.pool();
+		if (id >= 0 && id < pool.size())
+			return pool.get(id);
+		return agent.grabber();
+	}
+
+	/**
+	 * Returns the action of the recorded {@code name}, i.e., the enum constant of an
+	 * {@link remixlab.tersehandling.generic.profile.Actionable} class (see
+	 * {@link remixlab.proscene.EventJournal#actionName(Actionable)}), or {@code null}
+	 * if it cannot be restored.
+	 */
+	protected Actionable<?> action(String name) {
+		int i = name.lastIndexOf('#');
+		if (i < 0)
+			return null;
+		try {
+			Class<?> c = Class.forName(name.substring(0, i));
+			if (c.isEnum() && Actionable.class.isAssignableFrom(c))
+				for (Object constant : c.getEnumConstants())
+					if (((Enum<?>) constant).name().equals(name.substring(i + 1)))
+						return (Actionable<?>) constant;
+		} catch (ClassNotFoundException e) {
+		}
+		System.out.println("EventJournalPlayer: action " + name + " cannot be restored");
+		return null;
+	}
+
+	/**
+	 * Returns a new event instantiated from the decoded {@code event} state. Override
+	 * it to replay other event types.
+	 */
+	protected TerseEvent event(EventCodec.Builder event) {
+		switch (event.kind()) {
+		case EventCodec.DOF1:
+			return event.restore(new GenericDOF1Event<Actionable<?>>(event.x(), event.modifiers(), event.button()));
+		case EventCodec.DOF2:
+			return event.restore(new GenericDOF2Event<Actionable<?>>(event.x(), event.y(), event.modifiers(), event.button()));
+		case EventCodec.DOF3:
+			return event.restore(new GenericDOF3Event<Actionable<?>>(event.x(), event.y(), event.z(), event.modifiers(),
+					event.button()));
+		case EventCodec.DOF6:
+			return event.restore(new GenericDOF6Event<Actionable<?>>(event.x(), event.y(), event.z(), event.rx(), event.ry(),
+					event.rz(), event.modifiers(), event.button()));
+		case EventCodec.CLICK:
+			return event.restore(new GenericClickEvent<Actionable<?>>(event.x(), event.y(), event.modifiers(), event.button(),
+					event.clickCount()));
+		case EventCodec.KEYBOARD:
+			return event.restore(new GenericKeyboardEvent<Actionable<?>>(event.modifiers(), event.key(), event.vKey()));
+		default:
+			return null;
+		}
+	}
+
+	// decodes the next event record, reading the name records before it
+	protected void advance() {
+		next = null;
+		nextAgent = null;
+		nextActionId = -1;
+		nextAction = null;
+		while (buffer.remaining() > 0) {
+			byte type = buffer.get();
+			if (type == EventJournal.AGENT || type == EventJournal.ACTION) {
+				int id = buffer.getShort();
+				byte[] bytes = new byte[buffer.getShort()];
+				buffer.get(bytes);
+				String name = new String(bytes, EventJournal.UTF8);
+				if (type == EventJournal.AGENT)
+					agentNames.put(id, name);
+				else {
+					actionNames.put(id, name);
+					actions.put(id, action(name));
+				}
+			}
+			else if (type == EventJournal.EVENT) {
+				int agentId = buffer.getShort();
+				int actionId = buffer.getShort();
+				int grabberId = buffer.getInt();
+				EventCodec.read(input, builder);
+				TerseEvent event = event(builder);
+				// unsupported event kind: skip the record
+				if (event == null)
+					continue;
+				Actionable<?> action = actionId < 0 ? null : actions.get(actionId);
+				if (action != null && event instanceof Duoable<?>)
+					((Duoable<?>) event).setAction(action);
+				next = event;
+				nextAgent = agentNames.get(agentId);
+				nextGrabber = grabberId;
+				nextActionId = actionId;
+				nextAction = action;
+				return;
+			}
+			else
+				// zero padded tail of an untrimmed journal
+				return;
+		}
+	}
+}
@@ -0,0 +1,339 @@
+/**************************************************************************************
+ * ProScene (version 2.0.0)
+ * Copyright (c) 2010-2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive scenes
+ * in Processing, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ *************************************************************************************/
+package remixlab.proscene;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import remixlab.dandelion.core.Frame;
+import remixlab.dandelion.core.InterpolatorStore;
+
+/**
+ * Bulk point and vector conversions between frames for packed {@code xyzxyz...}
+ * {@code float[]} arrays and {@code FloatBuffer}s, such as point clouds, mesh
+ * vertices or particle systems.
+ * <p>
+ * The conversions are implemented on top of the (sequential and platform
+ * independent) bulk methods of {@link remixlab.dandelion.core.Frame}, e.g.,
+ * {@link remixlab.dandelion.core.Frame#coordinatesOf(float[], int, float[], int, int)}.
+ * Batches having more than {@link #parallelThreshold()} points are split among
+ * the threads of a shared {@code ForkJoinPool} (see {@link #pool()}).
+ * <p>
+ * {@link #updateWorldTransforms(Frame)} is the parallel version of
+ * {@link remixlab.dandelion.core.Frame#updateWorldTransforms()} and
+ * {@link #update(InterpolatorStore, float)} the parallel version of
+ * {@link remixlab.dandelion.core.InterpolatorStore#update(float)}.
+ * <p>
+ * <b>Attention:</b> Frames must not be modified while a batch is being converted.
+ */
+public class FrameBatch {
+	protected enum Conversion {
+		COORDINATES, INVERSE_COORDINATES, TRANSFORM, INVERSE_TRANSFORM
+	}
+
+	// size of the chunks used to copy non array-backed buffers
+	protected static final int CHUNK = 1024;
+
+	protected static ForkJoinPool pool;
+	protected static int threshold = 16384;
+	protected static int pathThreshold = 512;
+
+	/**
+	 * Returns the {@code ForkJoinPool} shared by the parallel batches. It is lazily
+	 * created with as many threads as available processors.
+	 */
+	public static ForkJoinPool pool() {
+		if (pool == null)
+			pool = new ForkJoinPool();
+		return pool;
+	}
+
+	/**
+	 * Sets the {@code ForkJoinPool} shared by the parallel batches.
+	 */
+	public static void setPool(ForkJoinPool p) {
+		pool = p;
+	}
+
+	/**
+	 * Returns the number of points from which a batch is split among the {@link #pool()}
+	 * threads. Default is 16384.
+	 */
+	public static int parallelThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Sets the {@link #parallelThreshold()}. Use {@code Integer.MAX_VALUE} to always
+	 * convert batches sequentially.
+	 */
+	public static void setParallelThreshold(int t) {
+		threshold = Math.max(1, t);
+	}
+
+	/**
+	 * Returns the number of paths from which an
+	 * {@link remixlab.dandelion.core.InterpolatorStore} evaluation is split among the
+	 * {@link #pool()} threads. Default is 512.
+	 */
+	public static int pathParallelThreshold() {
+		return pathThreshold;
+	}
+
+	/**
+	 * Sets the {@link #pathParallelThreshold()}. Use {@code Integer.MAX_VALUE} to always
+	 * evaluate the paths sequentially.
+	 */
+	public static void setPathParallelThreshold(int t) {
+		pathThreshold = Math.max(1, t);
+	}
+
+	/**
+	 * Same as {@link remixlab.dandelion.core.InterpolatorStore#update(float)}, but the
+	 * paths of large stores are evaluated in parallel in the {@link #pool()}. The
+	 * store is packed before, and the target frames are written after, sequentially
+	 * (by the calling thread).
+	 */
+	public static void update(InterpolatorStore store, float time) {
+		store.pack();
+		if (store.size() <= pathThreshold)
+			store.evaluate(time, 0, store.size());
+		else
+			pool().invoke(new PathTask(store, time, 0, store.size()));
+		store.apply(0, store.size());
+	}
+
+	// evaluation scratch buffer of each pool thread
+	protected static final ThreadLocal<float []> pathScratch = new ThreadLocal<float []>() {
+		@Override
+		protected float [] initialValue() {
+			return new float[8];
+		}
+	};
+
+	protected static class PathTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		InterpolatorStore store;
+		float time;
+		int from, to;
+
+		PathTask(InterpolatorStore s, float t, int f, int e) {
+			store = s;
+			time = t;
+			from = f;
+			to = e;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= pathThreshold) {
+				store.evaluate(time, from, to, pathScratch.get());
+				return;
+			}
+			int half = (from + to) >>> 1;
+			invokeAll(new PathTask(store, time, from, half), new PathTask(store, time, half, to));
+		}
+	}
+
+	/**
+	 * Same as {@link remixlab.dandelion.core.Frame#coordinatesOf(float[], int, float[], int, int)},
+	 * but splits large batches among the {@link #pool()} threads.
+	 */
+	public static void coordinatesOf(Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		convert(Conversion.COORDINATES, frame, src, srcOffset, target, targetOffset, count);
+	}
+
+	/**
+	 * Parallel version of
+	 * {@link remixlab.dandelion.core.Frame#inverseCoordinatesOf(float[], int, float[], int, int)}.
+	 */
+	public static void inverseCoordinatesOf(Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		convert(Conversion.INVERSE_COORDINATES, frame, src, srcOffset, target, targetOffset, count);
+	}
+
+	/**
+	 * Parallel version of
+	 * {@link remixlab.dandelion.core.Frame#transformOf(float[], int, float[], int, int)}.
+	 */
+	public static void transformOf(Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		convert(Conversion.TRANSFORM, frame, src, srcOffset, target, targetOffset, count);
+	}
+
+	/**
+	 * Parallel version of
+	 * {@link remixlab.dandelion.core.Frame#inverseTransformOf(float[], int, float[], int, int)}.
+	 */
+	public static void inverseTransformOf(Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		convert(Conversion.INVERSE_TRANSFORM, frame, src, srcOffset, target, targetOffset, count);
+	}
+
+	/**
+	 * Converts {@code count} points from the world to {@code frame}. The points are read
+	 * from {@code src} and written to {@code target} starting at their current
+	 * {@code position()}s, which are left untouched. {@code target} may be {@code src}
+	 * itself.
+	 */
+	public static void coordinatesOf(Frame frame, FloatBuffer src, FloatBuffer target, int count) {
+		convert(Conversion.COORDINATES, frame, src, target, count);
+	}
+
+	/**
+	 * Converts {@code count} points from {@code frame} to the world. See
+	 * {@link #coordinatesOf(Frame, FloatBuffer, FloatBuffer, int)}.
+	 */
+	public static void inverseCoordinatesOf(Frame frame, FloatBuffer src, FloatBuffer target, int count) {
+		convert(Conversion.INVERSE_COORDINATES, frame, src, target, count);
+	}
+
+	/**
+	 * Converts {@code count} vectors from the world to {@code frame}. See
+	 * {@link #coordinatesOf(Frame, FloatBuffer, FloatBuffer, int)}.
+	 */
+	public static void transformOf(Frame frame, FloatBuffer src, FloatBuffer target, int count) {
+		convert(Conversion.TRANSFORM, frame, src, target, count);
+	}
+
+	/**
+	 * Converts {@code count} vectors from {@code frame} to the world. See
+	 * {@link #coordinatesOf(Frame, FloatBuffer, FloatBuffer, int)}.
+	 */
+	public static void inverseTransformOf(Frame frame, FloatBuffer src, FloatBuffer target, int count) {
+		convert(Conversion.INVERSE_TRANSFORM, frame, src, target, count);
+	}
+
+	/**
+	 * Refreshes the cached world transformations of {@code root} and all its
+	 * {@link remixlab.dandelion.core.Frame#children()}, top-down, processing the
+	 * independent subtrees in parallel in the {@link #pool()}. Leaf children are
+	 * processed by the task of their parent. Only the frames tracking their children
+	 * (see {@link remixlab.dandelion.core.Frame#enableChildrenTracking()}) are descended.
+	 * 
+	 * @see remixlab.dandelion.core.Frame#updateWorldTransforms()
+	 */
+	public static void updateWorldTransforms(Frame root) {
+		// the root (and its ancestors) are refreshed sequentially first
+		root.worldStamp();
+		if (!root.children().isEmpty())
+			pool().invoke(new SubtreeTask(root));
+	}
+
+	protected static class SubtreeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		Frame root;
+
+		SubtreeTask(Frame r) {
+			root = r;
+		}
+
+		@Override
+		protected void compute() {
+			List<Frame> children = root.children();
+			SubtreeTask [] tasks = new SubtreeTask[children.size()];
+			int n = 0;
+			for (int i = 0; i < children.size(); ++i) {
+				Frame child = children.get(i);
+				// refreshes the child cache; its (already refreshed) parent is only read
+				child.worldStamp();
+				if (!child.children().isEmpty())
+					tasks[n++] = new SubtreeTask(child);
+			}
+			if (n == 1)
+				tasks[0].compute();
+			else if (n > 1) {
+				for (int i = 1; i < n; ++i)
+					tasks[i].fork();
+				tasks[0].compute();
+				for (int i = 1; i < n; ++i)
+					tasks[i].join();
+			}
+		}
+	}
+
+	protected static void convert(Conversion c, Frame frame, FloatBuffer src, FloatBuffer target, int count) {
+		if (src.hasArray() && target.hasArray() && !target.isReadOnly()) {
+			convert(c, frame, src.array(), src.arrayOffset() + src.position(), target.array(), target.arrayOffset()
+					+ target.position(), count);
+			return;
+		}
+		float [] chunk = new float[3 * Math.min(count, CHUNK)];
+		int s = src.position(), t = target.position();
+		for (int done = 0; done < count;) {
+			int n = Math.min(CHUNK, count - done);
+			for (int i = 0; i < 3 * n; ++i)
+				chunk[i] = src.get(s + i);
+			apply(c, frame, chunk, 0, chunk, 0, n);
+			for (int i = 0; i < 3 * n; ++i)
+				target.put(t + i, chunk[i]);
+			s += 3 * n;
+			t += 3 * n;
+			done += n;
+		}
+	}
+
+	protected static void convert(Conversion c, Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		// the first (sequential) call also refreshes the frame world transform cache,
+		// so that the forked tasks only read it
+		int first = count <= threshold ? count : 0;
+		apply(c, frame, src, srcOffset, target, targetOffset, first);
+		if (first < count)
+			pool().invoke(new BatchTask(c, frame, src, srcOffset, target, targetOffset, count));
+	}
+
+	protected static void apply(Conversion c, Frame frame, float[] src, int srcOffset, float[] target, int targetOffset, int count) {
+		switch (c) {
+		case COORDINATES:
+			frame.coordinatesOf(src, srcOffset, target, targetOffset, count);
+			break;
+		case INVERSE_COORDINATES:
+			frame.inverseCoordinatesOf(src, srcOffset, target, targetOffset, count);
+			break;
+		case TRANSFORM:
+			frame.transformOf(src, srcOffset, target, targetOffset, count);
+			break;
+		case INVERSE_TRANSFORM:
+			frame.inverseTransformOf(src, srcOffset, target, targetOffset, count);
+			break;
+		}
+	}
+
+	protected static class BatchTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		Conversion conversion;
+		Frame frame;
+		float [] src, target;
+		int srcOffset, targetOffset, count;
+
+		BatchTask(Conversion c, Frame f, float[] s, int so, float[] t, int to, int n) {
+			conversion = c;
+			frame = f;
+			src = s;
+			srcOffset = so;
+			target = t;
+			targetOffset = to;
+			count = n;
+		}
+
+		@Override
+		protected void compute() {
+			if (count <= threshold) {
+				apply(conversion, frame, src, srcOffset, target, targetOffset, count);
+				return;
+			}
+			int half = count / 2;
+			invokeAll(new BatchTask(conversion, frame, src, srcOffset, target, targetOffset, half),
+					new BatchTask(conversion, frame, src, srcOffset + 3 * half, target, targetOffset + 3 * half, count - half));
+		}
+	}
+}
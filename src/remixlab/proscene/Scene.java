@@ -19,13 +19,18 @@ import remixlab.dandelion.helper.*;
 import remixlab.fpstiming.*;
 import remixlab.tersehandling.generic.event.*;
 import remixlab.tersehandling.core.*;
+import remixlab.tersehandling.event.EventPool;
 import remixlab.tersehandling.generic.profile.*;
 
 import java.lang.reflect.Method;
 import java.nio.FloatBuffer;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A 3D interactive Processing scene.
@@ -131,6 +136,13 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		GenericDOF2Event<DOF2Action> event, prevEvent;
 		float dFriction = eye().frame().dampingFriction();
 		InteractiveFrame iFrame;
+		// recycles the (high-rate) move and drag events
+		EventPool<GenericDOF2Event<DOF2Action>> eventPool = new EventPool<GenericDOF2Event<DOF2Action>>() {
+			@Override
+			protected GenericDOF2Event<DOF2Action> create() {
+				return new GenericDOF2Event<DOF2Action>(0, 0);
+			}
+		};
 		
 		public ProsceneMouse(Scene scn, String n) {
 			super(scn, n);
@@ -150,9 +162,10 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		
 		public void mouseEvent(processing.event.MouseEvent e) {
 			if( e.getAction() == processing.event.MouseEvent.MOVE ) {
-				event = new GenericDOF2Event<DOF2Action>(prevEvent, e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y());
+				event = eventPool.obtain().set(prevEvent, e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y(), TH_NOMODIFIER_MASK, TH_NOBUTTON);
 				updateGrabber(event);
-				prevEvent = event.get();
+				keepPreviousEvent();
+				event.release();
 			}
 			if( e.getAction() == processing.event.MouseEvent.PRESS ) {
 				  event = new GenericDOF2Event<DOF2Action>(prevEvent, e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y(), e.getModifiers(), e.getButton());
@@ -192,9 +205,10 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 				if(zoomVisualHint() || rotateVisualHint())
 					lCorner.set(e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y());
 				if( ! zoomVisualHint() ) { //bypass zoom_on_region, may be different when using a touch device :P
-					event = new GenericDOF2Event<DOF2Action>(prevEvent, e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y(), e.getModifiers(), e.getButton());
+					event = eventPool.obtain().set(prevEvent, e.getX() - scene.upperLeftCorner.x(), e.getY() - scene.upperLeftCorner.y(), e.getModifiers(), e.getButton());
 					handle(event);
-				  prevEvent = event.get();
+					// the pooled event is released once performed: keep a copy
+				  keepPreviousEvent();
 				}
 			}			
 			if( e.getAction() == processing.event.MouseEvent.RELEASE ) {
@@ -225,6 +239,14 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 			}	
 		}
 		
+		// allocation free version of prevEvent = event.get()
+		protected void keepPreviousEvent() {
+			if(prevEvent == null)
+				prevEvent = event.get();
+			else
+				prevEvent.set(event);
+		}
+		
 		//hack to deal with this: https://github.com/processing/processing/issues/1693
 		//is to override all the following so that:
 		//1. Whenever TH_CENTER appears TH_ALT should be present
@@ -266,13 +288,25 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		}
 	}
 	
+	/**
+	 * Java timer, multiplexed with all the others on the shared {@link Scene#timerExecutor()}.
+	 * Its job is executed at the scene thread (see {@link Scene#areTimerCallbacksOnSceneThread()}),
+	 * or at a timer thread otherwise.
+	 * <p>
+	 * At the scene thread, every periodic call occurring before the next
+	 * {@link Scene#postDraw()} is executed then, one after the other, unless the calls are
+	 * coalesced (see {@link Scene#areTimerCallbacksCoalesced()}), in which case they are
+	 * merged into a single job execution.
+	 */
 	protected class TimerWrap implements Timable {
 		Scene scene;
-		Timer timer;
-		TimerTask timerTask;
+		volatile ScheduledFuture<?> future;
+		Runnable task;
 		Taskable caller;
 		boolean runOnlyOnce;
 		long prd;
+		// number of calls awaiting at the scene timerCallbacks queue
+		AtomicInteger pending = new AtomicInteger();
 
 		public TimerWrap(Scene scn, Taskable o) {
 			this(scn, o, false);
@@ -291,10 +325,13 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		@Override
 		public void create() {
 			stop();
-			timer = new Timer();
-			timerTask = new TimerTask() {
+			task = new Runnable() {
 				public void run() {
-					caller.execute();
+					if (!scene.areTimerCallbacksOnSceneThread())
+						caller.execute();
+					// the timer is queued once, however many calls are pending
+					else if (pending.getAndIncrement() == 0)
+						scene.timerCallbacks.add(TimerWrap.this);
 				}
 			};
 		}
@@ -309,9 +346,9 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		public void run() {
 			create();
 			if(isSingleShot())
-				timer.schedule(timerTask, prd);
+				future = timerExecutor().schedule(task, prd, TimeUnit.MILLISECONDS);
 			else
-				timer.scheduleAtFixedRate(timerTask, 0, prd);		
+				future = timerExecutor().scheduleAtFixedRate(task, 0, prd, TimeUnit.MILLISECONDS);
 		}
 
 		@Override
@@ -321,18 +358,21 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 
 		@Override
 		public void stop() {
-			if (timer != null) {
-				timer.cancel();
-				timer.purge();
+			if (future != null) {
+				future.cancel(false);
+				future = null;
 				/**
 				 * prd = 0; runOnlyOnce = false;
 				 */
 			}
+			if (pending.getAndSet(0) > 0)
+				scene.timerCallbacks.remove(this);
 		}
 
 		@Override
 		public boolean isActive() {
-			return timer != null;
+			ScheduledFuture<?> f = future;
+			return f != null && (!f.isDone() || pending.get() > 0);
 		}
 
 		@Override
@@ -354,6 +394,16 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		public void setSingleShot(boolean singleShot) {
 			runOnlyOnce = singleShot;
 		}
+
+		// called at the scene thread
+		protected void execute() {
+			int calls = pending.getAndSet(0);
+			if (calls > 0 && scene.areTimerCallbacksCoalesced())
+				calls = 1;
+			// the job may stop its own timer
+			for (; calls > 0 && future != null; --calls)
+				caller.execute();
+		}
 	}
 	
 	protected class P5Drawing2D implements VisualHintable, PConstants {
@@ -1804,6 +1854,11 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 	protected String animateHandlerMethodName;	
 	
 	protected boolean javaTiming;
+	protected static ScheduledThreadPoolExecutor timerExecutor;
+	// java timers whose job is to be executed at the next postDraw()
+	protected ConcurrentLinkedQueue<TimerWrap> timerCallbacks = new ConcurrentLinkedQueue<TimerWrap>();
+	protected volatile boolean timerCallbacksOnSceneThread = true;
+	protected volatile boolean timerCallbacksCoalesced;
 	
 	//Tersehandling agents
 	protected MouseAgent defMouseAgent;
@@ -2097,6 +2152,93 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 		javaTiming = false;
 		timerHandler().restoreTimers();
 	}
+
+	/**
+	 * Returns the executor shared by the java timers of all the scenes (see
+	 * {@link #setJavaTimers()}), which is lazily created with a single daemon thread.
+	 * 
+	 * @see #setTimerPoolSize(int)
+	 */
+	public static synchronized ScheduledThreadPoolExecutor timerExecutor() {
+		if (timerExecutor == null) {
+			timerExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				AtomicInteger count = new AtomicInteger();
+
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "proscene-timer-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			timerExecutor.setRemoveOnCancelPolicy(true);
+		}
+		return timerExecutor;
+	}
+
+	/**
+	 * Returns the number of threads of the {@link #timerExecutor()}.
+	 */
+	public static int timerPoolSize() {
+		return timerExecutor().getCorePoolSize();
+	}
+
+	/**
+	 * Sets the number of threads of the {@link #timerExecutor()}. One thread is enough
+	 * when the timer jobs are executed at the scene thread (see
+	 * {@link #areTimerCallbacksOnSceneThread()}).
+	 */
+	public static void setTimerPoolSize(int size) {
+		timerExecutor().setCorePoolSize(Math.max(1, size));
+	}
+
+	/**
+	 * Returns {@code true} if the jobs of the java timers (see {@link #setJavaTimers()})
+	 * are executed at the scene thread, at the beginning of {@link #postDraw()}, and
+	 * {@code false} if they are executed at the {@link #timerExecutor()} threads.
+	 * Default is {@code true}, so that the timer jobs (e.g., spinning frames) do not
+	 * race with the drawing.
+	 * <p>
+	 * Note that the periodic timer calls occurring before the next {@link #postDraw()}
+	 * are then all executed at it, unless {@link #areTimerCallbacksCoalesced()}.
+	 */
+	public boolean areTimerCallbacksOnSceneThread() {
+		return timerCallbacksOnSceneThread;
+	}
+
+	public void setTimerCallbacksOnSceneThread(boolean enable) {
+		timerCallbacksOnSceneThread = enable;
+	}
+
+	/**
+	 * Returns {@code true} if the periodic calls of a java timer occurring before the next
+	 * {@link #postDraw()} are merged into a single job execution, which keeps a slow
+	 * drawing from piling up late timer jobs. Only meaningful when
+	 * {@link #areTimerCallbacksOnSceneThread()}. Default is {@code false}, i.e., the job
+	 * is executed once per call.
+	 */
+	public boolean areTimerCallbacksCoalesced() {
+		return timerCallbacksCoalesced;
+	}
+
+	public void setTimerCallbacksCoalesced(boolean enable) {
+		timerCallbacksCoalesced = enable;
+	}
+
+	/**
+	 * Executes the java timer jobs due since the last call. Called by
+	 * {@link #postDraw()}.
+	 */
+	protected void executeTimerCallbacks() {
+		TimerWrap timer;
+		while ((timer = timerCallbacks.poll()) != null)
+			timer.execute();
+	}
+
+	@Override
+	public void postDraw() {
+		executeTimerCallbacks();
+		super.postDraw();
+	}
 	
 	// 5. Drawing methods
 
@@ -2328,7 +2470,9 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 	
 	@Override
 	protected void drawSelectionHints() {
-		for (Grabbable mg : terseHandler().globalGrabberList()) {
+		GrabberRegistry grabbers = terseHandler().grabberRegistry();
+		for (int i = 0; i < grabbers.size(); i++) {
+			Grabbable mg = grabbers.get(i);
 			if(mg instanceof InteractiveFrame) {
 				InteractiveFrame iF = (InteractiveFrame) mg;// downcast needed
 				if (!iF.isInCameraPath()) {
@@ -2356,7 +2500,9 @@ public class Scene extends AbstractScene /**implements PConstants*/ {
 
 	@Override
 	protected void drawEyePathsSelectionHints() {
-		for (Grabbable mg : terseHandler().globalGrabberList()) {
+		GrabberRegistry grabbers = terseHandler().grabberRegistry();
+		for (int i = 0; i < grabbers.size(); i++) {
+			Grabbable mg = grabbers.get(i);
 			if(mg instanceof InteractiveFrame) {
 				InteractiveFrame iF = (InteractiveFrame) mg;// downcast needed
 				if (iF.isInCameraPath()) {
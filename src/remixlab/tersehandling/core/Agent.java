@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import remixlab.tersehandling.event.TerseEvent;
+import remixlab.util.LatencyHistogram;
 
 /**
  * An Agent is a high-level TerseEvent parser, which holds a {@link #pool()} of
@@ -36,11 +37,17 @@ public class Agent {
 	protected Grabbable trackedGrabber;
 	protected Grabbable defaultGrabber;
 	protected boolean agentTrckn;
+	protected GrabberGrid grid;
+	// released tuples, see eventTuple()
+	protected List<EventGrabberTuple> freeTuples;
+	protected LatencyHistogram latency;
 
 	public Agent(TerseHandler tHandler, String n) {
 		handler = tHandler;
 		nm = n;
 		grabbers = new ArrayList<Grabbable>();
+		freeTuples = new ArrayList<EventGrabberTuple>();
+		latency = new LatencyHistogram();
 		setTracking(true);
 		handler.registerAgent(this);
 	}
@@ -49,6 +56,16 @@ public class Agent {
 		return nm;
 	}
 
+	/**
+	 * Returns the histogram of the input latencies of the events handled by this
+	 * agent, i.e., the nanoseconds elapsed from their creation till their
+	 * grabber performed them. Only recorded while the handler
+	 * {@link remixlab.tersehandling.core.TerseHandler#isMeasuringLatency()}.
+	 */
+	public LatencyHistogram latency() {
+		return latency;
+	}
+
 	/**
 	 * Returns {@code true} if this agent is tracking its grabbers.
 	 * <p>
@@ -95,6 +112,11 @@ public class Agent {
 				return trackedGrabber();
 		
 		setTrackedGrabber(null);
+		if (grid != null) {
+			// the grid only returns pool grabbers
+			trackedGrabber = grid.grabber(pool(), event);
+			return trackedGrabber();
+		}
 		for (Grabbable mg : pool()) {
 			// take whatever. Here the first one
 			if (mg.checkIfGrabsInput(event)) {
@@ -105,9 +127,72 @@ public class Agent {
 		return trackedGrabber();
 	}
 
-	public void enqueueEventTuple(EventGrabberTuple eventTuple) {
-		if (eventTuple != null && handler.isAgentRegistered(this))
-			handler.enqueueEventTuple(eventTuple);
+	/**
+	 * Returns the {@link remixlab.tersehandling.core.GrabberGrid} used by
+	 * {@link #updateGrabber(TerseEvent)} to only test the {@link #pool()} grabbers
+	 * near the event, or {@code null} (default) if the whole pool is tested.
+	 */
+	public GrabberGrid grabberGrid() {
+		return grid;
+	}
+
+	/**
+	 * Sets the {@link #grabberGrid()}.
+	 * <p>
+	 * <b>Attention:</b> Call {@link remixlab.tersehandling.core.GrabberGrid#invalidate()}
+	 * if the {@link #pool()} list is modified other than through this agent methods.
+	 */
+	public void setGrabberGrid(GrabberGrid g) {
+		grid = g;
+		if (grid != null)
+			grid.invalidate();
+	}
+
+	/**
+	 * Thread-safe and lock-free version of {@link #handle(TerseEvent)}, meant for
+	 * agents fed from their own (device) threads: {@code event} is handled by the
+	 * thread calling {@link remixlab.tersehandling.core.TerseHandler#handle()},
+	 * at its next call.
+	 * <p>
+	 * <b>Attention:</b> {@code event} should not be modified after being published.
+	 */
+	public void publish(TerseEvent event) {
+		if (event != null)
+			handler.publishedEventQueue().publish(this, event);
+	}
+
+	/**
+	 * Enqueues {@code eventTuple} in the {@link remixlab.tersehandling.core.TerseHandler#eventTupleQueue()}.
+	 * Returns {@code true} if it was enqueued.
+	 */
+	public boolean enqueueEventTuple(EventGrabberTuple eventTuple) {
+		if (eventTuple != null && handler.isAgentRegistered(this)) {
+			if (!handler.eventTupleQueue().contains(eventTuple)) {
+				eventTuple.agent = this;
+				if (handler.isMeasuringLatency())
+					eventTuple.enqueueTime = System.nanoTime();
+			}
+			return handler.enqueueEventTuple(eventTuple);
+		}
+		return false;
+	}
+
+	/**
+	 * Returns an {@link remixlab.tersehandling.core.EventGrabberTuple} holding
+	 * {@code event} and {@code g}, recycling a released one (see
+	 * {@link remixlab.tersehandling.core.EventGrabberTuple#release()}) when possible.
+	 */
+	protected EventGrabberTuple eventTuple(TerseEvent event, Grabbable g) {
+		EventGrabberTuple tuple;
+		if (freeTuples.isEmpty()) {
+			tuple = new EventGrabberTuple(event, g);
+			tuple.freeList = freeTuples;
+		}
+		else {
+			tuple = freeTuples.remove(freeTuples.size() - 1);
+			tuple.set(event, g);
+		}
+		return tuple;
 	}
 
 	public String info() {
@@ -123,7 +208,9 @@ public class Agent {
 		if (event == null || !handler.isAgentRegistered(this)
 				|| grabber() == null)
 			return;
-		handler.enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+		EventGrabberTuple tuple = eventTuple(event, grabber());
+		if (!enqueueEventTuple(tuple))
+			tuple.release();
 	}
 
 	public TerseEvent feed() {
@@ -134,11 +221,23 @@ public class Agent {
 		return handler;
 	}
 
+	/**
+	 * Returns {@code true} if this very agent (and not just one with the same name)
+	 * is registered at its handler.
+	 */
+	protected boolean isRegistered() {
+		return handler.agent(name()) == this;
+	}
+
 	/**
 	 * Returns a list containing references to all the active grabbers.
 	 * <p>
 	 * Used to parse all the grabbers and to check if any of them
 	 * {@link remixlab.tersehandling.core.Grabbable#grabsAgent(Agent)}.
+	 * <p>
+	 * <b>Attention:</b> modify it only through {@link #addInPool(Grabbable)},
+	 * {@link #removeFromPool(Grabbable)} and {@link #clearPool()}, which keep the
+	 * {@link remixlab.tersehandling.core.TerseHandler#grabberRegistry()} up to date.
 	 */
 	public List<Grabbable> pool() {
 		return grabbers;
@@ -151,7 +250,14 @@ public class Agent {
 	 * that is not in {@link #pool()} has no effect.
 	 */
 	public boolean removeFromPool(Grabbable deviceGrabber) {
-		return pool().remove(deviceGrabber);
+		if (grid != null)
+			grid.invalidate();
+		if (pool().remove(deviceGrabber)) {
+			if (isRegistered())
+				handler.grabberRegistry().remove(deviceGrabber);
+			return true;
+		}
+		return false;
 	}
 
 	/**
@@ -162,6 +268,11 @@ public class Agent {
 	 * independently.
 	 */
 	public void clearPool() {
+		if (grid != null)
+			grid.invalidate();
+		if (isRegistered())
+			for (Grabbable grabber : pool())
+				handler.grabberRegistry().remove(grabber);
 		pool().clear();
 	}
 
@@ -212,7 +323,11 @@ public class Agent {
 		if (deviceGrabber == null)
 			return false;
 		if (!isInPool(deviceGrabber)) {
+			if (grid != null)
+				grid.invalidate();
 			pool().add(deviceGrabber);
+			if (isRegistered())
+				handler.grabberRegistry().add(deviceGrabber);
 			return true;
 		}
 		return false;
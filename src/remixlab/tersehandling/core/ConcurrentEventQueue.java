@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.core;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import remixlab.tersehandling.event.TerseEvent;
+
+/**
+ * A lock-free multi-producer single-consumer queue of [agent, terseEvent] pairs,
+ * used by {@link remixlab.tersehandling.core.Agent#publish(TerseEvent)} to let
+ * device threads hand their events to the thread running
+ * {@link remixlab.tersehandling.core.TerseHandler#handle()}.
+ * <p>
+ * Producers never block: publishing takes a single atomic swap. The consumer
+ * only drains the events which were published before the drain started, so a
+ * flooding device cannot keep the consumer draining forever.
+ */
+public class ConcurrentEventQueue {
+	protected static class Node {
+		Agent agent;
+		TerseEvent event;
+		volatile Node next;
+
+		Node(Agent a, TerseEvent e) {
+			agent = a;
+			event = e;
+		}
+	}
+
+	// consumer side
+	protected Node head;
+	// producer side
+	protected final AtomicReference<Node> tail;
+
+	public ConcurrentEventQueue() {
+		head = new Node(null, null);
+		tail = new AtomicReference<Node>(head);
+	}
+
+	/**
+	 * Publishes {@code event} on behalf of {@code agent}. May be called from any
+	 * thread.
+	 */
+	public void publish(Agent agent, TerseEvent event) {
+		Node node = new Node(agent, event);
+		Node prev = tail.getAndSet(node);
+		// the node is visible to the consumer once linked
+		prev.next = node;
+	}
+
+	/**
+	 * Returns {@code true} if no published event is pending. Consumer thread only.
+	 */
+	public boolean isEmpty() {
+		return head.next == null;
+	}
+
+	/**
+	 * Calls {@link remixlab.tersehandling.core.Agent#handle(TerseEvent)} on each
+	 * pending event published before this call, in publication order, and returns
+	 * their number. Consumer thread only.
+	 */
+	public int drain() {
+		Node last = tail.get();
+		int n = 0;
+		while (head != last) {
+			Node next = head.next;
+			// a producer swapped the tail but did not link its node yet
+			if (next == null)
+				break;
+			head = next;
+			Agent agent = next.agent;
+			TerseEvent event = next.event;
+			next.agent = null;
+			next.event = null;
+			agent.handle(event);
+			++n;
+		}
+		return n;
+	}
+}
@@ -9,19 +9,77 @@
  ******************************************************************************/
 package remixlab.tersehandling.core;
 
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 
 import remixlab.tersehandling.event.TerseEvent;
 
 public class EventGrabberTuple {
 	protected TerseEvent event;
 	protected Grabbable grabber;
+	// the agent which enqueued the tuple, if known
+	protected Agent agent;
+	// System.nanoTime() at enqueue, if the handler is measuring latency
+	protected long enqueueTime;
+	// the EventTupleQueue currently holding the tuple, if any
+	protected EventTupleQueue queue;
+	// the list of released tuples the tuple returns to, if it is recycled
+	protected List<EventGrabberTuple> freeList;
+	protected boolean released;
 	
 	public EventGrabberTuple(TerseEvent e, Grabbable g) {
 		event = e;
 		grabber = g;
 	}
 	
+	/**
+	 * Reinitializes this (released) tuple. Used by agents to recycle their tuples.
+	 * 
+	 * @see remixlab.tersehandling.core.Agent#eventTuple(TerseEvent, Grabbable)
+	 */
+	protected void set(TerseEvent e, Grabbable g) {
+		event = e;
+		grabber = g;
+		agent = null;
+		enqueueTime = 0;
+		released = false;
+	}
+	
+	/**
+	 * Releases the tuple event (see {@link remixlab.tersehandling.event.TerseEvent#release()})
+	 * and returns the tuple to its free list, if any. Called by the
+	 * {@link remixlab.tersehandling.core.TerseHandler} once the tuple has been
+	 * performed. The tuple should not be accessed afterwards.
+	 */
+	public void release() {
+		if (released)
+			return;
+		if (event != null)
+			event.release();
+		if (isRecycled()) {
+			released = true;
+			event = null;
+			grabber = null;
+			agent = null;
+			recycle();
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the tuple returns to a list of released tuples when it
+	 * is {@link #release()}d.
+	 */
+	protected boolean isRecycled() {
+		return freeList != null;
+	}
+
+	/**
+	 * Returns the released tuple to its list of released tuples.
+	 */
+	protected void recycle() {
+		freeList.add(this);
+	}
+	
 	public boolean perform() {
   	if(grabber != null) {
   		grabber.performInteraction(event);
@@ -38,7 +96,24 @@ public class EventGrabberTuple {
   	return grabber;
   }
   
-  public boolean enqueue(LinkedList<EventGrabberTuple> queue) {
+  /**
+   * Returns the agent which enqueued the tuple (see
+   * {@link remixlab.tersehandling.core.Agent#enqueueEventTuple(EventGrabberTuple)}),
+   * or {@code null} if it was enqueued straight into the handler.
+   */
+  public Agent agent() {
+  	return agent;
+  }
+  
+  /**
+   * Returns the action the grabber is to perform, if the tuple holds one, and
+   * {@code null} otherwise. Used to measure the latency per action.
+   */
+  public Object action() {
+  	return null;
+  }
+  
+  public boolean enqueue(Queue<EventGrabberTuple> queue) {
   	if (!event().isNull()) {
   		queue.add(this);
   		return true;
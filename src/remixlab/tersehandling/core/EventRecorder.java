@@ -0,0 +1,29 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.core;
+
+import remixlab.tersehandling.event.TerseEvent;
+
+/**
+ * Interface for objects which record the events handled by a
+ * {@link remixlab.tersehandling.core.TerseHandler} (see
+ * {@link remixlab.tersehandling.core.TerseHandler#setEventRecorder(EventRecorder)}),
+ * e.g., to replay them later.
+ */
+public interface EventRecorder {
+	/**
+	 * Called by the handler right before {@code event} is performed by
+	 * {@code grabber}, i.e., once the agent has resolved its grabber, action (if
+	 * any) and modulated it. The {@code agent} which enqueued the event may be
+	 * {@code null} (see {@link remixlab.tersehandling.core.EventGrabberTuple#agent()}).
+	 * The {@code event} should not be kept, since it may be pooled.
+	 */
+	void record(Agent agent, Grabbable grabber, TerseEvent event);
+}
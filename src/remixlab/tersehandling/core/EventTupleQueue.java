@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.core;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The {@link remixlab.tersehandling.core.TerseHandler#eventTupleQueue()}: a FIFO
+ * ring buffer of {@link remixlab.tersehandling.core.EventGrabberTuple}s which
+ * silently ignores the tuples it already holds.
+ * <p>
+ * Both enqueuing and dequeuing are O(1) and allocation free (the ring buffer is
+ * only reallocated, doubling its capacity, when full). Duplicates are detected by
+ * identity, by marking the tuples being held.
+ * <p>
+ * <b>Attention:</b> A tuple should not be held by two queues at the same time.
+ */
+public class EventTupleQueue extends AbstractQueue<EventGrabberTuple> {
+	protected EventGrabberTuple[] ring;
+	protected int head, count;
+
+	/**
+	 * Same as {@code this(64)}.
+	 */
+	public EventTupleQueue() {
+		this(64);
+	}
+
+	/**
+	 * Defines a queue with the given initial {@code capacity}.
+	 */
+	public EventTupleQueue(int capacity) {
+		ring = new EventGrabberTuple[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Returns the number of tuples the queue may hold before growing.
+	 */
+	public int capacity() {
+		return ring.length;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns {@code true} if {@code tuple} (compared by identity) is in the queue.
+	 * O(1).
+	 */
+	@Override
+	public boolean contains(Object tuple) {
+		return tuple instanceof EventGrabberTuple && ((EventGrabberTuple) tuple).queue == this;
+	}
+
+	/**
+	 * Appends {@code tuple} to the queue, unless it already holds it. Returns
+	 * {@code true} if it was appended.
+	 */
+	@Override
+	public boolean offer(EventGrabberTuple tuple) {
+		if (tuple == null)
+			throw new NullPointerException("EventTupleQueue does not hold null tuples");
+		if (tuple.queue == this)
+			return false;
+		if (count == ring.length)
+			grow();
+		ring[(head + count) % ring.length] = tuple;
+		++count;
+		tuple.queue = this;
+		return true;
+	}
+
+	@Override
+	public EventGrabberTuple poll() {
+		if (count == 0)
+			return null;
+		EventGrabberTuple tuple = ring[head];
+		ring[head] = null;
+		head = (head + 1) % ring.length;
+		--count;
+		tuple.queue = null;
+		return tuple;
+	}
+
+	/**
+	 * Removes {@code tuple} (compared by identity) from the queue. Returns
+	 * {@code true} if it was in the queue.
+	 */
+	@Override
+	public boolean remove(Object tuple) {
+		if (!contains(tuple))
+			return false;
+		for (int i = 0; i < count; ++i)
+			if (ring[(head + i) % ring.length] == tuple) {
+				removeAt(i);
+				return true;
+			}
+		return false;
+	}
+
+	@Override
+	public EventGrabberTuple peek() {
+		return count == 0 ? null : ring[head];
+	}
+
+	/**
+	 * Returns the most recently enqueued tuple, or {@code null} if the queue is empty.
+	 */
+	public EventGrabberTuple peekLast() {
+		return count == 0 ? null : ring[(head + count - 1) % ring.length];
+	}
+
+	@Override
+	public void clear() {
+		while (count > 0)
+			poll();
+		head = 0;
+	}
+
+	@Override
+	public Iterator<EventGrabberTuple> iterator() {
+		return new Iterator<EventGrabberTuple>() {
+			int next;
+			boolean removable;
+
+			@Override
+			public boolean hasNext() {
+				return next < count;
+			}
+
+			@Override
+			public EventGrabberTuple next() {
+				if (next >= count)
+					throw new NoSuchElementException();
+				removable = true;
+				return ring[(head + next++) % ring.length];
+			}
+
+			@Override
+			public void remove() {
+				if (!removable)
+					throw new IllegalStateException();
+				removable = false;
+				removeAt(--next);
+			}
+		};
+	}
+
+	// removes the i-th tuple, shifting the following ones
+	protected void removeAt(int i) {
+		ring[(head + i) % ring.length].queue = null;
+		for (int j = i; j < count - 1; ++j)
+			ring[(head + j) % ring.length] = ring[(head + j + 1) % ring.length];
+		ring[(head + count - 1) % ring.length] = null;
+		--count;
+	}
+
+	protected void grow() {
+		EventGrabberTuple[] larger = new EventGrabberTuple[2 * ring.length];
+		for (int i = 0; i < count; ++i)
+			larger[i] = ring[(head + i) % ring.length];
+		ring = larger;
+		head = 0;
+	}
+}
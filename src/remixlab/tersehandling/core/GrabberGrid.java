@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.core;
+
+import java.util.List;
+
+import remixlab.tersehandling.event.TerseEvent;
+
+/**
+ * A screen-space bucket grid of the {@link remixlab.tersehandling.core.Agent#pool()}
+ * grabbers, used by {@link remixlab.tersehandling.core.Agent#updateGrabber(TerseEvent)}
+ * to only call {@link remixlab.tersehandling.core.Grabbable#checkIfGrabsInput(TerseEvent)}
+ * on the grabbers near the event, instead of on the whole pool.
+ * <p>
+ * Concrete grids define where the grabbers may grab input (see
+ * {@link #locate(Grabbable, float[])}), where an event lies (see
+ * {@link #locate(TerseEvent, float[])}) and when the grabber locations may have
+ * changed (see {@link #stamp()}), so that the grid is only rebuilt then.
+ * Grabbers which cannot be located are tested on every update.
+ */
+public abstract class GrabberGrid {
+	protected int cellSize;
+	// actual cell size, which is enlarged to bound the number of cells
+	protected int size;
+	// grid origin and dimensions, in cells
+	protected float minX, minY;
+	protected int cols, rows;
+	// bucketed pool indices of the located grabbers (cell i holds cellItems[cellStart[i]..cellStart[i+1]))
+	protected int[] cellStart = new int[1];
+	protected int[] cellItems = new int[0];
+	// pool indices of the grabbers that could not be located
+	protected int[] unlocated = new int[0];
+	protected int unlocatedCount;
+	protected boolean valid;
+	protected long lastStamp;
+	protected float[] buffer = new float[3];
+	protected float[] eventPos = new float[2];
+	// per pool index: screen x, y and radius, if located
+	protected float[] bounds = new float[0];
+	protected boolean[] located = new boolean[0];
+	// cell filling counters used by rebuild()
+	protected int[] fill = new int[0];
+
+	// max number of cells along each dimension
+	protected static final int MAX_CELLS = 256;
+
+	/**
+	 * Same as {@code this(32)}.
+	 */
+	public GrabberGrid() {
+		this(32);
+	}
+
+	/**
+	 * Defines a grid whose cells are {@code size} (screen units, e.g., pixels) wide.
+	 */
+	public GrabberGrid(int size) {
+		cellSize = Math.max(1, size);
+	}
+
+	/**
+	 * Returns the cell size defined at construction time. The actual cell size is
+	 * enlarged when the grabbers spread over more than 256 cells in a dimension.
+	 */
+	public int cellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Stores the screen {@code x}, {@code y} position and the radius (so that it may
+	 * only grab input within the square of that half size centered at the position)
+	 * of {@code grabber} in {@code target} and returns {@code true}, or returns
+	 * {@code false} if the {@code grabber} cannot be located.
+	 */
+	public abstract boolean locate(Grabbable grabber, float[] target);
+
+	/**
+	 * Stores the screen {@code x}, {@code y} position of {@code event} in
+	 * {@code target} and returns {@code true}, or returns {@code false} if the event
+	 * cannot be located (and then all the pool grabbers are tested).
+	 */
+	public abstract boolean locate(TerseEvent event, float[] target);
+
+	/**
+	 * Returns a value which changes whenever the grabber locations may have changed.
+	 */
+	public abstract long stamp();
+
+	/**
+	 * Forces the grid to be rebuilt before it is next used. Called by the agent when
+	 * its {@link remixlab.tersehandling.core.Agent#pool()} changes.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Returns the (first in {@code pool} order) grabber which
+	 * {@link remixlab.tersehandling.core.Grabbable#checkIfGrabsInput(TerseEvent)},
+	 * testing only the grabbers which may grab the {@code event}, or {@code null} if
+	 * none does.
+	 */
+	public Grabbable grabber(List<Grabbable> pool, TerseEvent event) {
+		if (!locate(event, eventPos)) {
+			for (Grabbable g : pool)
+				if (g.checkIfGrabsInput(event))
+					return g;
+			return null;
+		}
+		long s = stamp();
+		if (!valid || s != lastStamp) {
+			rebuild(pool);
+			lastStamp = s;
+			valid = true;
+		}
+		int col = (int) Math.floor((eventPos[0] - minX) / size);
+		int row = (int) Math.floor((eventPos[1] - minY) / size);
+		int start = 0, end = 0;
+		if (col >= 0 && col < cols && row >= 0 && row < rows) {
+			start = cellStart[row * cols + col];
+			end = cellStart[row * cols + col + 1];
+		}
+		// merge the (sorted) cell and unlocated indices to keep the pool order
+		int u = 0;
+		while (start < end || u < unlocatedCount) {
+			int i;
+			if (u == unlocatedCount || (start < end && cellItems[start] < unlocated[u]))
+				i = cellItems[start++];
+			else
+				i = unlocated[u++];
+			if (i < pool.size() && pool.get(i).checkIfGrabsInput(event))
+				return pool.get(i);
+		}
+		return null;
+	}
+
+	protected void rebuild(List<Grabbable> pool) {
+		int n = pool.size();
+		if (bounds.length < 3 * n) {
+			bounds = new float[3 * n];
+			located = new boolean[n];
+			unlocated = new int[n];
+		}
+		unlocatedCount = 0;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		minX = minY = Float.MAX_VALUE;
+		for (int i = 0; i < n; ++i) {
+			located[i] = locate(pool.get(i), buffer) && finite(buffer[0]) && finite(buffer[1]) && finite(buffer[2]);
+			if (!located[i]) {
+				unlocated[unlocatedCount++] = i;
+				continue;
+			}
+			float r = Math.abs(buffer[2]);
+			bounds[3 * i] = buffer[0];
+			bounds[3 * i + 1] = buffer[1];
+			bounds[3 * i + 2] = r;
+			minX = Math.min(minX, buffer[0] - r);
+			minY = Math.min(minY, buffer[1] - r);
+			maxX = Math.max(maxX, buffer[0] + r);
+			maxY = Math.max(maxY, buffer[1] + r);
+		}
+		if (minX > maxX) {
+			cols = rows = 0;
+			return;
+		}
+		size = cellSize;
+		while ((maxX - minX) / size >= MAX_CELLS || (maxY - minY) / size >= MAX_CELLS)
+			size *= 2;
+		cols = (int) ((maxX - minX) / size) + 1;
+		rows = (int) ((maxY - minY) / size) + 1;
+		int cells = cols * rows;
+		if (cellStart.length < cells + 1)
+			cellStart = new int[cells + 1];
+		for (int c = 0; c <= cells; ++c)
+			cellStart[c] = 0;
+		// counting sort of the (grabber, cell) pairs by cell: first count, then fill
+		for (int pass = 0; pass < 2; ++pass) {
+			for (int i = 0; i < n; ++i) {
+				if (!located[i])
+					continue;
+				float x = bounds[3 * i], y = bounds[3 * i + 1], r = bounds[3 * i + 2];
+				int c0 = (int) ((x - r - minX) / size), c1 = Math.min(cols - 1, (int) ((x + r - minX) / size));
+				int r0 = (int) ((y - r - minY) / size), r1 = Math.min(rows - 1, (int) ((y + r - minY) / size));
+				for (int row = r0; row <= r1; ++row)
+					for (int col = c0; col <= c1; ++col) {
+						int c = row * cols + col;
+						if (pass == 0)
+							++cellStart[c + 1];
+						else
+							cellItems[cellStart[c] + fill[c]++] = i;
+					}
+			}
+			if (pass == 0) {
+				for (int c = 0; c < cells; ++c)
+					cellStart[c + 1] += cellStart[c];
+				if (cellItems.length < cellStart[cells])
+					cellItems = new int[cellStart[cells]];
+				if (fill.length < cells)
+					fill = new int[cells];
+				for (int c = 0; c < cells; ++c)
+					fill[c] = 0;
+			}
+		}
+	}
+
+	protected static boolean finite(float f) {
+		return !Float.isNaN(f) && !Float.isInfinite(f);
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.core;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * The set of the grabbers found in the {@link remixlab.tersehandling.core.Agent#pool()}
+ * of any of the agents registered at a {@link remixlab.tersehandling.core.TerseHandler}
+ * (see {@link remixlab.tersehandling.core.TerseHandler#grabberRegistry()}).
+ * <p>
+ * The registry counts the pools holding each grabber and is updated by the agents
+ * as their pools change, so that it is never rebuilt. Grabbers are compared by
+ * identity. Iterate it without allocating as:
+ * {@code for (int i = 0; i < registry.size(); i++) registry.get(i)}.
+ */
+public class GrabberRegistry {
+	protected Grabbable[] grabbers = new Grabbable[16];
+	protected int size;
+	// grabber -> {index in grabbers, number of pools holding it}
+	protected IdentityHashMap<Grabbable, int[]> entries = new IdentityHashMap<Grabbable, int[]>();
+
+	/**
+	 * Returns the number of registered grabbers.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the {@code i}-th registered grabber. Removing a grabber may change the
+	 * index of the last one.
+	 */
+	public Grabbable get(int i) {
+		if (i < 0 || i >= size)
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		return grabbers[i];
+	}
+
+	/**
+	 * Returns {@code true} if {@code grabber} is in some agent pool.
+	 */
+	public boolean contains(Grabbable grabber) {
+		return entries.containsKey(grabber);
+	}
+
+	/**
+	 * Returns the number of agent pools holding {@code grabber}.
+	 */
+	public int references(Grabbable grabber) {
+		int[] entry = entries.get(grabber);
+		return entry == null ? 0 : entry[1];
+	}
+
+	/**
+	 * Returns a new list of the registered grabbers.
+	 */
+	public List<Grabbable> toList() {
+		List<Grabbable> list = new ArrayList<Grabbable>(size);
+		for (int i = 0; i < size; ++i)
+			list.add(grabbers[i]);
+		return list;
+	}
+
+	/**
+	 * Adds a reference to {@code grabber}. Returns {@code true} if it was not
+	 * registered yet.
+	 */
+	protected boolean add(Grabbable grabber) {
+		if (grabber == null)
+			return false;
+		int[] entry = entries.get(grabber);
+		if (entry != null) {
+			++entry[1];
+			return false;
+		}
+		if (size == grabbers.length) {
+			Grabbable[] array = new Grabbable[2 * size];
+			System.arraycopy(grabbers, 0, array, 0, size);
+			grabbers = array;
+		}
+		entries.put(grabber, new int[] { size, 1 });
+		grabbers[size++] = grabber;
+		return true;
+	}
+
+	/**
+	 * Removes a reference to {@code grabber}. Returns {@code true} if it was the last
+	 * one, i.e., if {@code grabber} is no longer registered.
+	 */
+	protected boolean remove(Grabbable grabber) {
+		int[] entry = entries.get(grabber);
+		if (entry == null || --entry[1] > 0)
+			return false;
+		entries.remove(grabber);
+		// move the last grabber into the hole
+		int i = entry[0];
+		Grabbable last = grabbers[--size];
+		grabbers[size] = null;
+		if (i < size) {
+			grabbers[i] = last;
+			entries.get(last)[0] = i;
+		}
+		return true;
+	}
+
+	protected void clear() {
+		for (int i = 0; i < size; ++i)
+			grabbers[i] = null;
+		size = 0;
+		entries.clear();
+	}
+}
@@ -11,10 +11,13 @@ package remixlab.tersehandling.core;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import remixlab.tersehandling.event.TerseEvent;
+import remixlab.util.LatencyHistogram;
 
 /**
  * Every TerseHandling application should instantiate a single
@@ -27,15 +30,30 @@ import remixlab.tersehandling.event.TerseEvent;
  * <p>
  * A handler continuously runs the following two loops during runtime:
  * 1. Agent_i.handle(Agent_i.feed()), (see {@link remixlab.tersehandling.core.Agent#handle(TerseEvent)}
- * and {@link remixlab.tersehandling.core.Agent#feed()}); and 2. eventTupleQueue.remove().perform(),
+ * and {@link remixlab.tersehandling.core.Agent#feed()}); and 2. eventTupleQueue.remove().perform() (followed by
+ * {@link remixlab.tersehandling.core.EventGrabberTuple#release()}),
  * an application object action callback.
+ * <p>
+ * The handler is not thread-safe, except for
+ * {@link remixlab.tersehandling.core.Agent#publish(TerseEvent)}, which device
+ * threads may call to feed their agents.
  * 
  * @author pierre
  */
 public class TerseHandler {
 	// D E V I C E S & E V E N T S
 	protected HashMap<String, Agent> agents;
-	protected LinkedList<EventGrabberTuple> eventTupleQueue;
+	protected EventTupleQueue eventTupleQueue;
+	protected ConcurrentEventQueue publishedEvents;
+	protected EventRecorder recorder;
+	protected GrabberRegistry grabberRegistry;
+	// L A T E N C Y
+	protected boolean measuringLatency;
+	protected LatencyHistogram inputLatency, dispatchLatency, performTime, frameLatency;
+	protected IdentityHashMap<Object, LatencyHistogram> actionLatencies;
+	// nanoTimestamps of the events performed at the last handle()
+	protected long[] performedNanos;
+	protected int performedCount;
 	
 	public static final String prettyVersion = "1.0.0-alpha.1";
 
@@ -45,20 +63,47 @@ public class TerseHandler {
 		// agents
 		agents = new HashMap<String, Agent>();
 		// events
-		eventTupleQueue = new LinkedList<EventGrabberTuple>();
+		eventTupleQueue = new EventTupleQueue();
+		publishedEvents = new ConcurrentEventQueue();
+		grabberRegistry = new GrabberRegistry();
+		// latency
+		inputLatency = new LatencyHistogram();
+		dispatchLatency = new LatencyHistogram();
+		performTime = new LatencyHistogram();
+		frameLatency = new LatencyHistogram();
+		actionLatencies = new IdentityHashMap<Object, LatencyHistogram>();
+		performedNanos = new long[64];
 	}
 
 	/**
 	 * This function should be called at the end of the main drawing loop.
 	 */
 	public void handle() {
+		// 0. Latency of the events performed at the previous call, which have been drawn
+		if (measuringLatency)
+			recordFrameLatency(System.nanoTime());
+		performedCount = 0;
+
 		// 1. Agents
+		publishedEvents.drain();
 		for (Agent agent : agents.values())
 			agent.handle(agent.feed());
 
 		// 2. Low level events
-		while (!eventTupleQueue.isEmpty())
-			eventTupleQueue.remove().perform();
+		while (!eventTupleQueue.isEmpty()) {
+			EventGrabberTuple eventTuple = eventTupleQueue.poll();
+			if (recorder != null)
+				recorder.record(eventTuple.agent(), eventTuple.grabber(), eventTuple.event());
+			if (measuringLatency) {
+				Object action = eventTuple.action();
+				long start = System.nanoTime();
+				eventTuple.perform();
+				recordLatency(eventTuple, action, start, System.nanoTime());
+			}
+			else
+				eventTuple.perform();
+			eventTuple.release();
+		}
 	}
 
 	/**
@@ -87,8 +132,11 @@ public class TerseHandler {
 	 * Registers the given agent.
 	 */
 	public void registerAgent(Agent agent) {
-		if (!isAgentRegistered(agent))
+		if (!isAgentRegistered(agent)) {
 			agents.put(agent.name(), agent);
+			for (Grabbable grabber : agent.pool())
+				grabberRegistry.add(grabber);
+		}
 		else {
 			System.out.println("Nothing done. An agent with the same name is already registered. Current agent names are:");
 			for (Agent ag : agents.values())
@@ -112,14 +160,18 @@ public class TerseHandler {
 	 * Unregisters the given agent and returns it.
 	 */
 	public Agent unregisterAgent(Agent agent) {
-		return agents.remove(agent.name());
+		return unregisterAgent(agent.name());
 	}
 
 	/**
 	 * Unregisters the given agent by its name and returns it.
 	 */
 	public Agent unregisterAgent(String name) {
-		return agents.remove(name);
+		Agent agent = agents.remove(name);
+		if (agent != null)
+			for (Grabbable grabber : agent.pool())
+				grabberRegistry.remove(grabber);
+		return agent;
 	}
 
 	/**
@@ -127,35 +179,229 @@ public class TerseHandler {
 	 */
 	public void unregisterAllAgents() {
 		agents.clear();
+		grabberRegistry.clear();
 	}
 
 	/**
 	 * Returns the event tuple queue. Rarely needed.
 	 */
-	public LinkedList<EventGrabberTuple> eventTupleQueue() {
+	public EventTupleQueue eventTupleQueue() {
 		return eventTupleQueue;
 	}
 
-	public void enqueueEventTuple(EventGrabberTuple eventTuple) {
+	/**
+	 * Returns the queue of the events published from other threads with
+	 * {@link remixlab.tersehandling.core.Agent#publish(TerseEvent)}, which are handled
+	 * at the beginning of {@link #handle()}. Rarely needed.
+	 */
+	public ConcurrentEventQueue publishedEventQueue() {
+		return publishedEvents;
+	}
+
+	/**
+	 * Returns the {@link remixlab.tersehandling.core.EventRecorder} which is given
+	 * every event right before it is performed, or {@code null} if none is set.
+	 */
+	public EventRecorder eventRecorder() {
+		return recorder;
+	}
+
+	/**
+	 * Sets the {@link #eventRecorder()}. Pass {@code null} to stop recording.
+	 */
+	public void setEventRecorder(EventRecorder r) {
+		recorder = r;
+	}
+
+	/**
+	 * Returns {@code true} if the input latency is being measured.
+	 * 
+	 * @see #enableLatencyMeasurement()
+	 */
+	public boolean isMeasuringLatency() {
+		return measuringLatency;
+	}
+
+	/**
+	 * Enables the input latency measurement. The handler then records, for every
+	 * performed event, the nanoseconds elapsed from the event creation (see
+	 * {@link remixlab.tersehandling.event.TerseEvent#nanoTimestamp()}):
+	 * <ol>
+	 * <li>till its grabber performed it, into {@link #inputLatency()}, the agent
+	 * {@link remixlab.tersehandling.core.Agent#latency()} and the
+	 * {@link #actionLatency(Object)};</li>
+	 * <li>till the end of the next {@link #handle()} call, i.e., till the frame
+	 * which shows it was drawn, into {@link #frameLatency()}.</li>
+	 * </ol>
+	 * It also records the time the tuples wait in the {@link #eventTupleQueue()},
+	 * into {@link #dispatchLatency()}, and the time the grabbers take to perform
+	 * them, into {@link #performTime()}.
+	 * 
+	 * @see #latencyReport()
+	 */
+	public void enableLatencyMeasurement() {
+		setLatencyMeasurement(true);
+	}
+
+	public void disableLatencyMeasurement() {
+		setLatencyMeasurement(false);
+	}
+
+	public void setLatencyMeasurement(boolean enable) {
+		measuringLatency = enable;
+		performedCount = 0;
+	}
+
+	/**
+	 * Returns the histogram of the nanoseconds elapsed from the events creation till
+	 * their grabbers performed them.
+	 */
+	public LatencyHistogram inputLatency() {
+		return inputLatency;
+	}
+
+	/**
+	 * Returns the histogram of the nanoseconds the event tuples waited in the
+	 * {@link #eventTupleQueue()}.
+	 */
+	public LatencyHistogram dispatchLatency() {
+		return dispatchLatency;
+	}
+
+	/**
+	 * Returns the histogram of the nanoseconds the grabbers took to perform the events.
+	 */
+	public LatencyHistogram performTime() {
+		return performTime;
+	}
+
+	/**
+	 * Returns the histogram of the nanoseconds elapsed from the events creation till
+	 * the end of the frame which shows them (i.e., the next {@link #handle()} call).
+	 */
+	public LatencyHistogram frameLatency() {
+		return frameLatency;
+	}
+
+	/**
+	 * Returns the input latency histogram of the events bound to {@code action}
+	 * (see {@link remixlab.tersehandling.core.EventGrabberTuple#action()}), or
+	 * {@code null} if none has been performed.
+	 */
+	public LatencyHistogram actionLatency(Object action) {
+		return actionLatencies.get(action);
+	}
+
+	/**
+	 * Returns the input latency histograms per action.
+	 */
+	public Map<Object, LatencyHistogram> actionLatencies() {
+		return actionLatencies;
+	}
+
+	/**
+	 * Resets all the latency histograms, the agents' ones included.
+	 */
+	public void resetLatencies() {
+		inputLatency.reset();
+		dispatchLatency.reset();
+		performTime.reset();
+		frameLatency.reset();
+		actionLatencies.clear();
+		for (Agent agent : agents.values())
+			agent.latency().reset();
+		performedCount = 0;
+	}
+
+	/**
+	 * Returns the latency histograms summary as CSV, one line per histogram,
+	 * with times in nanoseconds.
+	 */
+	public String latencyReport() {
+		StringBuilder report = new StringBuilder("histogram,count,mean,p50,p90,p99,max\n");
+		reportLatency(report, "input", inputLatency);
+		reportLatency(report, "dispatch", dispatchLatency);
+		reportLatency(report, "perform", performTime);
+		reportLatency(report, "frame", frameLatency);
+		for (Agent agent : agents.values())
+			reportLatency(report, "agent:" + agent.name(), agent.latency());
+		for (Map.Entry<Object, LatencyHistogram> entry : actionLatencies.entrySet())
+			reportLatency(report, "action:" + entry.getKey(), entry.getValue());
+		return report.toString();
+	}
+
+	protected void reportLatency(StringBuilder report, String name, LatencyHistogram h) {
+		report.append(name).append(',').append(h.count()).append(',').append(Math.round(h.mean())).append(',')
+				.append(h.percentile(0.5)).append(',').append(h.percentile(0.9)).append(',').append(h.percentile(0.99))
+				.append(',').append(h.max()).append('\n');
+	}
+
+	protected void recordLatency(EventGrabberTuple eventTuple, Object action, long start, long end) {
+		long created = eventTuple.event().nanoTimestamp();
+		long latency = end - created;
+		inputLatency.record(latency);
+		performTime.record(end - start);
+		if (eventTuple.enqueueTime != 0)
+			dispatchLatency.record(start - eventTuple.enqueueTime);
+		if (eventTuple.agent() != null)
+			eventTuple.agent().latency().record(latency);
+		if (action != null) {
+			LatencyHistogram h = actionLatencies.get(action);
+			if (h == null) {
+				h = new LatencyHistogram();
+				actionLatencies.put(action, h);
+			}
+			h.record(latency);
+		}
+		if (performedCount == performedNanos.length) {
+			long[] nanos = new long[2 * performedNanos.length];
+			System.arraycopy(performedNanos, 0, nanos, 0, performedCount);
+			performedNanos = nanos;
+		}
+		performedNanos[performedCount++] = created;
+	}
+
+	protected void recordFrameLatency(long now) {
+		for (int i = 0; i < performedCount; ++i)
+			frameLatency.record(now - performedNanos[i]);
+	}
+
+	/**
+	 * Enqueues {@code eventTuple}, unless it is already in the
+	 * {@link #eventTupleQueue()} (an O(1) test). Returns {@code true} if it was
+	 * enqueued.
+	 */
+	public boolean enqueueEventTuple(EventGrabberTuple eventTuple) {
 		if (!eventTupleQueue.contains(eventTuple))
-			eventTuple.enqueue(eventTupleQueue);
+			return eventTuple.enqueue(eventTupleQueue);
+		return false;
 	}
 
 	/**
 	 * Removes the given event from the event queue. No action
-	 * is executed.
+	 * is executed. The removed tuples are released (see
+	 * {@link remixlab.tersehandling.core.EventGrabberTuple#release()}), as if they were
+	 * performed.
 	 * 
 	 * @param event to be removed.
 	 */
 	public void removeEventTuple(TerseEvent event) {
-		eventTupleQueue.remove(event);
+		for (Iterator<EventGrabberTuple> it = eventTupleQueue.iterator(); it.hasNext();) {
+			EventGrabberTuple eventTuple = it.next();
+			if (eventTuple.event() == event) {
+				it.remove();
+				eventTuple.release();
+			}
+		}
 	}
 
 	/**
-	 * Clears the event queue. Nothing is executed.
+	 * Clears the event queue, releasing its tuples. Nothing is executed.
 	 */
 	public void removeAllEventTuples() {
-		eventTupleQueue.clear();
+		EventGrabberTuple eventTuple;
+		while ((eventTuple = eventTupleQueue.poll()) != null)
+			eventTuple.release();
 	}
 
 	/**
@@ -219,15 +465,19 @@ public class TerseHandler {
 	}
 
 	/**
-	 * Returns a list containing all Grabbable objects registered at all agents.
+	 * Returns a list containing all Grabbable objects registered at all agents,
+	 * i.e., a copy of the {@link #grabberRegistry()}.
 	 */
 	public List<Grabbable> globalGrabberList() {
-		List<Grabbable> msGrabberPool = new ArrayList<Grabbable>();
-		for (Agent device : agents.values())
-			for (Grabbable grabber : device.pool())
-				if (!msGrabberPool.contains(grabber))
-					msGrabberPool.add(grabber);
+		return grabberRegistry.toList();
+	}
 
-		return msGrabberPool;
+	/**
+	 * Returns the registry of the grabbers found in any registered agent pool,
+	 * which is kept up to date as the pools change. Prefer it to
+	 * {@link #globalGrabberList()} to iterate the grabbers without allocating.
+	 */
+	public GrabberRegistry grabberRegistry() {
+		return grabberRegistry;
 	}
 }
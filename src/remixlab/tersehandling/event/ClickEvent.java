@@ -95,6 +95,11 @@ public class ClickEvent extends TerseEvent {
 		return new ClickShortcut(modifiers(), button(), clickCount());
 	}
 	
+	@Override
+	public long shortcutId() {
+		return ClickShortcut.id(modifiers, button, numberOfClicks);
+	}
+	
 	public float x() {
 		return x;
 	}
@@ -38,7 +38,7 @@ public class DOF1Event extends MotionEvent {
 				.isEquals();
 	}
 
-	protected Float x, dx;
+	protected float x, dx;
 
 	public DOF1Event(float x, int modifiers, int button) {
 		super(modifiers, button);
@@ -77,8 +77,8 @@ public class DOF1Event extends MotionEvent {
 
 	protected DOF1Event(DOF1Event other) {
 		super(other);
-		this.x = new Float(other.x);
-		this.dx = new Float(other.dx);
+		this.x = other.x;
+		this.dx = other.dx;
 	}
 
 	@Override
@@ -86,6 +86,31 @@ public class DOF1Event extends MotionEvent {
 		return new DOF1Event(this);
 	}
 
+	/**
+	 * Reinitializes this (pooled) event, as the constructor having the same
+	 * parameters does, and returns it.
+	 * 
+	 * @see remixlab.tersehandling.event.EventPool
+	 */
+	public DOF1Event set(DOF1Event prevEvent, float x, int modifiers, int button) {
+		set(modifiers, button);
+		this.x = x;
+		this.dx = 0f;
+		setPreviousEvent(prevEvent);
+		return this;
+	}
+
+	/**
+	 * Copies {@code other} into this event and returns it. Allocation free version
+	 * of {@link #get()}.
+	 */
+	public DOF1Event set(DOF1Event other) {
+		super.set(other);
+		this.x = other.x;
+		this.dx = other.dx;
+		return this;
+	}
+
 	@Override
 	public void setPreviousEvent(MotionEvent prevEvent) {
 		if (prevEvent != null)
@@ -118,6 +143,21 @@ public class DOF1Event extends MotionEvent {
 		return x() - dx();
 	}
 
+	@Override
+	public boolean accumulate(MotionEvent event) {
+		if (!super.accumulate(event))
+			return false;
+		DOF1Event other = (DOF1Event) event;
+		x = other.x;
+		dx += other.dx;
+		distance = Math.abs(dx);
+		if (delay == 0)
+			speed = distance;
+		else
+			speed = distance / (float) delay;
+		return true;
+	}
+
 	@Override
 	public void modulate(float[] sens) {
 		if (sens != null)
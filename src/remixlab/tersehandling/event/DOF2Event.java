@@ -43,8 +43,8 @@ public class DOF2Event extends MotionEvent {
 				.isEquals();
 	}
 
-	protected Float x, dx;
-	protected Float y, dy;
+	protected float x, dx;
+	protected float y, dy;
 
 	public DOF2Event(float x, float y, int modifiers, int button) {
 		super(modifiers, button);
@@ -101,10 +101,10 @@ public class DOF2Event extends MotionEvent {
 
 	protected DOF2Event(DOF2Event other) {
 		super(other);
-		this.x = new Float(other.x);
-		this.dx = new Float(other.dx);
-		this.y = new Float(other.y);
-		this.dy = new Float(other.dy);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
 	}
 
 	@Override
@@ -112,6 +112,35 @@ public class DOF2Event extends MotionEvent {
 		return new DOF2Event(this);
 	}
 
+	/**
+	 * Reinitializes this (pooled) event, as the constructor having the same
+	 * parameters does, and returns it.
+	 * 
+	 * @see remixlab.tersehandling.event.EventPool
+	 */
+	public DOF2Event set(DOF2Event prevEvent, float x, float y, int modifiers, int button) {
+		set(modifiers, button);
+		this.x = x;
+		this.dx = 0f;
+		this.y = y;
+		this.dy = 0f;
+		setPreviousEvent(prevEvent);
+		return this;
+	}
+
+	/**
+	 * Copies {@code other} into this event and returns it. Allocation free version
+	 * of {@link #get()}.
+	 */
+	public DOF2Event set(DOF2Event other) {
+		super.set(other);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
+		return this;
+	}
+
 	@Override
 	public void setPreviousEvent(MotionEvent prevEvent) {
 		if (prevEvent != null)
@@ -158,6 +187,23 @@ public class DOF2Event extends MotionEvent {
 		return y() - dy();
 	}
 
+	@Override
+	public boolean accumulate(MotionEvent event) {
+		if (!super.accumulate(event))
+			return false;
+		DOF2Event other = (DOF2Event) event;
+		x = other.x;
+		dx += other.dx;
+		y = other.y;
+		dy += other.dy;
+		distance = Util.distance(x, y, prevX(), prevY());
+		if (delay == 0)
+			speed = distance;
+		else
+			speed = distance / (float) delay;
+		return true;
+	}
+
 	@Override
 	public void modulate(float[] sens) {
 		if (sens != null)
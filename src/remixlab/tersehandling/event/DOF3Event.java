@@ -46,9 +46,9 @@ public class DOF3Event extends MotionEvent {
 				.isEquals();
 	}
 
-	protected Float x, dx;
-	protected Float y, dy;
-	protected Float z, dz;
+	protected float x, dx;
+	protected float y, dy;
+	protected float z, dz;
 
 	public DOF3Event(float x, float y, float z, int modifiers, int button) {
 		super(modifiers, button);
@@ -99,12 +99,12 @@ public class DOF3Event extends MotionEvent {
 
 	protected DOF3Event(DOF3Event other) {
 		super(other);
-		this.x = new Float(other.x);
-		this.dx = new Float(other.dx);
-		this.y = new Float(other.y);
-		this.dy = new Float(other.dy);
-		this.z = new Float(other.z);
-		this.dz = new Float(other.z);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
+		this.z = other.z;
+		this.dz = other.dz;
 	}
 
 	@Override
@@ -112,6 +112,39 @@ public class DOF3Event extends MotionEvent {
 		return new DOF3Event(this);
 	}
 
+	/**
+	 * Reinitializes this (pooled) event, as the constructor having the same
+	 * parameters does, and returns it.
+	 * 
+	 * @see remixlab.tersehandling.event.EventPool
+	 */
+	public DOF3Event set(DOF3Event prevEvent, float x, float y, float z, int modifiers, int button) {
+		set(modifiers, button);
+		this.x = x;
+		this.dx = 0f;
+		this.y = y;
+		this.dy = 0f;
+		this.z = z;
+		this.dz = 0f;
+		setPreviousEvent(prevEvent);
+		return this;
+	}
+
+	/**
+	 * Copies {@code other} into this event and returns it. Allocation free version
+	 * of {@link #get()}.
+	 */
+	public DOF3Event set(DOF3Event other) {
+		super.set(other);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
+		this.z = other.z;
+		this.dz = other.dz;
+		return this;
+	}
+
 	@Override
 	public void setPreviousEvent(MotionEvent prevEvent) {
 		super.setPreviousEvent(prevEvent);
@@ -176,6 +209,25 @@ public class DOF3Event extends MotionEvent {
 		return z() - dz();
 	}
 
+	@Override
+	public boolean accumulate(MotionEvent event) {
+		if (!super.accumulate(event))
+			return false;
+		DOF3Event other = (DOF3Event) event;
+		x = other.x;
+		dx += other.dx;
+		y = other.y;
+		dy += other.dy;
+		z = other.z;
+		dz += other.dz;
+		distance = Util.distance(x, y, z, prevX(), prevY(), prevZ());
+		if (delay == 0)
+			speed = distance;
+		else
+			speed = distance / (float) delay;
+		return true;
+	}
+
 	@Override
 	public void modulate(float[] sens) {
 		if (sens != null)
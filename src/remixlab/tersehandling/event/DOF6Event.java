@@ -56,13 +56,13 @@ public class DOF6Event extends MotionEvent {
 				.append(drz, other.drz).isEquals();
 	}
 
-	protected Float x, dx;
-	protected Float y, dy;
-	protected Float z, dz;
+	protected float x, dx;
+	protected float y, dy;
+	protected float z, dz;
 
-	protected Float rx, drx;
-	protected Float ry, dry;
-	protected Float rz, drz;
+	protected float rx, drx;
+	protected float ry, dry;
+	protected float rz, drz;
 
 	public DOF6Event(float x, float y, float z, float rx, float ry, float rz, int modifiers, int button) {
 		super(modifiers, button);
@@ -146,18 +146,18 @@ public class DOF6Event extends MotionEvent {
 
 	protected DOF6Event(DOF6Event other) {
 		super(other);
-		this.x = new Float(other.x);
-		this.dx = new Float(other.dx);
-		this.y = new Float(other.y);
-		this.dy = new Float(other.dy);
-		this.z = new Float(other.z);
-		this.dz = new Float(other.z);
-		this.rx = new Float(other.rx);
-		this.drx = new Float(other.drx);
-		this.ry = new Float(other.ry);
-		this.dry = new Float(other.dry);
-		this.rz = new Float(other.rz);
-		this.drz = new Float(other.drz);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
+		this.z = other.z;
+		this.dz = other.dz;
+		this.rx = other.rx;
+		this.drx = other.drx;
+		this.ry = other.ry;
+		this.dry = other.dry;
+		this.rz = other.rz;
+		this.drz = other.drz;
 	}
 
 	@Override
@@ -165,6 +165,51 @@ public class DOF6Event extends MotionEvent {
 		return new DOF6Event(this);
 	}
 
+	/**
+	 * Reinitializes this (pooled) event, as the constructor having the same
+	 * parameters does, and returns it.
+	 * 
+	 * @see remixlab.tersehandling.event.EventPool
+	 */
+	public DOF6Event set(DOF6Event prevEvent, float x, float y, float z, float rx, float ry, float rz, int modifiers, int button) {
+		set(modifiers, button);
+		this.x = x;
+		this.dx = 0f;
+		this.y = y;
+		this.dy = 0f;
+		this.z = z;
+		this.dz = 0f;
+		this.rx = rx;
+		this.drx = 0f;
+		this.ry = ry;
+		this.dry = 0f;
+		this.rz = rz;
+		this.drz = 0f;
+		setPreviousEvent(prevEvent);
+		return this;
+	}
+
+	/**
+	 * Copies {@code other} into this event and returns it. Allocation free version
+	 * of {@link #get()}.
+	 */
+	public DOF6Event set(DOF6Event other) {
+		super.set(other);
+		this.x = other.x;
+		this.dx = other.dx;
+		this.y = other.y;
+		this.dy = other.dy;
+		this.z = other.z;
+		this.dz = other.dz;
+		this.rx = other.rx;
+		this.drx = other.drx;
+		this.ry = other.ry;
+		this.dry = other.dry;
+		this.rz = other.rz;
+		this.drz = other.drz;
+		return this;
+	}
+
 	@Override
 	public void setPreviousEvent(MotionEvent prevEvent) {
 		super.setPreviousEvent(prevEvent);
@@ -286,6 +331,32 @@ public class DOF6Event extends MotionEvent {
 		return rz() - drz();
 	}
 
+	@Override
+	public boolean accumulate(MotionEvent event) {
+		if (!super.accumulate(event))
+			return false;
+		DOF6Event other = (DOF6Event) event;
+		x = other.x;
+		dx += other.dx;
+		y = other.y;
+		dy += other.dy;
+		z = other.z;
+		dz += other.dz;
+		rx = other.rx;
+		drx += other.drx;
+		ry = other.ry;
+		dry += other.dry;
+		rz = other.rz;
+		drz += other.drz;
+		distance = Util.distance(x, y, z, rx, ry, rz,
+				prevX(), prevY(), prevZ(), prevRX(), prevRY(), prevRZ());
+		if (delay == 0)
+			speed = distance;
+		else
+			speed = distance / (float) delay;
+		return true;
+	}
+
 	@Override
 	public void modulate(float[] sens) {
 		if (sens != null)
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.event;
+
+/**
+ * Compact binary encoding of the {@link remixlab.tersehandling.event.TerseEvent}s
+ * state, meant for recording and replaying input. The codec is independent of the
+ * actual byte storage, which is abstracted by the {@link Output} and
+ * {@link Input} interfaces.
+ * <p>
+ * An encoded event starts with its {@link #kind(TerseEvent)} byte. It is decoded
+ * into a {@link Builder}, from which an event of that kind (e.g., a generic event,
+ * which may hold an action) is instantiated, see {@link #read(Input, Builder)}.
+ */
+public class EventCodec {
+	/**
+	 * Byte sink the events are written to.
+	 */
+	public interface Output {
+		void writeByte(int b);
+
+		void writeInt(int i);
+
+		void writeLong(long l);
+
+		void writeFloat(float f);
+	}
+
+	/**
+	 * Byte source the events are read from.
+	 */
+	public interface Input {
+		int readByte();
+
+		int readInt();
+
+		long readLong();
+
+		float readFloat();
+	}
+
+	public static final int TERSE = 0;
+	public static final int DOF1 = 1;
+	public static final int DOF2 = 2;
+	public static final int DOF3 = 3;
+	public static final int DOF6 = 4;
+	public static final int CLICK = 5;
+	public static final int KEYBOARD = 6;
+
+	/**
+	 * Returns the kind of {@code event}, i.e., one of {@link #DOF1}, {@link #DOF2},
+	 * {@link #DOF3}, {@link #DOF6}, {@link #CLICK}, {@link #KEYBOARD} or
+	 * {@link #TERSE} (any other event, of which only the modifiers and timestamp
+	 * are encoded).
+	 */
+	public static int kind(TerseEvent event) {
+		if (event instanceof DOF1Event)
+			return DOF1;
+		if (event instanceof DOF2Event)
+			return DOF2;
+		if (event instanceof DOF3Event)
+			return DOF3;
+		if (event instanceof DOF6Event)
+			return DOF6;
+		if (event instanceof ClickEvent)
+			return CLICK;
+		if (event instanceof KeyboardEvent)
+			return KEYBOARD;
+		return TERSE;
+	}
+
+	/**
+	 * Returns the number of bytes {@link #write(TerseEvent, Output)} takes at most.
+	 */
+	public static int maxSize() {
+		// kind + terse + motion + 12 floats
+		return 1 + 12 + 21 + 48;
+	}
+
+	/**
+	 * Writes {@code event} (its kind first) to {@code out}.
+	 */
+	public static void write(TerseEvent event, Output out) {
+		int kind = kind(event);
+		out.writeByte(kind);
+		out.writeInt(event.modifiers);
+		out.writeLong(event.timestamp);
+		if (event instanceof MotionEvent) {
+			MotionEvent motion = (MotionEvent) event;
+			out.writeInt(motion.button);
+			out.writeByte(motion.rel ? 1 : 0);
+			out.writeLong(motion.delay);
+			out.writeFloat(motion.distance);
+			out.writeFloat(motion.speed);
+		}
+		switch (kind) {
+		case DOF1:
+			DOF1Event e1 = (DOF1Event) event;
+			out.writeFloat(e1.x);
+			out.writeFloat(e1.dx);
+			break;
+		case DOF2:
+			DOF2Event e2 = (DOF2Event) event;
+			out.writeFloat(e2.x);
+			out.writeFloat(e2.dx);
+			out.writeFloat(e2.y);
+			out.writeFloat(e2.dy);
+			break;
+		case DOF3:
+			DOF3Event e3 = (DOF3Event) event;
+			out.writeFloat(e3.x);
+			out.writeFloat(e3.dx);
+			out.writeFloat(e3.y);
+			out.writeFloat(e3.dy);
+			out.writeFloat(e3.z);
+			out.writeFloat(e3.dz);
+			break;
+		case DOF6:
+			DOF6Event e6 = (DOF6Event) event;
+			out.writeFloat(e6.x);
+			out.writeFloat(e6.dx);
+			out.writeFloat(e6.y);
+			out.writeFloat(e6.dy);
+			out.writeFloat(e6.z);
+			out.writeFloat(e6.dz);
+			out.writeFloat(e6.rx);
+			out.writeFloat(e6.drx);
+			out.writeFloat(e6.ry);
+			out.writeFloat(e6.dry);
+			out.writeFloat(e6.rz);
+			out.writeFloat(e6.drz);
+			break;
+		case CLICK:
+			ClickEvent c = (ClickEvent) event;
+			out.writeFloat(c.x);
+			out.writeFloat(c.y);
+			out.writeInt(c.button);
+			out.writeInt(c.numberOfClicks);
+			break;
+		case KEYBOARD:
+			KeyboardEvent k = (KeyboardEvent) event;
+			// -1 encodes null
+			out.writeInt(k.key == null ? -1 : k.key.charValue());
+			out.writeInt(k.vKey == null ? -1 : k.vKey.intValue());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * The state of a decoded event (see {@link #read(Input, Builder)}). Instantiate the
+	 * event with the constructor of the desired class (e.g., a generic event, so that
+	 * it may hold an action) from the builder values, and then call
+	 * {@link #restore(TerseEvent)} to restore the state the constructors don't set.
+	 */
+	public static class Builder {
+		protected int kind;
+		protected int modifiers;
+		protected long timestamp;
+		protected int button;
+		protected boolean relative;
+		protected long delay;
+		protected float distance, speed;
+		// x, dx, y, dy, z, dz, rx, drx, ry, dry, rz, drz
+		protected float[] values = new float[12];
+		protected int clicks;
+		protected Character key;
+		protected Integer vKey;
+
+		/**
+		 * Returns the event kind (see {@link EventCodec#kind(TerseEvent)}).
+		 */
+		public int kind() {
+			return kind;
+		}
+
+		public int modifiers() {
+			return modifiers;
+		}
+
+		public long timestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * Returns the button of motion and click events.
+		 */
+		public int button() {
+			return button;
+		}
+
+		public float x() {
+			return values[0];
+		}
+
+		public float y() {
+			return values[2];
+		}
+
+		public float z() {
+			return values[4];
+		}
+
+		public float rx() {
+			return values[6];
+		}
+
+		public float ry() {
+			return values[8];
+		}
+
+		public float rz() {
+			return values[10];
+		}
+
+		public int clickCount() {
+			return clicks;
+		}
+
+		public Character key() {
+			return key;
+		}
+
+		public Integer vKey() {
+			return vKey;
+		}
+
+		/**
+		 * Restores into {@code event}, which should have been instantiated from this
+		 * builder, the timestamp and, if it is a motion event, its deltas, relative
+		 * mode, delay, distance and speed. Returns {@code event}.
+		 */
+		public <E extends TerseEvent> E restore(E event) {
+			event.timestamp = timestamp;
+			if (!(event instanceof MotionEvent))
+				return event;
+			MotionEvent motion = (MotionEvent) event;
+			motion.rel = relative;
+			motion.delay = delay;
+			motion.distance = distance;
+			motion.speed = speed;
+			switch (EventCodec.kind(event)) {
+			case DOF1:
+				((DOF1Event) event).dx = values[1];
+				break;
+			case DOF2:
+				((DOF2Event) event).dx = values[1];
+				((DOF2Event) event).dy = values[3];
+				break;
+			case DOF3:
+				((DOF3Event) event).dx = values[1];
+				((DOF3Event) event).dy = values[3];
+				((DOF3Event) event).dz = values[5];
+				break;
+			case DOF6:
+				DOF6Event e6 = (DOF6Event) event;
+				e6.dx = values[1];
+				e6.dy = values[3];
+				e6.dz = values[5];
+				e6.drx = values[7];
+				e6.dry = values[9];
+				e6.drz = values[11];
+				break;
+			default:
+				break;
+			}
+			return event;
+		}
+	}
+
+	/**
+	 * Reads the next event (its kind first) from {@code in} into {@code target}.
+	 */
+	public static void read(Input in, Builder target) {
+		target.kind = in.readByte();
+		target.modifiers = in.readInt();
+		target.timestamp = in.readLong();
+		if (target.kind >= DOF1 && target.kind <= DOF6) {
+			target.button = in.readInt();
+			target.relative = in.readByte() != 0;
+			target.delay = in.readLong();
+			target.distance = in.readFloat();
+			target.speed = in.readFloat();
+		}
+		int n = 0;
+		switch (target.kind) {
+		case DOF1:
+			n = 2;
+			break;
+		case DOF2:
+			n = 4;
+			break;
+		case DOF3:
+			n = 6;
+			break;
+		case DOF6:
+			n = 12;
+			break;
+		case CLICK:
+			target.values[0] = in.readFloat();
+			target.values[2] = in.readFloat();
+			target.button = in.readInt();
+			target.clicks = in.readInt();
+			break;
+		case KEYBOARD:
+			int key = in.readInt();
+			int vKey = in.readInt();
+			target.key = key < 0 ? null : Character.valueOf((char) key);
+			target.vKey = vKey < 0 ? null : Integer.valueOf(vKey);
+			break;
+		default:
+			break;
+		}
+		for (int i = 0; i < n; ++i)
+			target.values[i] = in.readFloat();
+	}
+}
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.tersehandling.event;
+
+/**
+ * A pool of recyclable {@link remixlab.tersehandling.event.TerseEvent}s, meant for
+ * high-rate input: once warmed up, a device which {@link #obtain()}s its events
+ * from a pool (reinitializing them with their {@code set()} methods, e.g.,
+ * {@link remixlab.tersehandling.event.DOF2Event#set(DOF2Event, float, float, int, int)})
+ * does not allocate them anymore.
+ * <p>
+ * Obtained events are returned to the pool by {@link remixlab.tersehandling.event.TerseEvent#release()},
+ * which the {@link remixlab.tersehandling.core.TerseHandler} calls once the event
+ * has been performed. Hence, the application objects (as well as the device
+ * itself) should not keep references to pooled events: they should keep copies
+ * instead (see {@link remixlab.tersehandling.event.TerseEvent#get()}).
+ * <p>
+ * Implement {@link #create()}, e.g.:
+ * 
+ * <pre>
+ * EventPool&lt;DOF2Event&gt; pool = new EventPool&lt;DOF2Event&gt;() {
+ * 	protected DOF2Event create() {
+ * 		return new DOF2Event(0, 0);
+ * 	}
+ * };
+ * </pre>
+ * 
+ * @param <E> type of the pooled events
+ */
+public abstract class EventPool<E extends TerseEvent> {
+	protected Object[] free;
+	protected int count;
+
+	/**
+	 * Same as {@code this(16)}.
+	 */
+	public EventPool() {
+		this(16);
+	}
+
+	/**
+	 * Defines a pool which initially holds room for {@code capacity} released
+	 * events.
+	 */
+	public EventPool(int capacity) {
+		free = new Object[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Returns a new event, to be reinitialized by {@link #obtain()}.
+	 */
+	protected abstract E create();
+
+	/**
+	 * Returns a released event, or a new one if there is none. The returned event
+	 * values are stale: reinitialize them before use.
+	 */
+	@SuppressWarnings("unchecked")
+	public E obtain() {
+		E event;
+		if (count == 0) {
+			event = create();
+			event.pool = this;
+		}
+		else {
+			event = (E) free[--count];
+			free[count] = null;
+		}
+		event.recycled = false;
+		return event;
+	}
+
+	/**
+	 * Returns {@code event} to the pool. Does nothing (and returns {@code false}) if
+	 * the {@code event} was not obtained from this pool or was already released.
+	 */
+	public boolean release(TerseEvent event) {
+		if (event == null || event.pool != this || event.recycled)
+			return false;
+		if (count == free.length) {
+			Object[] larger = new Object[2 * free.length];
+			System.arraycopy(free, 0, larger, 0, count);
+			free = larger;
+		}
+		event.recycled = true;
+		free[count++] = event;
+		return true;
+	}
+
+	/**
+	 * Returns the number of released events held by the pool.
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Discards all the released events held by the pool.
+	 */
+	public void clear() {
+		for (int i = 0; i < count; ++i)
+			free[i] = null;
+		count = 0;
+	}
+}
@@ -158,6 +158,11 @@ public class KeyboardEvent extends TerseEvent {
 		return new KeyboardShortcut(modifiers(), keyCode());
 	}
 
+	@Override
+	public long shortcutId() {
+		return vKey == null ? KeyboardShortcut.noVKeyId(modifiers) : KeyboardShortcut.id(modifiers, vKey);
+	}
+
 	// TODO hack
 	public KeyboardShortcut keyShortcut() {
 		return new KeyboardShortcut(key());
@@ -45,7 +45,7 @@ public class MotionEvent extends TerseEvent {
 				.isEquals();
 	}
 
-	protected Integer button;
+	protected int button;
 	protected boolean rel;
 
 	// defaulting to zero:
@@ -72,7 +72,7 @@ public class MotionEvent extends TerseEvent {
 
 	protected MotionEvent(MotionEvent other) {
 		super(other);
-		this.button = new Integer(other.button);
+		this.button = other.button;
 		this.delay = other.delay;
 		this.distance = other.distance;
 		this.speed = other.speed;
@@ -84,6 +84,33 @@ public class MotionEvent extends TerseEvent {
 		return new MotionEvent(this);
 	}
 
+	/**
+	 * Resets the event modifiers, button and timestamp, and makes it absolute. Used
+	 * by subclasses to reinitialize pooled events.
+	 */
+	protected void set(int modifiers, int button) {
+		set(modifiers);
+		this.button = button;
+		rel = false;
+		delay = 0;
+		distance = 0;
+		speed = 0;
+	}
+
+	/**
+	 * Copies {@code other} into this event. Used by subclasses to implement
+	 * allocation free copies.
+	 */
+	protected void set(MotionEvent other) {
+		modifiers = other.modifiers;
+		timestamp = other.timestamp;
+		button = other.button;
+		delay = other.delay;
+		distance = other.distance;
+		speed = other.speed;
+		rel = other.rel;
+	}
+
 	public void modulate(float[] sens) {
 	}
 
@@ -96,6 +123,11 @@ public class MotionEvent extends TerseEvent {
 		return new ButtonShortcut(modifiers(), button());
 	}
 
+	@Override
+	public long shortcutId() {
+		return ButtonShortcut.id(modifiers, button);
+	}
+
 	public long delay() {
 		return delay;
 	}
@@ -132,6 +164,25 @@ public class MotionEvent extends TerseEvent {
 		}
 	}
 
+	/**
+	 * Accumulates {@code event}, the relative event which immediately follows this
+	 * (relative) one, into this event, so that performing it is equivalent to
+	 * performing both: the deltas are added up and the position and timestamp are
+	 * taken from {@code event}. Returns {@code false} (and leaves this event
+	 * untouched) if the events are not of the same class, are not both relative or
+	 * have different modifiers or button.
+	 */
+	public boolean accumulate(MotionEvent event) {
+		if (event == null || event.getClass() != getClass() || !isRelative() || !event.isRelative())
+			return false;
+		if (modifiers != event.modifiers || button != event.button)
+			return false;
+		// the nanoTimestamp is kept: the latency is measured from the oldest input
+		timestamp = event.timestamp();
+		delay += event.delay();
+		return true;
+	}
+
 	// --
 
 	/**
@@ -39,23 +39,31 @@ public class TerseEvent implements EventConstants, Copyable {
 		.isEquals();
 	}
 	
-  protected final Integer modifiers;
-  protected Long timestamp;
+  protected int modifiers;
+  protected long timestamp;
+  // System.nanoTime() at creation, to measure the input latency
+  protected long nanoTimestamp;
+  // the pool the event was obtained from, if any, and whether it is back in it
+  protected EventPool<?> pool;
+  protected boolean recycled;
   
   public TerseEvent() {
     this.modifiers = 0;
     timestamp = System.currentTimeMillis();
+    nanoTimestamp = System.nanoTime();
   }
  
   public TerseEvent(Integer modifiers) {
     this.modifiers = modifiers;
     //this.action = null;
     timestamp = System.currentTimeMillis();
+    nanoTimestamp = System.nanoTime();
   }  
   
   protected TerseEvent(TerseEvent other) {
-		this.modifiers = new Integer(other.modifiers);
-		this.timestamp = new Long(other.timestamp);
+		this.modifiers = other.modifiers;
+		this.timestamp = other.timestamp;
+		this.nanoTimestamp = other.nanoTimestamp;
 	}  
   
   @Override
@@ -63,10 +71,50 @@ public class TerseEvent implements EventConstants, Copyable {
 		return new TerseEvent(this);
 	}
   
+  /**
+   * Returns the event to the {@link remixlab.tersehandling.event.EventPool} it was
+   * obtained from, so that it may be reused. Does nothing if the event was not
+   * obtained from a pool, or if it was already released.
+   * <p>
+   * Called by the {@link remixlab.tersehandling.core.TerseHandler} once the event
+   * has been performed. The event should not be accessed afterwards.
+   */
+  public void release() {
+  	if (pool != null)
+  		pool.release(this);
+  }
+  
+  /**
+   * Returns {@code true} if the event was obtained from an
+   * {@link remixlab.tersehandling.event.EventPool}.
+   */
+  public boolean isPooled() {
+  	return pool != null;
+  }
+  
+  /**
+   * Resets the event modifiers and timestamp. Used by subclasses to reinitialize
+   * pooled events.
+   */
+  protected void set(int modifiers) {
+  	this.modifiers = modifiers;
+  	timestamp = System.currentTimeMillis();
+  	nanoTimestamp = System.nanoTime();
+  }
+  
   public Shortcut shortcut() {
   	return new Shortcut(modifiers());
   }
   
+  /**
+   * Returns the {@link remixlab.tersehandling.event.shortcut.Shortcut#id()} of the
+   * event {@link #shortcut()}, without allocating it. Subclasses overriding
+   * {@link #shortcut()} should override this method too.
+   */
+  public long shortcutId() {
+  	return Shortcut.id(modifiers);
+  }
+  
   public Integer modifiers() {
     return modifiers;
   }
@@ -75,6 +123,16 @@ public class TerseEvent implements EventConstants, Copyable {
   	return timestamp;
   }
   
+  /**
+   * Returns the {@code System.nanoTime()} of the event creation, which is only
+   * meaningful relative to other {@code System.nanoTime()} values. Used to measure
+   * the input latency, see
+   * {@link remixlab.tersehandling.core.TerseHandler#enableLatencyMeasurement()}.
+   */
+  public long nanoTimestamp() {
+  	return nanoTimestamp;
+  }
+  
   public boolean isNull() {
   	return false;
   }
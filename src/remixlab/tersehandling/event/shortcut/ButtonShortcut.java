@@ -127,6 +127,18 @@ public final class ButtonShortcut extends Shortcut implements Copyable {
 		return r;
 	}
 	
+	@Override
+	public long id() {
+		return id(mask, button);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the {@code ButtonShortcut(mask, button)} shortcut.
+	 */
+	public static long id(int mask, int button) {
+		return pack(2, mask, button);
+	}
+	
 	/**
 	 * Internal convenience function.
 	 */
@@ -124,6 +124,20 @@ public class ClickShortcut extends Shortcut implements Copyable {
 		return description;
 	}
 	
+	@Override
+	public long id() {
+		return id(mask, button, numberOfClicks);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the {@code ClickShortcut(mask, button, clicks)} shortcut.
+	 */
+	public static long id(int mask, int button, int clicks) {
+		if(clicks <= 0)
+			clicks = 1;
+		return pack(3, mask, ((button & 0x3FFF) << 14) | (clicks & 0x3FFF));
+	}
+	
 	protected final Integer numberOfClicks;
 	protected final Integer button;
 }
@@ -106,6 +106,35 @@ public final class KeyboardShortcut extends Shortcut implements Copyable {
 		return description;
 	}
 
+	@Override
+	public long id() {
+		if(key != null)
+			return id(key);
+		return vKey == null ? noVKeyId(mask) : id(mask, vKey);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the {@code KeyboardShortcut(mask, vKey)} shortcut.
+	 */
+	public static long id(int mask, int vKey) {
+		return pack(4, mask, vKey);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the {@code KeyboardShortcut(mask, null)} shortcut
+	 * (i.e., having no virtual key), which differs from the one of virtual key 0.
+	 */
+	public static long noVKeyId(int mask) {
+		return pack(6, mask, 0);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the {@code KeyboardShortcut(key)} shortcut.
+	 */
+	public static long id(char key) {
+		return pack(5, TH_NOMODIFIER_MASK, key);
+	}
+	
 	protected final Integer vKey;
 	protected final Character key;
 }
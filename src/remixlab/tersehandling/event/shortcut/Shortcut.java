@@ -59,4 +59,31 @@ public class Shortcut implements EventConstants, Copyable {
 	public String description() {
 		return TerseEvent.modifiersText(mask);
 	}
+	
+	/**
+	 * Returns a packed representation of the shortcut, such that equal shortcuts
+	 * have the same id and different ones (of the actual modifiers, buttons and key
+	 * codes ranges) different ids. Used by the generic profiles to look up their
+	 * bindings without hashing shortcut objects.
+	 * <p>
+	 * Subclasses holding additional attributes should override this method.
+	 */
+	public long id() {
+		return id(mask);
+	}
+	
+	/**
+	 * Returns the {@link #id()} of the shortcut defined by the modifiers {@code mask}.
+	 */
+	public static long id(int mask) {
+		return pack(1, mask, 0);
+	}
+	
+	/**
+	 * Packs the shortcut {@code type} (1..7), modifiers {@code mask} and
+	 * {@code value} (28 bits) into a long, which is never 0.
+	 */
+	protected static long pack(int type, int mask, int value) {
+		return ((long) type << 60) | ((mask & 0xFFFFFFFFL) << 28) | (value & 0xFFFFFFFL);
+	}
 }
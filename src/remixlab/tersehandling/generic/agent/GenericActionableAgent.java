@@ -9,7 +9,9 @@
  ******************************************************************************/
 package remixlab.tersehandling.generic.agent;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
 
 import remixlab.tersehandling.core.Agent;
 import remixlab.tersehandling.core.EventGrabberTuple;
@@ -24,14 +26,48 @@ public class GenericActionableAgent<P extends GenericProfile<?,?>> extends Agent
 	public class EventGrabberDuobleTuple extends EventGrabberTuple {
 		public EventGrabberDuobleTuple(TerseEvent e, Actionable<?> a, Grabbable g) {
 	  	super(e,g);
-	  	if(event instanceof Duoable)
+	  	setAction(a);
+	  }
+		
+		// the list of released tuples the tuple returns to, if it is recycled
+		protected List<EventGrabberDuobleTuple> freeDuobleList;
+		
+		protected EventGrabberDuobleTuple(TerseEvent e, Actionable<?> a, Grabbable g, List<EventGrabberDuobleTuple> list) {
+			this(e,a,g);
+			freeDuobleList = list;
+		}
+		
+		@Override
+		protected boolean isRecycled() {
+			return freeDuobleList != null;
+		}
+		
+		@Override
+		protected void recycle() {
+			freeDuobleList.add(this);
+		}
+		
+		protected void set(TerseEvent e, Actionable<?> a, Grabbable g) {
+			set(e,g);
+			setAction(a);
+		}
+		
+		protected void setAction(Actionable<?> a) {
+			if(event instanceof Duoable)
 	  		((Duoable<?>)event).setAction(a);
 	  	else
 	  		System.out.println("Action will not be handled by grabber using this event type. Supply a Duoble event");
-	  }
+		}
 		
 		@Override
-		public boolean enqueue(LinkedList<EventGrabberTuple> queue) {
+		public Object action() {
+			if(event instanceof Duoable)
+				return ((Duoable<?>)event).action();
+			return null;
+		}
+		
+		@Override
+		public boolean enqueue(Queue<EventGrabberTuple> queue) {
 			if( event().isNull() )
 				return false;
 			if(event instanceof Duoable) {				
@@ -48,10 +84,35 @@ public class GenericActionableAgent<P extends GenericProfile<?,?>> extends Agent
 	}
 	
 	protected P profile;
+	// released EventGrabberDuobleTuples, see eventTuple(TerseEvent, Actionable, Grabbable)
+	protected List<EventGrabberDuobleTuple> freeDuobleTuples;
 	
 	public GenericActionableAgent(P p, TerseHandler tHandler, String n) {
 		super(tHandler, n);
 		profile = p;
+		freeDuobleTuples = new ArrayList<EventGrabberDuobleTuple>();
+	}
+	
+	/**
+	 * Returns an {@link EventGrabberDuobleTuple} holding {@code event}, {@code action}
+	 * and {@code g}, recycling a released one when possible.
+	 * 
+	 * @see #eventTuple(TerseEvent, Grabbable)
+	 */
+	protected EventGrabberTuple eventTuple(TerseEvent event, Actionable<?> action, Grabbable g) {
+		if(freeDuobleTuples.isEmpty())
+			return new EventGrabberDuobleTuple(event, action, g, freeDuobleTuples);
+		EventGrabberDuobleTuple tuple = freeDuobleTuples.remove(freeDuobleTuples.size() - 1);
+		tuple.set(event, action, g);
+		return tuple;
+	}
+	
+	/**
+	 * Enqueues the recycled {@code eventTuple}, releasing it if it is discarded.
+	 */
+	protected void enqueueRecycledEventTuple(EventGrabberTuple eventTuple) {
+		if( !enqueueEventTuple(eventTuple) )
+			eventTuple.release();
 	}
 
 	public P profile() {
@@ -84,8 +145,8 @@ public class GenericActionableAgent<P extends GenericProfile<?,?>> extends Agent
 		if(event == null || !handler.isAgentRegistered(this) || grabber() == null) return;
 		if(event instanceof Duoable<?>)
 			if( foreignGrabber() )
-				enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, grabber()));
 			else
-				enqueueEventTuple(new EventGrabberDuobleTuple(event, profile().handle((Duoable<?>)event), grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, profile().handle((Duoable<?>)event), grabber()));
 	}
 }
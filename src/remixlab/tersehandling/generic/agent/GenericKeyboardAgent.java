@@ -34,17 +34,17 @@ public class GenericKeyboardAgent<K extends GenericKeyboardProfile<?>> extends G
 		if(event == null || !handler.isAgentRegistered(this) || grabber() == null) return;
 		if(event instanceof Duoable<?>)
 			if( foreignGrabber() )
-				enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, grabber()));
 			else
-				enqueueEventTuple(new EventGrabberDuobleTuple(event, keyboardProfile().handle((Duoable<?>)event), grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, keyboardProfile().handle((Duoable<?>)event), grabber()));
 	}
 	
 	public void handleKey(TerseEvent event) {
 		if(event == null || !handler.isAgentRegistered(this) || grabber() == null) return;	
 		if(event instanceof KeyDuoable<?>)
 			if( foreignGrabber() )
-				enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, grabber()));
 			else
-				enqueueEventTuple(new EventGrabberDuobleTuple(event, keyboardProfile().handleKey((KeyDuoable<?>)event), grabber()));
+				enqueueRecycledEventTuple(eventTuple(event, keyboardProfile().handleKey((KeyDuoable<?>)event), grabber()));
 	}
 }
@@ -16,6 +16,9 @@ import remixlab.tersehandling.generic.profile.*;
 public class GenericMotionAgent<M extends GenericMotionProfile<?>, C extends GenericClickProfile<?>> extends GenericActionableAgent<M> {
 	protected C clickProfile;
 	protected float[] sens;
+	protected boolean coalescing;
+	// the last tuple enqueued by this agent, which may accumulate the next motion events
+	protected EventGrabberTuple lastTuple;
 	
 	public GenericMotionAgent(M p, C c, TerseHandler tHandler, String n) {
 		super(p, tHandler, n);
@@ -64,6 +67,40 @@ public class GenericMotionAgent<M extends GenericMotionProfile<?>, C extends Gen
 		return sens;
 	}
 	
+	/**
+	 * Returns {@code true} if consecutive relative motion events having the same
+	 * grabber and action are coalesced.
+	 * <p>
+	 * When coalescing, a relative motion event is accumulated (see
+	 * {@link remixlab.tersehandling.event.MotionEvent#accumulate(MotionEvent)}) into
+	 * the event of the tuple last enqueued by this agent, provided that tuple is
+	 * still the last one in the {@link remixlab.tersehandling.core.TerseHandler#eventTupleQueue()}
+	 * and it has the same grabber and action. Thus, all the motion events received
+	 * between two {@link remixlab.tersehandling.core.TerseHandler#handle()} calls
+	 * result in a single grabber interaction, having the same total displacement.
+	 * <p>
+	 * Note that the enqueued event is then modified by the events following it.
+	 */
+	public boolean isCoalescing() {
+		return coalescing;
+	}
+
+	public void enableCoalescing() {
+		setCoalescing(true);
+	}
+
+	public void disableCoalescing() {
+		setCoalescing(false);
+	}
+
+	/**
+	 * Sets the {@link #isCoalescing()} value.
+	 */
+	public void setCoalescing(boolean enable) {
+		coalescing = enable;
+		lastTuple = null;
+	}
+
 	@Override
 	public String info() {
 		String description = new String();
@@ -87,17 +124,56 @@ public class GenericMotionAgent<M extends GenericMotionProfile<?>, C extends Gen
 		if(event instanceof Duoable<?>) {
 			if(event instanceof ClickEvent)
 				if( foreignGrabber() )
-					enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+					enqueueRecycledEventTuple(eventTuple(event, grabber()));
 				else
-					enqueueEventTuple(new EventGrabberDuobleTuple(event, clickProfile().handle((Duoable<?>)event), grabber()));
+					enqueueRecycledEventTuple(eventTuple(event, clickProfile().handle((Duoable<?>)event), grabber()));
 			else
 				if(event instanceof MotionEvent) {
 					((MotionEvent)event).modulate(sens);
-					if( foreignGrabber() )
-						enqueueEventTuple(new EventGrabberTuple(event, grabber()));
-					else
-						enqueueEventTuple(new EventGrabberDuobleTuple(event, motionProfile().handle((Duoable<?>)event), grabber()));			
+					if( foreignGrabber() ) {
+						if( !coalesce((MotionEvent)event, null) )
+							enqueueMotionTuple(eventTuple(event, grabber()));
+					}
+					else {
+						Actionable<?> action = motionProfile().handle((Duoable<?>)event);
+						if( !coalesce((MotionEvent)event, action) )
+							enqueueMotionTuple(eventTuple(event, action, grabber()));
+					}
 			}
 		}
-	}	
+	}
+	
+	protected void enqueueMotionTuple(EventGrabberTuple eventTuple) {
+		lastTuple = null;
+		if( enqueueEventTuple(eventTuple) ) {
+			if( isCoalescing() )
+				lastTuple = eventTuple;
+		}
+		else
+			eventTuple.release();
+	}
+	
+	/**
+	 * Accumulates {@code event} into the event of the last enqueued tuple, if
+	 * {@link #isCoalescing()} and they share the grabber and {@code action}. Returns
+	 * {@code true} if the event was accumulated.
+	 */
+	protected boolean coalesce(MotionEvent event, Actionable<?> action) {
+		if( !isCoalescing() || lastTuple == null || !event.isRelative() )
+			return false;
+		EventGrabberTuple last = handler.eventTupleQueue().peekLast();
+		if( last != lastTuple || last.grabber() != grabber() || last.event() == event || !(last.event() instanceof MotionEvent) )
+			return false;
+		if( last instanceof GenericActionableAgent.EventGrabberDuobleTuple ) {
+			if( action == null || ((Duoable<?>)last.event()).action() != action )
+				return false;
+		}
+		else
+			if( action != null )
+				return false;
+		if( !((MotionEvent)last.event()).accumulate(event) )
+			return false;
+		event.release();
+		return true;
+	}
 }
@@ -60,19 +60,25 @@ public class GenericWheeledMotionAgent<W extends GenericMotionProfile<?>,
 		if(event instanceof Duoable<?>) {
 			if(event instanceof ClickEvent)
 				if( foreignGrabber() )
-					handler.enqueueEventTuple(new EventGrabberTuple(event, grabber()));
+					enqueueRecycledEventTuple(eventTuple(event, grabber()));
 				else
-					handler.enqueueEventTuple(new EventGrabberDuobleTuple(event, clickProfile().handle((Duoable<?>)event), grabber()));
+					enqueueRecycledEventTuple(eventTuple(event, clickProfile().handle((Duoable<?>)event), grabber()));
 			else
 				if(event instanceof MotionEvent) {
 					((MotionEvent)event).modulate(sens);
-					if( foreignGrabber() )
-						handler.enqueueEventTuple(new EventGrabberTuple(event, grabber()));
-					else
+					if( foreignGrabber() ) {
+						if( !coalesce((MotionEvent)event, null) )
+							enqueueMotionTuple(eventTuple(event, grabber()));
+					}
+					else {
+						Actionable<?> action;
 						if( event instanceof GenericDOF1Event )
-							handler.enqueueEventTuple(new EventGrabberDuobleTuple(event, wheelProfile().handle((Duoable<?>)event), grabber()));
+							action = wheelProfile().handle((Duoable<?>)event);
 						else
-							handler.enqueueEventTuple(new EventGrabberDuobleTuple(event, motionProfile().handle((Duoable<?>)event), grabber()));			
+							action = motionProfile().handle((Duoable<?>)event);
+						if( !coalesce((MotionEvent)event, action) )
+							enqueueMotionTuple(eventTuple(event, action, grabber()));
+					}
 			}
 		}
 	}
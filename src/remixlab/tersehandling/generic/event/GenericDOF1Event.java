@@ -71,4 +71,18 @@ public class GenericDOF1Event<A extends Actionable<?>> extends DOF1Event impleme
 	public GenericDOF1Event<A> get() {
 		return new GenericDOF1Event<A>(this);
 	}
+	
+	@Override
+	public GenericDOF1Event<A> set(DOF1Event prevEvent, float x, int modifiers, int button) {
+		super.set(prevEvent, x, modifiers, button);
+		action = null;
+		return this;
+	}
+	
+	@Override
+	public GenericDOF1Event<A> set(DOF1Event other) {
+		super.set(other);
+		action = other instanceof GenericDOF1Event ? ((GenericDOF1Event<?>) other).action : null;
+		return this;
+	}
 }
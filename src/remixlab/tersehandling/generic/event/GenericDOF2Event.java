@@ -71,4 +71,18 @@ public class GenericDOF2Event<A extends Actionable<?>> extends DOF2Event impleme
 	public GenericDOF2Event<A> get() {
 		return new GenericDOF2Event<A>(this);
 	}
+	
+	@Override
+	public GenericDOF2Event<A> set(DOF2Event prevEvent, float x, float y, int modifiers, int button) {
+		super.set(prevEvent, x, y, modifiers, button);
+		action = null;
+		return this;
+	}
+	
+	@Override
+	public GenericDOF2Event<A> set(DOF2Event other) {
+		super.set(other);
+		action = other instanceof GenericDOF2Event ? ((GenericDOF2Event<?>) other).action : null;
+		return this;
+	}
 }
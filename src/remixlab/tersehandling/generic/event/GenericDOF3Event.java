@@ -71,4 +71,18 @@ public class GenericDOF3Event<A extends Actionable<?>> extends DOF3Event impleme
 	public GenericDOF3Event<A> get() {
 		return new GenericDOF3Event<A>(this);
 	}
+	
+	@Override
+	public GenericDOF3Event<A> set(DOF3Event prevEvent, float x, float y, float z, int modifiers, int button) {
+		super.set(prevEvent, x, y, z, modifiers, button);
+		action = null;
+		return this;
+	}
+	
+	@Override
+	public GenericDOF3Event<A> set(DOF3Event other) {
+		super.set(other);
+		action = other instanceof GenericDOF3Event ? ((GenericDOF3Event<?>) other).action : null;
+		return this;
+	}
 }
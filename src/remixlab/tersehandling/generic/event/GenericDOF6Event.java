@@ -71,4 +71,18 @@ public class GenericDOF6Event<A extends Actionable<?>> extends DOF6Event impleme
 	public GenericDOF6Event<A> get() {
 		return new GenericDOF6Event<A>(this);
 	}
+	
+	@Override
+	public GenericDOF6Event<A> set(DOF6Event prevEvent, float x, float y, float z, float rx, float ry, float rz, int modifiers, int button) {
+		super.set(prevEvent, x, y, z, rx, ry, rz, modifiers, button);
+		action = null;
+		return this;
+	}
+	
+	@Override
+	public GenericDOF6Event<A> set(DOF6Event other) {
+		super.set(other);
+		action = other instanceof GenericDOF6Event ? ((GenericDOF6Event<?>) other).action : null;
+		return this;
+	}
 }
@@ -185,6 +185,6 @@ public class GenericClickProfile<A extends Actionable<?>> extends GenericProfile
 	 *            number of clicks defining the binding
 	 */
 	public Actionable<?> clickBinding(Integer mask, Integer button, Integer nc) {
-		return binding(new ClickShortcut(mask, button, nc));
+		return bindingById(ClickShortcut.id(mask, button, nc));
 	}
 }
@@ -128,6 +128,6 @@ public class GenericMotionProfile<A extends Actionable<?>> extends GenericProfil
 	 * @param button
 	 */
 	public Actionable<?> binding(Integer mask, Integer button) {
-		return binding(new ButtonShortcut(mask, button));
+		return bindingById(ButtonShortcut.id(mask, button));
 	}
 }
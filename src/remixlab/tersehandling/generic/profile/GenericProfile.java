@@ -14,15 +14,21 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import remixlab.tersehandling.core.EventConstants;
+import remixlab.tersehandling.event.TerseEvent;
 import remixlab.tersehandling.event.shortcut.*;
 import remixlab.util.Copyable;
 import remixlab.util.EqualsBuilder;
 import remixlab.util.HashCodeBuilder;
+import remixlab.util.LongHashMap;
 
 /**
  * A mapping between TerseEvent shortcuts and user-defined actions
  * implemented as a parameterized hash-map wrap.
  * <p>
+ * Bindings are looked up by {@link remixlab.tersehandling.event.shortcut.Shortcut#id()}
+ * in a primitive hash table, so that handling an event neither allocates its
+ * shortcut nor hashes it.
+ * <p>
  * Thanks to its Profiles, generic agents parse TerseEvents to determine
  * the user-defined action its input grabber should perform.
  *
@@ -51,9 +57,12 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	}
 
 	protected HashMap<K, A> map;
+	// the map bindings, keyed by shortcut id
+	protected LongHashMap<A> index;
 
 	public GenericProfile() {
 		map = new HashMap<K, A>();
+		index = new LongHashMap<A>();
 	}
 
 	/**
@@ -63,6 +72,7 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 */
 	protected GenericProfile(GenericProfile<K, A> other) {
 		map = new HashMap<K, A>();
+		index = new LongHashMap<A>();
 		for (Map.Entry<K, A> entry : other.map().entrySet()) {
 			K key = entry.getKey();
 			A value = entry.getValue();
@@ -86,6 +96,8 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 * @return The user-defined action. May be null if no actions was found.
 	 */
 	public Actionable<?> handle(Duoable<?> event) {
+		if (event instanceof TerseEvent)
+			return bindingById(((TerseEvent) event).shortcutId());
 		if (event != null)
 			return binding(event.shortcut());
 		return null;
@@ -95,13 +107,26 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	/**
 	 * Returns the {@code map} (which is simply an instance of {@code HashMap})
 	 * encapsulated by this object.
+	 * <p>
+	 * <b>Attention:</b> Don't modify the returned map: bindings are looked up in an
+	 * index which is only updated by the profile methods, e.g.,
+	 * {@link #setBinding(Shortcut, Actionable)}.
 	 */
 	public HashMap<K, A> map() {
 		return map;
 	}
 
 	public A binding(Shortcut key) {
-		return map.get(key);
+		return key == null ? map.get(key) : index.get(key.id());
+	}
+
+	/**
+	 * Returns the action bound to the shortcut whose
+	 * {@link remixlab.tersehandling.event.shortcut.Shortcut#id()} is {@code id}, or
+	 * {@code null} if there is none.
+	 */
+	public A bindingById(long id) {
+		return index.get(id);
 	}
 
 	/**
@@ -114,6 +139,8 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 */
 	public void setBinding(K key, A action) {
 		map.put(key, action);
+		if (key != null)
+			index.put(key.id(), action);
 	}
 
 	/**
@@ -124,6 +151,8 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 */
 	public void removeBinding(K key) {
 		map.remove(key);
+		if (key != null)
+			index.remove(key.id());
 	}
 
 	/**
@@ -131,6 +160,7 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 */
 	public void removeAllBindings() {
 		map.clear();
+		index.clear();
 	}
 
 	/**
@@ -143,7 +173,7 @@ public class GenericProfile<K extends Shortcut, A extends Actionable<?>> impleme
 	 *         shortcut.
 	 */
 	public boolean isShortcutInUse(K key) {
-		return map.containsKey(key);
+		return key == null ? map.containsKey(key) : index.containsKey(key.id());
 	}
 
 	/**
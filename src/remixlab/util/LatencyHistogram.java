@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.util;
+
+/**
+ * A histogram of (nanosecond) latencies with logarithmic buckets: each power of
+ * two is split into 8 linear buckets, so that every recorded value is known within
+ * a 12.5% error, whatever its magnitude. Recording a value neither allocates nor
+ * loops.
+ * <p>
+ * Export the histogram either as a summary ({@link #toString()}) or bucket by
+ * bucket, i.e., {@link #lowerBound(int)}, {@link #upperBound(int)} and
+ * {@link #frequency(int)} for each bucket up to {@link #buckets()}.
+ */
+public class LatencyHistogram {
+	protected static final int SUB_BUCKETS = 8;
+	protected static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+	protected long[] frequencies = new long[BUCKETS];
+	protected long count, sum;
+	protected long min = Long.MAX_VALUE, max;
+
+	/**
+	 * Records {@code nanos}. Negative values are recorded as {@code 0}.
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+		++frequencies[bucket(nanos)];
+		++count;
+		sum += nanos;
+		if (nanos < min)
+			min = nanos;
+		if (nanos > max)
+			max = nanos;
+	}
+
+	/**
+	 * Adds all the values recorded by {@code other} to this histogram.
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < BUCKETS; ++i)
+			frequencies[i] += other.frequencies[i];
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public void reset() {
+		for (int i = 0; i < BUCKETS; ++i)
+			frequencies[i] = 0;
+		count = sum = max = 0;
+		min = Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Returns the smallest recorded value, or {@code 0} if there is none.
+	 */
+	public long min() {
+		return count == 0 ? 0 : min;
+	}
+
+	/**
+	 * Returns the largest recorded value, or {@code 0} if there is none.
+	 */
+	public long max() {
+		return max;
+	}
+
+	/**
+	 * Returns the mean of the recorded values, or {@code 0} if there is none.
+	 */
+	public double mean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * Returns (an upper bound within 12.5% of) the value below which the
+	 * {@code p} fraction of the recorded values lie, e.g., {@code percentile(0.99)}.
+	 */
+	public long percentile(double p) {
+		if (count == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, p)) * count));
+		long cumulative = 0;
+		for (int i = 0; i < BUCKETS; ++i) {
+			cumulative += frequencies[i];
+			if (cumulative >= rank)
+				return Math.max(min(), Math.min(max, upperBound(i)));
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the number of buckets.
+	 */
+	public int buckets() {
+		return BUCKETS;
+	}
+
+	/**
+	 * Returns the number of recorded values which fall into bucket {@code i}.
+	 */
+	public long frequency(int i) {
+		return frequencies[i];
+	}
+
+	/**
+	 * Returns the smallest value of bucket {@code i}.
+	 */
+	public static long lowerBound(int i) {
+		if (i < 2 * SUB_BUCKETS)
+			return i;
+		int msb = i / SUB_BUCKETS + 2;
+		return (long) (SUB_BUCKETS | (i % SUB_BUCKETS)) << (msb - 3);
+	}
+
+	/**
+	 * Returns the largest value of bucket {@code i}.
+	 */
+	public static long upperBound(int i) {
+		return i + 1 < BUCKETS ? lowerBound(i + 1) - 1 : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Returns the bucket of the (non-negative) value {@code v}.
+	 */
+	public static int bucket(long v) {
+		if (v < SUB_BUCKETS)
+			return (int) v;
+		int msb = 63 - Long.numberOfLeadingZeros(v);
+		return ((msb - 2) * SUB_BUCKETS) | (int) ((v >>> (msb - 3)) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * Returns a one line summary (count, mean, percentiles and extremes, in
+	 * microseconds).
+	 */
+	@Override
+	public String toString() {
+		return "count=" + count + " mean=" + micros(mean()) + "us p50=" + micros(percentile(0.5)) + "us p90="
+				+ micros(percentile(0.9)) + "us p99=" + micros(percentile(0.99)) + "us min=" + micros(min()) + "us max="
+				+ micros(max) + "us";
+	}
+
+	protected static String micros(double nanos) {
+		return String.valueOf(Math.round(nanos / 100) / 10.0);
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * TerseHandling (version 1.0.0)
+ * Copyright (c) 2014 National University of Colombia, https://github.com/remixlab
+ * @author Jean Pierre Charalambos, http://otrolado.info/
+ *
+ * All rights reserved. Library that eases the creation of interactive
+ * scenes, released under the terms of the GNU Public License v3.0
+ * which is available at http://www.gnu.org/licenses/gpl.html
+ ******************************************************************************/
+package remixlab.util;
+
+/**
+ * A map from (non-zero) {@code long} keys to values, implemented as an open
+ * addressing (linear probing) hash table. Lookups neither box the key nor call
+ * {@code hashCode()} or {@code equals()}.
+ * <p>
+ * The {@code 0} key is reserved (it marks the empty slots) and cannot be mapped.
+ *
+ * @param <V> type of the mapped values
+ */
+public class LongHashMap<V> {
+	protected long[] keys;
+	protected Object[] values;
+	protected int size;
+	// keys.length - 1 (keys.length is a power of two)
+	protected int mask;
+
+	public LongHashMap() {
+		this(16);
+	}
+
+	/**
+	 * Defines a map with room for {@code capacity} entries before growing.
+	 */
+	public LongHashMap(int capacity) {
+		int length = 2;
+		// keep the load factor under 1/2
+		while (length < 2 * capacity)
+			length <<= 1;
+		keys = new long[length];
+		values = new Object[length];
+		mask = length - 1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the value mapped to {@code key}, or {@code null} if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		if (key == 0)
+			return null;
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return (V) values[i];
+			if (keys[i] == 0)
+				return null;
+		}
+	}
+
+	public boolean containsKey(long key) {
+		if (key == 0)
+			return false;
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return true;
+			if (keys[i] == 0)
+				return false;
+		}
+	}
+
+	/**
+	 * Maps {@code value} to {@code key} and returns the previously mapped value,
+	 * if any.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (key == 0)
+			throw new IllegalArgumentException("LongHashMap cannot map the 0 key");
+		int i = slot(key);
+		for (; keys[i] != 0; i = (i + 1) & mask)
+			if (keys[i] == key) {
+				V previous = (V) values[i];
+				values[i] = value;
+				return previous;
+			}
+		keys[i] = key;
+		values[i] = value;
+		if (2 * ++size > keys.length)
+			grow();
+		return null;
+	}
+
+	/**
+	 * Removes the {@code key} mapping and returns its value, if any.
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		if (key == 0)
+			return null;
+		int i = slot(key);
+		for (; keys[i] != key; i = (i + 1) & mask)
+			if (keys[i] == 0)
+				return null;
+		V previous = (V) values[i];
+		// backward shift deletion: move back the following entries of the cluster
+		// which would not be reachable otherwise
+		for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				i = j;
+			}
+		}
+		keys[i] = 0;
+		values[i] = null;
+		--size;
+		return previous;
+	}
+
+	public void clear() {
+		for (int i = 0; i < keys.length; ++i) {
+			keys[i] = 0;
+			values[i] = null;
+		}
+		size = 0;
+	}
+
+	protected int slot(long key) {
+		// fibonacci hashing
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	protected void grow() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[2 * oldKeys.length];
+		values = new Object[2 * oldKeys.length];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; ++i)
+			if (oldKeys[i] != 0) {
+				int j = slot(oldKeys[i]);
+				while (keys[j] != 0)
+					j = (j + 1) & mask;
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+	}
+}